@@ -0,0 +1,271 @@
+/**
+ * CompileServer.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import edu.clemson.cs.r2jt.compilereport.CompileReport;
+import edu.clemson.cs.r2jt.init.ModuleDecCache;
+
+/**
+ * <p>A long-lived compiler for editor integrations. Starting a JVM and
+ * parsing every imported facility and theory takes seconds, so the server
+ * stays resident and keeps the parsed form of unchanged imports between
+ * requests.</p>
+ *
+ * <p>Requests are read from standard input, one JSON object per line:</p>
+ *
+ * <pre>
+ * {"id": 1,
+ *  "args": ["-webinterface", "-maindir", "/home/me/RESOLVE/Main"],
+ *  "file": {"name": "Main_Fac", "concept": "", "pkg": "Facilities",
+ *           "kind": "FACILITY", "content": "..."}}
+ * </pre>
+ *
+ * <p><code>args</code> are the compiler arguments the WebIDE passes, and
+ * <code>file</code> is the module to compile, given the same way the WebIDE
+ * gives it to {@link ResolveCompiler#createMeta}. Its imports are read from
+ * the workspace named by <code>-maindir</code>. Each response is
+ * one JSON object on standard output holding the request's
+ * <code>id</code>, the compile report's <code>output</code>,
+ * <code>errors</code> and <code>bugs</code>, everything the compiler printed
+ * as <code>log</code>, and the <code>millis</code> it took. A request of
+ * <code>{"command": "stats"}</code> reports the size of the cache, and
+ * <code>{"command": "shutdown"}</code> (or the end of the input) stops the
+ * server.</p>
+ *
+ * <p>Every request gets its own {@link ResolveCompiler}, and with it its own
+ * flags, symbol table and type graph. The compiler still keeps some state in
+ * static fields, such as the primitive program types and the console its
+ * error handler writes to, so requests are compiled one at a time.</p>
+ */
+public class CompileServer {
+
+    // ===========================================================
+    // Member Fields
+    // ===========================================================
+
+    /**
+     * <p>The number of parsed modules kept between requests.</p>
+     */
+    private static final int MODULE_CACHE_CAPACITY = 512;
+
+    private final ModuleDecCache myModuleDecCache;
+
+    private final PrintStream myResponses;
+
+    private final ConsoleCapture myConsole;
+
+    // ===========================================================
+    // Constructors
+    // ===========================================================
+
+    /**
+     * <p>Creates a server that answers on <code>responses</code> and reads
+     * what the compiler prints from <code>console</code>.</p>
+     */
+    public CompileServer(PrintStream responses, ConsoleCapture console) {
+        myModuleDecCache = new ModuleDecCache(MODULE_CACHE_CAPACITY);
+        myResponses = responses;
+        myConsole = console;
+    }
+
+    // ===========================================================
+    // Public Methods
+    // ===========================================================
+
+    /**
+     * <p>Starts a server on standard input and output. Anything the compiler
+     * prints to standard output or error is captured for the request being
+     * compiled, or sent to standard error between requests, so that it cannot
+     * be mistaken for a response.</p>
+     */
+    public static void main(String[] args) throws IOException {
+        PrintStream responses = new PrintStream(System.out, true, "utf-8");
+        ConsoleCapture console = new ConsoleCapture(System.err);
+        PrintStream consoleStream = new PrintStream(console, true);
+        System.setOut(consoleStream);
+        System.setErr(consoleStream);
+
+        CompileServer server = new CompileServer(responses, console);
+        server.serve(new BufferedReader(new InputStreamReader(System.in,
+                "utf-8")));
+    }
+
+    /**
+     * <p>Answers requests until the end of the input or a shutdown
+     * request.</p>
+     */
+    public void serve(BufferedReader requests) throws IOException {
+        String line;
+        boolean shutdown = false;
+        while (!shutdown && (line = requests.readLine()) != null) {
+            if (!line.trim().isEmpty()) {
+                shutdown = handleRequest(line);
+            }
+        }
+    }
+
+    // ===========================================================
+    // Private Methods
+    // ===========================================================
+
+    /**
+     * <p>Answers a single request line, returning whether it asked the server
+     * to shut down.</p>
+     */
+    private boolean handleRequest(String line) {
+        boolean shutdown = false;
+        JSONObject response = new JSONObject();
+
+        JSONObject request = null;
+        try {
+            request = new JSONObject(line);
+        }
+        catch (JSONException je) {
+            response.put("error", "Malformed request: " + je.getMessage());
+        }
+
+        if (request != null) {
+            response.put("id", request.opt("id"));
+
+            String command = request.optString("command", "compile");
+            if (command.equals("shutdown")) {
+                shutdown = true;
+            }
+            else if (command.equals("stats")) {
+                response.put("cachedModules", myModuleDecCache.size());
+            }
+            else {
+                long start = System.currentTimeMillis();
+                ByteArrayOutputStream log = new ByteArrayOutputStream();
+                myConsole.setTarget(log);
+                try {
+                    compile(request, response);
+                }
+                catch (RuntimeException re) {
+                    //One bad request must not take the server down
+                    response.put("error", re.toString());
+                }
+                finally {
+                    myConsole.setTarget(null);
+                }
+
+                response.put("log", toString(log));
+                response.put("millis", System.currentTimeMillis() - start);
+            }
+        }
+
+        if (!shutdown) {
+            myResponses.println(response.toString());
+        }
+
+        return shutdown;
+    }
+
+    /**
+     * <p>Compiles <code>request</code> and records the compile report in
+     * <code>response</code>.</p>
+     */
+    private void compile(JSONObject request, JSONObject response) {
+        JSONArray jsonArgs = request.getJSONArray("args");
+        String[] args = new String[jsonArgs.length()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = jsonArgs.getString(i);
+        }
+
+        JSONObject file = request.getJSONObject("file");
+        ResolveCompiler compiler = new ResolveCompiler(args);
+        compiler.createMeta(file.getString("name"), file.optString("concept",
+                ""), file.optString("pkg", ""), file.getString("content"),
+                file.optString("kind", ""));
+        compiler.setModuleDecCache(myModuleDecCache);
+        compiler.compile(args);
+
+        CompileReport report = compiler.getReport();
+        response.put("output", report.getOutput());
+        response.put("errors", new JSONObject("{" + report.getErrors() + "}")
+                .getJSONArray("errors"));
+        response.put("bugs", new JSONObject("{" + report.getBugReports()
+                + "}").getJSONArray("bugs"));
+    }
+
+    private static String toString(ByteArrayOutputStream bytes) {
+        try {
+            return bytes.toString("utf-8");
+        }
+        catch (UnsupportedEncodingException uee) {
+            //Every Java platform is required to support UTF-8
+            throw new RuntimeException(uee);
+        }
+    }
+
+    // ===========================================================
+    // Helper Classes
+    // ===========================================================
+
+    /**
+     * <p>Stands in for the console, so that everything printed while a
+     * request is compiled goes to that request's log. It is installed once
+     * at startup, because some classes keep the console they find when they
+     * are loaded.</p>
+     */
+    public static class ConsoleCapture extends OutputStream {
+
+        private final OutputStream myDefault;
+
+        private OutputStream myTarget = null;
+
+        public ConsoleCapture(OutputStream defaultTarget) {
+            myDefault = defaultTarget;
+        }
+
+        /**
+         * <p>Sends everything written from now on to <code>target</code>, or
+         * back to the default console if it is <code>null</code>.</p>
+         */
+        public synchronized void setTarget(OutputStream target) {
+            myTarget = target;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            current().write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len)
+                throws IOException {
+            current().write(b, off, len);
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            current().flush();
+        }
+
+        private OutputStream current() {
+            return (myTarget == null) ? myDefault : myTarget;
+        }
+    }
+}
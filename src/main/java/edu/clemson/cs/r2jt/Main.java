@@ -26,10 +26,12 @@ import edu.clemson.cs.r2jt.data.ModuleKind;
 import edu.clemson.cs.r2jt.errors.ErrorHandler;
 import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.init.Controller;
+import edu.clemson.cs.r2jt.init.ModuleDecCache;
 import edu.clemson.cs.r2jt.translation.*;
 import edu.clemson.cs.r2jt.typeandpopulate.MathSymbolTableBuilder;
 import edu.clemson.cs.r2jt.rewriteprover.Prover;
 import edu.clemson.cs.r2jt.rewriteprover.AlgebraicProver;
+import edu.clemson.cs.r2jt.rewriteprover.ProofCache;
 import edu.clemson.cs.r2jt.rewriteprover.ProverListener;
 import edu.clemson.cs.r2jt.misc.Flag;
 import edu.clemson.cs.r2jt.misc.FlagDependencies;
@@ -41,7 +43,7 @@ import edu.clemson.cs.r2jt.vcgeneration.VCGenerator;
  */
 public class Main {
 
-    private static final String VERSION = "Summer 2015";
+    public static final String VERSION = "Summer 2015";
 
     public static final String FLAG_SECTION_GENERAL = "General";
 
@@ -58,6 +60,13 @@ public class Main {
             new Flag("General", "nostdimport",
                     "Prevents the compiler from importing standard uses modules.");
 
+    public static final Flag FLAG_AST_CACHE =
+            new Flag(FLAG_SECTION_GENERAL, "astcache",
+                    "Reuse the parsed form of unchanged imported modules "
+                            + "stored in the given directory, and store new "
+                            + "ones there.", new String[] { "directory" },
+                    Flag.Type.HIDDEN);
+
     //private static boolean      bodies      = false;
     private static boolean compileDirs = false;
     private static String mainDirName = "Main";
@@ -177,6 +186,16 @@ public class Main {
     public static void runMain(String[] args, CompileReport rep,
             MetaFile inputFile, HashMap<String, MetaFile> userFileMap,
             ProverListener listener) {
+        runMain(args, rep, inputFile, userFileMap, listener, null);
+    }
+
+    /*
+     * Lets a long-lived caller, such as the CompileServer, hand every
+     * compile the same cache of parsed imports
+     */
+    public static void runMain(String[] args, CompileReport rep,
+            MetaFile inputFile, HashMap<String, MetaFile> userFileMap,
+            ProverListener listener, ModuleDecCache moduleDecCache) {
         //Environment.newInstance();
         //env = Environment.getInstance();
 
@@ -191,6 +210,7 @@ public class Main {
             compileEnvironment.setTargetSource(fileSource);
             compileEnvironment.setUserFileMap(userFileMap);
             compileEnvironment.setProverListener(listener);
+            compileEnvironment.setModuleDecCache(moduleDecCache);
             args = compileEnvironment.getRemainingArgs();
             ErrorHandler err = new ErrorHandler(compileEnvironment);
             compileEnvironment.setErrorHandler(err);
@@ -504,6 +524,7 @@ public class Main {
             AlgebraicProver.setUpFlags();
             //Your module here!
             CongruenceClassProver.setUpFlags();
+            ProofCache.setUpFlags();
             FlagDependencies.seal();
         }
     }
@@ -19,6 +19,7 @@ import java.util.HashMap;
 import edu.clemson.cs.r2jt.compilereport.CompileReport;
 import edu.clemson.cs.r2jt.data.MetaFile;
 import edu.clemson.cs.r2jt.data.ModuleKind;
+import edu.clemson.cs.r2jt.init.ModuleDecCache;
 import edu.clemson.cs.r2jt.rewriteprover.Prover;
 import edu.clemson.cs.r2jt.rewriteprover.ProverListener;
 import edu.clemson.cs.r2jt.misc.Flag;
@@ -86,6 +87,7 @@ public class ResolveCompiler {
     private HashMap<String, MetaFile> myUserFileMap;
     private CompileReport myCompileReport;
     private MetaFile myInputFile;
+    private ModuleDecCache myModuleDecCache = null;
 
     public ResolveCompiler(String[] args, MetaFile inputFile,
             String customFacilityName, HashMap<String, MetaFile> userFileMap) {
@@ -154,13 +156,22 @@ public class ResolveCompiler {
         myUserFileMap.put(key, myInputFile);
     }
 
+    /**
+     * <p>Lets this compiler reuse the imports parsed by earlier compiles in
+     * the same process.</p>
+     */
+    public void setModuleDecCache(ModuleDecCache cache) {
+        myModuleDecCache = cache;
+    }
+
     public void compile(String[] args) {
-        Main.runMain(args, myCompileReport, myInputFile, myUserFileMap);
+        Main.runMain(args, myCompileReport, myInputFile, myUserFileMap, null,
+                myModuleDecCache);
     }
 
     public void compile(String[] args, ProverListener listener) {
         Main.runMain(args, myCompileReport, myInputFile, myUserFileMap,
-                listener);
+                listener, myModuleDecCache);
     }
 
     /*public void wsCompile(String[] args, WebSocketWriter writer){
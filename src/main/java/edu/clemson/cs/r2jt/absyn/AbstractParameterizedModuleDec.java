@@ -16,6 +16,8 @@ import edu.clemson.cs.r2jt.collections.List;
 
 public abstract class AbstractParameterizedModuleDec extends ModuleDec {
 
+    private static final long serialVersionUID = 1L;
+
     /** The parameters member. */
     protected List<ModuleParameterDec> parameters;
 
@@ -18,6 +18,8 @@ import edu.clemson.cs.r2jt.collections.Iterator;
 
 public class AlternativeExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // Variables
 
     /** The location member. */
@@ -23,6 +23,8 @@ import edu.clemson.cs.r2jt.data.Location;
  */
 public class ArbitraryExpTy extends Ty {
 
+    private static final long serialVersionUID = 1L;
+
     private final Exp myArbitraryExp;
 
     public ArbitraryExpTy(Exp arbitraryExp) {
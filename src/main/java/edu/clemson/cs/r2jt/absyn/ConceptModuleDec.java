@@ -17,6 +17,8 @@ import edu.clemson.cs.r2jt.data.PosSymbol;
 
 public class ConceptModuleDec extends AbstractParameterizedModuleDec {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -30,6 +30,8 @@ import edu.clemson.cs.r2jt.data.Location;
 
 public class ConstructedTy extends Ty {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -18,6 +18,8 @@ import edu.clemson.cs.r2jt.typeandpopulate.MTType;
 
 public abstract class Dec extends ResolveConceptualElement implements Cloneable {
 
+    private static final long serialVersionUID = 1L;
+
     protected MTType myMathType = null;
 
     //protected MTType myMathTypeValue = null;
@@ -18,6 +18,8 @@ import edu.clemson.cs.r2jt.data.PosSymbol;
 
 public class EnhancementBodyItem extends ResolveConceptualElement {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -19,6 +19,8 @@ import edu.clemson.cs.r2jt.data.Symbol;
 
 public class EnhancementBodyModuleDec extends AbstractParameterizedModuleDec {
 
+    private static final long serialVersionUID = 1L;
+
     // Variables
 
     /** The name member. */
@@ -19,6 +19,8 @@ import edu.clemson.cs.r2jt.data.Symbol;
 
 public class EqualsExp extends AbstractFunctionExp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Constants
     // ===========================================================
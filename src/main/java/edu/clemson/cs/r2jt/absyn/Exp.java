@@ -13,8 +13,6 @@
 package edu.clemson.cs.r2jt.absyn;
 
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Set;
 
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.data.Location;
@@ -26,6 +24,8 @@ import edu.clemson.cs.r2jt.typeandpopulate.MTProper;
 
 public abstract class Exp extends ResolveConceptualElement implements Cloneable {
 
+    private static final long serialVersionUID = 1L;
+
     /*
      * These variables are useful to the proof checking classes and
      * will only be set if the -proofcheck flag in the environment is ON --
@@ -94,34 +94,29 @@ public abstract class Exp extends ResolveConceptualElement implements Cloneable
     public final Exp substitute(java.util.Map<Exp, Exp> substitutions) {
         Exp retval;
 
-        boolean match = false;
-
-        java.util.Map.Entry<Exp, Exp> curEntry = null;
         if (substitutions.size() > 0) {
-            Set<java.util.Map.Entry<Exp, Exp>> entries =
-                    substitutions.entrySet();
-            Iterator<java.util.Map.Entry<Exp, Exp>> entryIter =
-                    entries.iterator();
-            //System.out.println("Recursing: " + this.toString(0) + " : " + this.getClass());
-            while (entryIter.hasNext() && !match) {
-                curEntry = entryIter.next();
-                //System.out.print(curEntry.getKey().toString(0) + " --?-> " + curEntry.getValue().toString(0));
-                match = curEntry.getKey().equivalent(this);
-
-                /*if (match) {
-                	System.out.println(" [Yes] ");
-                }
-                else {
-                	System.out.println(" [ No] ");
-                }*/
+            //The index is built once, by the outermost call, and reused as
+            //substituteChildren() recurses back in here
+            SubstitutionIndex index = SubstitutionIndex.current(substitutions);
+            boolean outermost = (index == null);
+            if (outermost) {
+                index = SubstitutionIndex.install(substitutions);
             }
 
-            if (match) {
-                //System.out.println(curEntry.getKey().toString(0) + " --> " + curEntry.getValue().toString(0));
-                retval = curEntry.getValue();
+            try {
+                java.util.Map.Entry<Exp, Exp> match = index.find(this);
+
+                if (match != null) {
+                    retval = match.getValue();
+                }
+                else {
+                    retval = Exp.substituteChildren(this, substitutions);
+                }
             }
-            else {
-                retval = Exp.substituteChildren(this, substitutions);
+            finally {
+                if (outermost) {
+                    index.uninstall();
+                }
             }
         }
         else {
@@ -131,6 +126,50 @@ public abstract class Exp extends ResolveConceptualElement implements Cloneable
         return retval;
     }
 
+    /**
+     * <p>Returned by {@link #structuralHash()} when an expression has no
+     * cheap hash that agrees with <code>equivalent()</code>.</p>
+     */
+    public static final int NO_STRUCTURAL_HASH = 0;
+
+    /**
+     * <p>Returns a hash of the top of this expression that agrees with
+     * <code>equivalent()</code>: whenever <code>a.equivalent(b)</code>,
+     * <code>a.structuralHash() == b.structuralHash()</code>. It must be
+     * computed in constant time, without visiting subexpressions, since
+     * {@link #substitute(java.util.Map)} asks every node for it.</p>
+     *
+     * <p>A class may only override this if its <code>equivalent()</code>
+     * accepts nothing but instances of that class, and it must hash only
+     * what its <code>equivalent()</code> compares. The default,
+     * {@link #NO_STRUCTURAL_HASH}, is always safe.</p>
+     */
+    protected int structuralHash() {
+        return NO_STRUCTURAL_HASH;
+    }
+
+    /**
+     * <p>Combines the names of a qualifier and a name into a structural
+     * hash, treating a missing symbol the way
+     * {@link #posSymbolEquivalent(PosSymbol, PosSymbol)} does.</p>
+     */
+    protected static int structuralHash(PosSymbol qualifier, PosSymbol name) {
+        int result = 17;
+        result = 31 * result + nameHash(qualifier);
+        result = 31 * result + nameHash(name);
+
+        return result;
+    }
+
+    private static int nameHash(PosSymbol s) {
+        int result = 0;
+        if (s != null && s.getName() != null) {
+            result = s.getName().hashCode();
+        }
+
+        return result;
+    }
+
     //XXX : For the benefit of making the old prover work with the new type
     //      system, we make the assumption that performing substitutions does
     //      not change the type of the expression.  In general, this is a 
@@ -16,6 +16,8 @@ import edu.clemson.cs.r2jt.data.PosSymbol;
 
 public class FacilityTypeDec extends Dec {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
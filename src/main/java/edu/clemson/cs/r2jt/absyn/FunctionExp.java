@@ -27,6 +27,8 @@ import edu.clemson.cs.r2jt.collections.Iterator;
 
 public class FunctionExp extends AbstractFunctionExp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -94,6 +96,12 @@ public class FunctionExp extends AbstractFunctionExp {
         return retval;
     }
 
+    @Override
+    protected int structuralHash() {
+        //Distinguish f from a variable named f, which is never equivalent
+        return 31 * structuralHash(qualifier, name) + 1;
+    }
+
     private boolean paramsEquivalent(List<FunctionArgList> p1,
             List<FunctionArgList> p2) {
         boolean retval = true;
@@ -22,6 +22,8 @@ import edu.clemson.cs.r2jt.data.Location;
  */
 public class FunctionValueExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     @Override
     public void accept(ResolveConceptualVisitor v) {
     // TODO Auto-generated method stub
@@ -18,6 +18,8 @@ import edu.clemson.cs.r2jt.data.PosSymbol;
 
 public class GoalExp extends LineNumberedExp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
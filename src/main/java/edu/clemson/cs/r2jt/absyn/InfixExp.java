@@ -22,6 +22,8 @@ import edu.clemson.cs.r2jt.init.CompileEnvironment;
 
 public class InfixExp extends AbstractFunctionExp {
 
+    private static final long serialVersionUID = 1L;
+
     /** The location member. */
     private Location location;
 
@@ -19,6 +19,8 @@ import edu.clemson.cs.r2jt.typeandpopulate.MTType;
 
 public class IntegerExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
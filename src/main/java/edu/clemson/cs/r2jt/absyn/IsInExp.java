@@ -20,6 +20,8 @@ import edu.clemson.cs.r2jt.errors.ErrorHandler;
 
 public class IsInExp extends AbstractFunctionExp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Constants
     // ===========================================================
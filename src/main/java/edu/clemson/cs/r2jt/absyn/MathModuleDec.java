@@ -17,6 +17,8 @@ import edu.clemson.cs.r2jt.data.PosSymbol;
 
 public class MathModuleDec extends AbstractParameterizedModuleDec {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -19,6 +19,8 @@ import edu.clemson.cs.r2jt.typeandpopulate.programtypes.PTType;
 
 public class ModuleArgumentItem extends ResolveConceptualElement {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -16,6 +16,8 @@ import edu.clemson.cs.r2jt.collections.List;
 
 public abstract class ModuleDec extends Dec {
 
+    private static final long serialVersionUID = 1L;
+
     /** The usesItems member. */
     protected List<UsesItem> usesItems;
 
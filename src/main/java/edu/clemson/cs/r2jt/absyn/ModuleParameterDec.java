@@ -16,6 +16,8 @@ import edu.clemson.cs.r2jt.data.PosSymbol;
 
 public class ModuleParameterDec extends Dec {
 
+    private static final long serialVersionUID = 1L;
+
     private final Dec myWrappedDec;
 
     public <T extends Dec & ModuleParameter> ModuleParameterDec(T dec) {
@@ -19,6 +19,8 @@ import edu.clemson.cs.r2jt.data.Symbol;
 
 public class OutfixExp extends AbstractFunctionExp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Constants
     // ===========================================================
@@ -18,6 +18,8 @@ import edu.clemson.cs.r2jt.data.Symbol;
 
 public class ParameterVarDec extends Dec {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -16,6 +16,8 @@ import edu.clemson.cs.r2jt.typeandpopulate.programtypes.PTType;
 
 public abstract class ProgramExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     private PTType myProgramType;
 
     public abstract void accept(ResolveConceptualVisitor v);
@@ -12,6 +12,7 @@
  */
 package edu.clemson.cs.r2jt.absyn;
 
+import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
@@ -24,7 +25,12 @@ import edu.clemson.cs.r2jt.data.AsStringCapability;
 import edu.clemson.cs.r2jt.data.Location;
 import java.lang.reflect.ParameterizedType;
 
-public abstract class ResolveConceptualElement implements AsStringCapability {
+public abstract class ResolveConceptualElement
+        implements
+            AsStringCapability,
+            Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public abstract void accept(ResolveConceptualVisitor v);
 
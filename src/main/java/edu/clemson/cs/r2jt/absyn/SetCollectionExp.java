@@ -17,6 +17,8 @@ import edu.clemson.cs.r2jt.data.Location;
 
 public class SetCollectionExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -0,0 +1,166 @@
+/**
+ * SubstitutionIndex.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.absyn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Finds the key of a substitution map that is <code>equivalent()</code> to
+ * a given expression without trying every key in turn.</p>
+ *
+ * <p>Keys whose {@link Exp#structuralHash()} is meaningful are bucketed by it,
+ * so only keys in the expression's own bucket need to be compared. All other
+ * keys are compared against every expression, exactly as before. Candidates
+ * are tried in the map's iteration order, so the key that is found is always
+ * the one a linear search would have found.</p>
+ *
+ * <p>One index is built per call to {@link Exp#substitute(java.util.Map)}
+ * and is shared by the whole recursive traversal through a thread local, so
+ * that <code>substituteChildren()</code> implementations need not know about
+ * it.</p>
+ */
+final class SubstitutionIndex {
+
+    private static final ThreadLocal<SubstitutionIndex> CURRENT =
+            new ThreadLocal<SubstitutionIndex>();
+
+    private final Map<Exp, Exp> mySubstitutions;
+
+    private final SubstitutionIndex myEnclosingIndex;
+
+    private final Map<Integer, List<Candidate>> myBuckets =
+            new HashMap<Integer, List<Candidate>>();
+
+    private final List<Candidate> myUnhashedKeys = new ArrayList<Candidate>();
+
+    private SubstitutionIndex(Map<Exp, Exp> substitutions,
+            SubstitutionIndex enclosing) {
+        mySubstitutions = substitutions;
+        myEnclosingIndex = enclosing;
+
+        int order = 0;
+        for (Map.Entry<Exp, Exp> entry : substitutions.entrySet()) {
+            Candidate c = new Candidate(order, entry);
+            order++;
+
+            int hash = entry.getKey().structuralHash();
+            if (hash == Exp.NO_STRUCTURAL_HASH) {
+                myUnhashedKeys.add(c);
+            }
+            else {
+                List<Candidate> bucket = myBuckets.get(hash);
+                if (bucket == null) {
+                    bucket = new ArrayList<Candidate>(1);
+                    myBuckets.put(hash, bucket);
+                }
+                bucket.add(c);
+            }
+        }
+    }
+
+    /**
+     * <p>Returns the index this thread is currently using for
+     * <code>substitutions</code>, or <code>null</code> if there is none.</p>
+     */
+    static SubstitutionIndex current(Map<Exp, Exp> substitutions) {
+        SubstitutionIndex result = CURRENT.get();
+        if (result != null && result.mySubstitutions != substitutions) {
+            result = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Builds an index of <code>substitutions</code> and makes it this
+     * thread's current one until {@link #uninstall()} is called.</p>
+     */
+    static SubstitutionIndex install(Map<Exp, Exp> substitutions) {
+        SubstitutionIndex result =
+                new SubstitutionIndex(substitutions, CURRENT.get());
+        CURRENT.set(result);
+
+        return result;
+    }
+
+    /**
+     * <p>Restores whatever index this thread was using before this one was
+     * installed.</p>
+     */
+    void uninstall() {
+        if (myEnclosingIndex == null) {
+            CURRENT.remove();
+        }
+        else {
+            CURRENT.set(myEnclosingIndex);
+        }
+    }
+
+    /**
+     * <p>Returns the first substitution, in the map's iteration order, whose
+     * key is <code>equivalent()</code> to <code>e</code>, or
+     * <code>null</code> if there is none.</p>
+     */
+    Map.Entry<Exp, Exp> find(Exp e) {
+        List<Candidate> bucket = myBuckets.get(e.structuralHash());
+        if (bucket == null) {
+            bucket = Collections.emptyList();
+        }
+
+        //Merge the two lists by their original order
+        Map.Entry<Exp, Exp> result = null;
+        int b = 0, u = 0;
+        while (result == null
+                && (b < bucket.size() || u < myUnhashedKeys.size())) {
+            int bucketOrder = Integer.MAX_VALUE;
+            if (b < bucket.size()) {
+                bucketOrder = bucket.get(b).myOrder;
+            }
+            int unhashedOrder = Integer.MAX_VALUE;
+            if (u < myUnhashedKeys.size()) {
+                unhashedOrder = myUnhashedKeys.get(u).myOrder;
+            }
+
+            Candidate next;
+            if (bucketOrder < unhashedOrder) {
+                next = bucket.get(b);
+                b++;
+            }
+            else {
+                next = myUnhashedKeys.get(u);
+                u++;
+            }
+
+            if (next.myEntry.getKey().equivalent(e)) {
+                result = next.myEntry;
+            }
+        }
+
+        return result;
+    }
+
+    private static class Candidate {
+
+        public final int myOrder;
+        public final Map.Entry<Exp, Exp> myEntry;
+
+        public Candidate(int order, Map.Entry<Exp, Exp> entry) {
+            myOrder = order;
+            myEntry = entry;
+        }
+    }
+}
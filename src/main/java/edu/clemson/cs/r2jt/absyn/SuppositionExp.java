@@ -19,6 +19,8 @@ import edu.clemson.cs.r2jt.data.PosSymbol;
 
 public class SuppositionExp extends LineNumberedExp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
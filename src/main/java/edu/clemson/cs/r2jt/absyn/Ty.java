@@ -25,6 +25,8 @@ import edu.clemson.cs.r2jt.typeandpopulate.programtypes.PTType;
  */
 public abstract class Ty extends ResolveConceptualElement implements Cloneable {
 
+    private static final long serialVersionUID = 1L;
+
     protected MTType myMathType = null;
     protected MTType myMathTypeValue = null;
     protected PTType myProgramTypeValue = null;
@@ -60,6 +60,8 @@ import java.util.Map;
  */
 public class TypeAssertionExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     private Exp myExp;
     private ArbitraryExpTy myAssertedTy;
     private final Location myLocation;
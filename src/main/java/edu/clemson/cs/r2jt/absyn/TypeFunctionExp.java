@@ -19,6 +19,8 @@ import edu.clemson.cs.r2jt.collections.Iterator;
 
 public class TypeFunctionExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Constants
     // ===========================================================
@@ -19,6 +19,8 @@ import edu.clemson.cs.r2jt.data.Symbol;
 
 public class VarExp extends Exp {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
@@ -79,6 +81,11 @@ public class VarExp extends Exp {
         return retval;
     }
 
+    @Override
+    protected int structuralHash() {
+        return structuralHash(qualifier, name);
+    }
+
     public Exp substituteChildren(java.util.Map<Exp, Exp> substitutions) {
         Exp retval = new VarExp(location, qualifier, name, quantification);
         retval.setMathType(getMathType());
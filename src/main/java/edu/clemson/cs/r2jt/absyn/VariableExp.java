@@ -14,6 +14,8 @@ package edu.clemson.cs.r2jt.absyn;
 
 public abstract class VariableExp extends ProgramExp {
 
+    private static final long serialVersionUID = 1L;
+
     public abstract void accept(ResolveConceptualVisitor v);
 
     public abstract String asString(int indent, int increment);
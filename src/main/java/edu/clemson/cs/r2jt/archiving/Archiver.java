@@ -13,7 +13,6 @@
 package edu.clemson.cs.r2jt.archiving;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.util.*;
 import java.util.jar.Attributes;
@@ -60,6 +59,13 @@ public class Archiver {
     public static final Flag FLAG_VERBOSE_ARCHIVE =
             new Flag(FLAG_SECTION_NAME, "verboseJar", FLAG_DESC_VERBOSE_ARCHIVE);
 
+    // The system compiler and its file manager are costly to set up (the
+    // file manager caches the platform jars it has opened), so one of each
+    // is shared by every build.  The file manager is not thread safe, so
+    // compiles are serialized on the Archiver class.
+    private static JavaCompiler sharedCompiler;
+    private static StandardJavaFileManager sharedFileManager;
+
     private final CompileEnvironment myInstanceEnvironment;
     private boolean webOutput;
 
@@ -70,6 +76,13 @@ public class Archiver {
     private List<String> sourceFiles = new List<String>();
     private List<String> archiveFiles = new List<String>();
 
+    // Java source that was generated in memory, by the path it would have
+    // on disk, and the compiled classes, by binary class name
+    private Map<String, String> generatedSources =
+            new HashMap<String, String>();
+    private Map<String, byte[]> classFiles =
+            new LinkedHashMap<String, byte[]>();
+
     // Operating System name (necessary to know this
     // for launching javac and jar)
     //private String os = System.getProperty("os.name");
@@ -147,16 +160,11 @@ public class Archiver {
      * @param inputFile File to add to the archive
      */
     public void addFileToArchive(File inputFile) {
-        String inFile = inputFile.toString();
-        String[] temp = inFile.split("\\.");
-        String ext = temp[temp.length - 1];
-        String javaFile;
-        if (ext.equals("co") || ext.equals("rb") || ext.equals("en")
-                || ext.equals("fa") || ext.equals("java")) {
+        String javaFile = getJavaPath(inputFile);
+        if (javaFile != null) {
             /*if(onNoCompileList(inFile)){
             	return;
             }*/
-            javaFile = modifyString(inFile, "\\." + ext, ".java");
             if (!sourceFiles.contains(javaFile)) {
                 sourceFiles.add(javaFile);
                 if (myInstanceEnvironment.flags
@@ -174,6 +182,20 @@ public class Archiver {
         }
     }
 
+    /**
+     * <p>Method to hand the Archiver the Java code translated from a file,
+     * so that javac reads it from memory rather than from disk.</p>
+     *
+     * @param inputFile The RESOLVE file that was translated
+     * @param code The Java code
+     */
+    public void addTranslatedSource(File inputFile, String code) {
+        String javaFile = getJavaPath(inputFile);
+        if (javaFile != null && code != null && code.length() > 0) {
+            generatedSources.put(javaFile, code);
+        }
+    }
+
     /**
      * Method that invokes the javac
      * 
@@ -182,22 +204,57 @@ public class Archiver {
     public boolean compileFiles() {
         int ret = -1;
         try {
-            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            JavaCompiler compiler = getCompiler();
             if (compiler != null) {
                 String[] compileOptions = new String[] {};
                 Iterable<String> compilationOptions =
                         Arrays.asList(compileOptions);
-                StandardJavaFileManager fileManager =
-                        compiler.getStandardFileManager(null, Locale
-                                .getDefault(), null);
-                Iterable<? extends JavaFileObject> compilationUnits =
-                        fileManager.getJavaFileObjectsFromStrings(sourceFiles);
                 DiagnosticCollector<JavaFileObject> diagnosticListener =
                         new DiagnosticCollector<JavaFileObject>();
-                CompilationTask compilerTask =
-                        compiler.getTask(null, fileManager, diagnosticListener,
-                                compilationOptions, null, compilationUnits);
-                boolean status = compilerTask.call();
+                boolean status;
+                synchronized (Archiver.class) {
+                    ArrayList<JavaFileObject> compilationUnits =
+                            new ArrayList<JavaFileObject>();
+                    for (String sf : sourceFiles) {
+                        String code = generatedSources.get(sf);
+                        if (code != null) {
+                            compilationUnits.add(InMemoryFileManager.source(
+                                    sf, code));
+                        }
+                        else {
+                            for (JavaFileObject o : sharedFileManager
+                                    .getJavaFileObjects(sf)) {
+                                compilationUnits.add(o);
+                            }
+                        }
+                    }
+
+                    InMemoryFileManager fileManager =
+                            new InMemoryFileManager(sharedFileManager);
+                    CompilationTask compilerTask =
+                            compiler.getTask(null, fileManager,
+                                    diagnosticListener, compilationOptions,
+                                    null, compilationUnits);
+                    status = compilerTask.call();
+                    classFiles = fileManager.getClassFiles();
+                    if (!webOutput) {
+                        // Command-line builds write the class files to disk,
+                        // as javac would.  Those of the listed sources are
+                        // cleaned up with them; any javac found on its own
+                        // are left behind.
+                        Set<File> listed = new HashSet<File>();
+                        for (String sf : sourceFiles) {
+                            listed.add(new File(sf).getAbsoluteFile());
+                        }
+                        for (Map.Entry<File, File> e : fileManager
+                                .writeClassFiles().entrySet()) {
+                            if (listed.contains(e.getValue())) {
+                                createdFiles.add(e.getKey());
+                            }
+                        }
+                    }
+                    fileManager.close();
+                }
                 if (status) {
                     ret = 0;
                 }
@@ -247,7 +304,8 @@ public class Archiver {
     }
 
     /**
-     * <p>Method to invoke the jar utility and create the jar file.</p>
+     * <p>Method to create the jar file from the classes compiled by
+     * compileFiles(). They are written straight from memory.</p>
      *
      * @return 0 if successful
      */
@@ -256,11 +314,6 @@ public class Archiver {
         FileOutputStream stream = null;
         JarOutputStream out = null;
         try {
-            /*String regex = "(?<=\\.).*$"; //the file extension
-            String extRegex = "(?<=\\.)class$"; //match .class files
-            Pattern extPattern = Pattern.compile(extRegex);
-            Matcher extMatcher = null;*/
-            byte buffer[] = new byte[BUFFER_SIZE];
             if (compileSuccess) {
                 Manifest manifest = new Manifest();
                 manifest.getMainAttributes().put(
@@ -275,49 +328,18 @@ public class Archiver {
                 }
 
                 out = new JarOutputStream(stream, manifest);
-            }
 
-            for (String sf : sourceFiles) {
-                int length = sf.length();
-                int slashIndex = sf.lastIndexOf(File.separator, length - 1);
-                int dotIndex = sf.lastIndexOf(".", length - 1);
-                String modulePath = sf.substring(0, slashIndex);
-                String moduleName = sf.substring(slashIndex + 1, dotIndex);
-                String nameRegex = moduleName + "(\\.|(\\$[^\\.]+\\.))class$";
-                Pattern namePattern = Pattern.compile(nameRegex);
-                Matcher nameMatcher = null;
-                File modulePathDir = new File(modulePath);
-                if (modulePathDir.isDirectory()) {
-                    File[] files = modulePathDir.listFiles();
-                    for (int i = 0; i < files.length; i++) {
-                        String fileName = files[i].getAbsolutePath();
-                        nameMatcher = namePattern.matcher(fileName);
-                        if (nameMatcher.find()) {
-                            if (compileSuccess) {
-
-                                fileName = formProperPath(files[i]);
-
-                                JarEntry jarAdd = new JarEntry(fileName);
-                                jarAdd.setTime(files[i].lastModified());
-                                out.putNextEntry(jarAdd);
-                                FileInputStream in =
-                                        new FileInputStream(files[i]);
-                                while (true) {
-                                    int nRead =
-                                            in.read(buffer, 0, buffer.length);
-                                    if (nRead <= 0)
-                                        break;
-                                    out.write(buffer, 0, nRead);
-                                }
-                                in.close();
-                            }
-                            // add to the list of created files
-                            createdFiles.add(new File(files[i]
-                                    .getAbsolutePath()));
-                        }
-                    }
+                long time = System.currentTimeMillis();
+                for (Map.Entry<String, byte[]> e : classFiles.entrySet()) {
+                    JarEntry jarAdd =
+                            new JarEntry(e.getKey().replace('.', '/')
+                                    + ".class");
+                    jarAdd.setTime(time);
+                    out.putNextEntry(jarAdd);
+                    out.write(e.getValue());
                 }
             }
+
             if (compileSuccess) {
                 ret = 0;
                 out.close();
@@ -436,6 +458,24 @@ public class Archiver {
         return matcher.replaceAll(replace);
     }
 
+    /**
+     * <p>Method to find the Java file a RESOLVE file translates to.</p>
+     *
+     * @param inputFile A RESOLVE (or Java) file
+     * @return The path of the Java file, or null if inputFile is not
+     *         translated
+     */
+    private String getJavaPath(File inputFile) {
+        String inFile = inputFile.toString();
+        String[] temp = inFile.split("\\.");
+        String ext = temp[temp.length - 1];
+        if (ext.equals("co") || ext.equals("rb") || ext.equals("en")
+                || ext.equals("fa") || ext.equals("java")) {
+            return modifyString(inFile, "\\." + ext, ".java");
+        }
+        return null;
+    }
+
     private boolean containsString(String src, String tar) {
         Pattern p = Pattern.compile(tar);
         return p.matcher(src).find();
@@ -523,9 +563,9 @@ public class Archiver {
                     inputFile.getMyFileName()
                             + inputFile.getMyKind().getExtension());
         }
-        if (gui.generateCode() && gui.createJavaFile()) {
+        if (gui.generateCode()) {
             sourceFiles.add(gui.getJavaPath());
-            createdFiles.add(new File(gui.getJavaPath()));
+            generatedSources.put(gui.getJavaPath(), gui.getCode());
             entryClass = gui.getEntryClass();
         }
 
@@ -535,6 +575,18 @@ public class Archiver {
         return stdImports;
     }
 
+    private static synchronized JavaCompiler getCompiler() {
+        if (sharedCompiler == null) {
+            sharedCompiler = ToolProvider.getSystemJavaCompiler();
+            if (sharedCompiler != null) {
+                sharedFileManager =
+                        sharedCompiler.getStandardFileManager(null, Locale
+                                .getDefault(), null);
+            }
+        }
+        return sharedCompiler;
+    }
+
     private void printDiagnostics(
             DiagnosticCollector<JavaFileObject> diagnosticListener) {
         for (Diagnostic<?> diagnostic : diagnosticListener.getDiagnostics()) {
@@ -568,7 +620,5 @@ public class Archiver {
 
         FlagDependencies.addImplies(FLAG_ARCHIVE,
                 JavaTranslator.JAVA_FLAG_TRANSLATE);
-        FlagDependencies.addImplies(FLAG_ARCHIVE,
-                JavaTranslator.JAVA_FLAG_TRANSLATE_CLEAN);
     }
 }
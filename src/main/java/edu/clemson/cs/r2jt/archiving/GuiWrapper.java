@@ -93,6 +93,10 @@ public class GuiWrapper {
         return guiName;
     }
 
+    public String getCode() {
+        return sb.toString();
+    }
+
     public boolean createJavaFile() {
         boolean created = false;
         try {
@@ -0,0 +1,167 @@
+/**
+ * InMemoryFileManager.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.archiving;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+
+/**
+ * <p>A file manager for javac that keeps every class file it is asked to
+ * write in memory, so that the <code>Archiver</code> can put the bytecode
+ * straight into a jar. Everything else (finding the platform and
+ * workspace classes) is left to the wrapped
+ * <code>StandardJavaFileManager</code>, which may be shared between
+ * builds.</p>
+ */
+class InMemoryFileManager
+        extends
+            ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    /**
+     * <p>The class files written so far, by binary class name, in the order
+     * javac wrote them.</p>
+     */
+    private final Map<String, ClassFile> myClassFiles =
+            new LinkedHashMap<String, ClassFile>();
+
+    InMemoryFileManager(StandardJavaFileManager fileManager) {
+        super(fileManager);
+    }
+
+    /**
+     * <p>Returns a compilation unit for Java source that is only held in
+     * memory. It is named after <code>javaPath</code>, so that diagnostics
+     * read as if the source had been compiled from that file.</p>
+     *
+     * @param javaPath The path the source would have on disk.
+     * @param code The Java source.
+     *
+     * @return A <code>JavaFileObject</code> for <code>code</code>.
+     */
+    static JavaFileObject source(String javaPath, final String code) {
+        return new SimpleJavaFileObject(new File(javaPath).toURI(),
+                JavaFileObject.Kind.SOURCE) {
+
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location,
+            String className, JavaFileObject.Kind kind, FileObject sibling) {
+        ClassFile result = new ClassFile(className, kind, sibling);
+        myClassFiles.put(className, result);
+        return result;
+    }
+
+    /**
+     * <p>Returns the bytecode of every class javac has written, by binary
+     * class name, in the order it was written.</p>
+     *
+     * @return A map from class names to class file contents.
+     */
+    Map<String, byte[]> getClassFiles() {
+        Map<String, byte[]> result = new LinkedHashMap<String, byte[]>();
+        for (Map.Entry<String, ClassFile> e : myClassFiles.entrySet()) {
+            result.put(e.getKey(), e.getValue().myBytes.toByteArray());
+        }
+        return result;
+    }
+
+    /**
+     * <p>Writes every class javac has written to disk as well, next to the
+     * source file it was compiled from, which is where javac itself would
+     * have put it.</p>
+     *
+     * @return The class files written, each mapped to the source file it
+     *         was compiled from.
+     *
+     * @throws IOException If a class file cannot be written.
+     */
+    Map<File, File> writeClassFiles() throws IOException {
+        Map<File, File> result = new LinkedHashMap<File, File>();
+        for (Map.Entry<String, ClassFile> e : myClassFiles.entrySet()) {
+            ClassFile classFile = e.getValue();
+            if (classFile.mySource != null) {
+                String className = e.getKey();
+                File target =
+                        new File(classFile.mySource.getParentFile(), className
+                                .substring(className.lastIndexOf('.') + 1)
+                                + classFile.getKind().extension);
+                FileOutputStream out = new FileOutputStream(target);
+                try {
+                    classFile.myBytes.writeTo(out);
+                }
+                finally {
+                    out.close();
+                }
+                result.put(target, classFile.mySource);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * <p>Drops the class files held in memory. The wrapped file manager is
+     * shared between builds, so it is left open.</p>
+     */
+    @Override
+    public void close() {
+        myClassFiles.clear();
+    }
+
+    private static class ClassFile extends SimpleJavaFileObject {
+
+        private final ByteArrayOutputStream myBytes =
+                new ByteArrayOutputStream();
+
+        /**
+         * <p>The source file this class was compiled from, or
+         * <code>null</code> if javac did not say.</p>
+         */
+        private final File mySource;
+
+        ClassFile(String className, JavaFileObject.Kind kind,
+                FileObject sibling) {
+            super(URI.create("mem:///" + className.replace('.', '/')
+                    + kind.extension), kind);
+
+            if (sibling != null && "file".equals(sibling.toUri().getScheme())) {
+                mySource = new File(sibling.toUri());
+            }
+            else {
+                mySource = null;
+            }
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            myBytes.reset();
+            return myBytes;
+        }
+    }
+}
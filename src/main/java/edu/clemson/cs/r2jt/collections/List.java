@@ -20,6 +20,8 @@ public class List<A> extends java.util.ArrayList<A>
             AsStringCapability,
             Copyable {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Variables
     // ===========================================================
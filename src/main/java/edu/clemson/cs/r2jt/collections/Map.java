@@ -16,6 +16,8 @@ import edu.clemson.cs.r2jt.data.Copyable;
 
 public class Map<A, B> extends java.util.HashMap<A, B> implements Copyable {
 
+    private static final long serialVersionUID = 1L;
+
     // ===========================================================
     // Constructors
     // ===========================================================
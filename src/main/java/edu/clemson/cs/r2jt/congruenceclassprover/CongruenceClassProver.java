@@ -18,11 +18,10 @@ import edu.clemson.cs.r2jt.misc.Flag;
 import edu.clemson.cs.r2jt.misc.FlagDependencies;
 import edu.clemson.cs.r2jt.misc.FlagManager;
 import edu.clemson.cs.r2jt.rewriteprover.Metrics;
+import edu.clemson.cs.r2jt.rewriteprover.ProofCache;
 import edu.clemson.cs.r2jt.rewriteprover.Prover;
 import edu.clemson.cs.r2jt.rewriteprover.ProverListener;
 import edu.clemson.cs.r2jt.rewriteprover.VC;
-import edu.clemson.cs.r2jt.rewriteprover.absyn.PExp;
-import edu.clemson.cs.r2jt.rewriteprover.absyn.PSymbol;
 import edu.clemson.cs.r2jt.rewriteprover.model.PerVCProverModel;
 import edu.clemson.cs.r2jt.typeandpopulate.MTType;
 import edu.clemson.cs.r2jt.typeandpopulate.MathSymbolTable;
@@ -34,17 +33,24 @@ import edu.clemson.cs.r2jt.typeandpopulate.query.EntryTypeQuery;
 import edu.clemson.cs.r2jt.typeandpopulate.query.NameQuery;
 import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
 import edu.clemson.cs.r2jt.vcgeneration.VCGenerator;
+import edu.clemson.cs.r2jt.vcgeneration.VCListener;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Created by mike on 4/4/2014.
  */
-public final class CongruenceClassProver {
+public final class CongruenceClassProver implements VCListener {
 
     public static final Flag FLAG_PROVE =
             new Flag(Prover.FLAG_SECTION_NAME, "ccprove",
@@ -54,20 +60,39 @@ public final class CongruenceClassProver {
             new Flag("Proving", "num_tries",
                     "Prover will halt after this many timeouts.",
                     NUMTRIES_ARGS, Flag.Type.HIDDEN);
+    private static final String[] NUMTHREADS_ARGS = { "numthreads" };
+    public static final Flag FLAG_NUMTHREADS =
+            new Flag("Proving", "num_threads",
+                    "Prover will prove this many VCs concurrently.",
+                    NUMTHREADS_ARGS, Flag.Type.HIDDEN);
+    public static final Flag FLAG_STREAM_VCS =
+            new Flag("Proving", "stream_vcs",
+                    "Prover will start on each VC as soon as it is generated.",
+                    Flag.Type.HIDDEN);
     private final List<VerificationConditionCongruenceClosureImpl> m_ccVCs;
-    private final List<TheoremCongruenceClosureImpl> m_theorems;
+    private final TheoremLibrary m_library;
     private final CompileEnvironment m_environment;
     private final ModuleScope m_scope;
     private final long DEFAULTTIMEOUT = 5000;
     private final boolean SHOWRESULTSIFNOTPROVED = true;
     private final TypeGraph m_typeGraph;
-    private final Set<String> m_nonQuantifiedTheoremSymbols;
-    private final Set<TheoremCongruenceClosureImpl> m_smallEndEquations;
     // only for webide ////////////////////////////////////
-    private final PerVCProverModel[] myModels;
+    private final List<PerVCProverModel> myModels;
     private final int numUsesBeforeQuit; // weird bug if this isn't final
     private final int DEFAULTTRIES = -1;
-    private String m_results;
+    private final int numThreads;
+    private final int DEFAULTTHREADS = 1;
+    private final ProofCache m_proofCache;
+    private final List<TheoremEntry> m_theoremEntries;
+    private final MTType m_z;
+    private final MTType m_n;
+    // only in streaming mode
+    private final ExecutorService m_streamWorkers;
+    private final List<Future<VCProofResult>> m_streamedProofs;
+    private final List<String> m_proofCacheKeys;
+    private final StringBuilder m_results;
+    // proof traces are only built if the proof file or cache will see them
+    private final boolean m_traceProofs;
     private boolean printVCEachStep = false;
     private ProverListener myProverListener;
     private long myTimeout;
@@ -75,10 +100,40 @@ public final class CongruenceClassProver {
 
     public CongruenceClassProver(TypeGraph g, List<VC> vcs, ModuleScope scope,
             CompileEnvironment environment, ProverListener listener) {
+        this(g, scope, environment, listener, false);
+        //printVCEachStep = true;
+        // The clause set is only ever dumped to stdout; nothing else reads
+        // it, and building it neither changes the VCs nor the theorems
+        ClauseSet temp = null;
+        if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+            temp = new ClauseSet(m_typeGraph, m_z, m_n);
+        }
+        for (VC vc : vcs) {
+            addVC(vc, temp);
+        }
+        if (temp != null) {
+            System.out.println(temp.toString());
+            addTheoremClauses(temp);
+            temp.initializeTermStore();
+            System.out.print(temp);
+        }
+    }
+
+    // Streaming mode: VCs are handed over one at a time through
+    // vcGenerated(), and each one is proved in the background as soon as it
+    // arrives.  start() then waits for the results in VC order.
+    public CongruenceClassProver(TypeGraph g, ModuleScope scope,
+            CompileEnvironment environment, ProverListener listener) {
+        this(g, scope, environment, listener, true);
+    }
+
+    private CongruenceClassProver(TypeGraph g, ModuleScope scope,
+            CompileEnvironment environment, ProverListener listener,
+            boolean streaming) {
         TrieBasedTermIndex te = new TrieBasedTermIndex();
         te.test();
         // Only for web ide //////////////////////////////////////////
-        myModels = new PerVCProverModel[vcs.size()];
+        myModels = new ArrayList<PerVCProverModel>();
         if (listener != null) {
             myProverListener = listener;
         }
@@ -98,16 +153,43 @@ public final class CongruenceClassProver {
         else {
             numUsesBeforeQuit = DEFAULTTRIES;
         }
+        if (environment.flags.isFlagSet(CongruenceClassProver.FLAG_NUMTHREADS)) {
+            numThreads =
+                    Math.max(1, Integer.parseInt(environment.flags
+                            .getFlagArgument(
+                                    CongruenceClassProver.FLAG_NUMTHREADS,
+                                    "numthreads")));
+        }
+        else {
+            numThreads = DEFAULTTHREADS;
+        }
+        if (streaming) {
+            m_streamWorkers =
+                    Executors.newFixedThreadPool(numThreads,
+                            new ThreadFactory() {
+
+                                @Override
+                                public Thread newThread(Runnable r) {
+                                    // Don't keep the compiler alive if VC
+                                    // generation fails part way through
+                                    Thread t = new Thread(r);
+                                    t.setDaemon(true);
+                                    return t;
+                                }
+                            });
+            m_streamedProofs = new ArrayList<Future<VCProofResult>>();
+        }
+        else {
+            m_streamWorkers = null;
+            m_streamedProofs = null;
+        }
 
         ///////////////////////////////////////////////////////////////
         totalTime = System.currentTimeMillis();
         m_typeGraph = g;
         m_ccVCs = new ArrayList<VerificationConditionCongruenceClosureImpl>();
-        int i = 0;
 
-        m_theorems = new ArrayList<TheoremCongruenceClosureImpl>();
-        m_smallEndEquations = new HashSet<TheoremCongruenceClosureImpl>();
-        List<TheoremEntry> theoremEntries =
+        m_theoremEntries =
                 scope.query(new EntryTypeQuery(TheoremEntry.class,
                         MathSymbolTable.ImportStrategy.IMPORT_RECURSIVE,
                         MathSymbolTable.FacilityStrategy.FACILITY_IGNORE));
@@ -143,93 +225,90 @@ public final class CongruenceClassProver {
                 e.printStackTrace();
             }
         }
-        //printVCEachStep = true;
-        ClauseSet temp = new ClauseSet(m_typeGraph,z,n);
-        for (VC vc : vcs) {
-
-            if(!vc.getName().equals("5_1"))continue;
-            // make every PExp a PSymbol
-            vc.convertAllToPsymbols(m_typeGraph);
+        m_z = z;
+        m_n = n;
+        m_proofCache =
+                ProofCache.fromEnvironment(environment, "ccprove",
+                        m_theoremEntries, myTimeout);
+        m_proofCacheKeys = new ArrayList<String>();
+        m_library = TheoremLibrary.get(g, m_theoremEntries, z, n);
+        m_environment = environment;
+        m_scope = scope;
+        m_results = new StringBuilder();
+        m_traceProofs =
+                !environment.isWebIDEFlagSet() || m_proofCache != null;
+    }
 
+    // Hands one more VC to a streaming prover, which starts on it right away
+    @Override
+    public void vcGenerated(VC vc) {
+        int index = m_ccVCs.size();
+        if (!addVC(vc, null) || m_streamWorkers == null) {
+            return;
+        }
 
-            temp.addVC(vc);;
+        if (m_proofCache != null) {
+            ProofCache.Entry e =
+                    m_proofCache.lookup(m_proofCacheKeys.get(index));
+            if (e != null && e.isProved()) {
+                m_streamedProofs.add(null);
+                return;
+            }
+        }
+        final VerificationConditionCongruenceClosureImpl vcc =
+                m_ccVCs.get(index);
+        m_streamedProofs.add(m_streamWorkers
+                .submit(new Callable<VCProofResult>() {
+
+                    @Override
+                    public VCProofResult call() {
+                        return prove(vcc);
+                    }
+                }));
+    }
 
-            String showme = temp.toString();
+    // Stops a streaming prover's workers, abandoning any proofs that are
+    // still under way.  Does nothing once start() has collected them all.
+    public void stop() {
+        if (m_streamWorkers != null) {
+            m_streamWorkers.shutdownNow();
+        }
+    }
 
-            m_ccVCs.add(new VerificationConditionCongruenceClosureImpl(g, vc,
-                    z, n));
-            myModels[i++] = (new PerVCProverModel(g, vc.getName(), vc, null));
+    // Returns false if the vc was left out
+    private boolean addVC(VC vc, ClauseSet temp) {
+        if(!vc.getName().equals("5_1"))return false;
+        if (m_proofCache != null) {
+            m_proofCacheKeys.add(m_proofCache.getKey(vc));
+        }
+        // make every PExp a PSymbol
+        vc.convertAllToPsymbols(m_typeGraph);
 
+        if (temp != null) {
+            temp.addVC(vc);
         }
-        System.out.println(temp.toString());
-        m_nonQuantifiedTheoremSymbols = new HashSet<String>();
 
-        for (TheoremEntry e : theoremEntries) {
-            if(!e.getSourceModuleIdentifier().toString().contains("Integer_Theory")){
-                continue;
-            }
-            PExp assertion =
-                    Utilities.replacePExp(e.getAssertion(), m_typeGraph, z, n);
-            String eName = e.getName();
-            temp.addClause(e.getAssertion());
-            if (assertion.getTopLevelOperation().equals("=B")
-                    && assertion.getQuantifiedVariables().size() > 0) {
-                addEqualityTheorem(true, assertion, eName + "_left"); // match left
-                addEqualityTheorem(false, assertion, eName + "_right"); // match right
-                //m_theorems.add(new TheoremCongruenceClosureImpl(g, assertion, assertion, assertion, false,
-                //false, eName + "_whole")); // match whole*/
-            }
-            else {
-                TheoremCongruenceClosureImpl t;
-                if (assertion.getTopLevelOperation().equals("impliesB")) {
-                    addGoalSearchingTheorem(assertion, eName);
-                    t =
-                            new TheoremCongruenceClosureImpl(g, assertion,
-                                    assertion.getSubExpressions().get(0),
-                                    assertion.getSubExpressions().get(1),
-                                    assertion.getSubExpressions().get(1), true,
-                                    false, eName);
-                }
-                else {
-                    t =
-                            new TheoremCongruenceClosureImpl(g, assertion,
-                                    assertion, assertion, assertion, false,
-                                    false, eName);
-                }
-                m_theorems.add(t);
-                m_nonQuantifiedTheoremSymbols.addAll(t
-                        .getNonQuantifiedSymbols());
-                //addContrapositive(assertion, eName);
+        m_ccVCs.add(new VerificationConditionCongruenceClosureImpl(
+                m_typeGraph, vc, m_z, m_n));
+        myModels.add(new PerVCProverModel(m_typeGraph, vc.getName(), vc,
+                null));
+
+        return true;
+    }
+
+    // Only adds the theorems to the debug clause set; the theorems the
+    // prover works with come from m_library
+    private void addTheoremClauses(ClauseSet temp) {
+        for (TheoremEntry e : m_theoremEntries) {
+            if (isTheoremUsed(e)) {
+                temp.addClause(e.getAssertion());
             }
         }
-        temp.initializeTermStore();
-        System.out.print(temp);
-        if (n != null && z != null) {
-            sumConversion(n, z);
-        }
-        m_environment = environment;
-        m_scope = scope;
-        m_results = "";
-
     }
 
-    // Temporarily coding conversion theorem for natural / integer addition
-    // forall x,y:N, +N(x,y) = +Z(x,y) match left only
-    void sumConversion(MTType n, MTType z) {
-        PSymbol x = new PSymbol(n, null, "x", PSymbol.Quantification.FOR_ALL);
-        PSymbol y = new PSymbol(n, null, "y", PSymbol.Quantification.FOR_ALL);
-        ArrayList<PExp> args = new ArrayList<PExp>();
-        args.add(x);
-        args.add(y);
-        PSymbol nPlus = new PSymbol(n, null, "+N", args);
-        PSymbol zPlus = new PSymbol(z, null, "+Z", args);
-        args.clear();
-        args.add(nPlus);
-        args.add(zPlus);
-        PSymbol eq = new PSymbol(m_typeGraph.BOOLEAN, null, "=B", args);
-        String name = "Integer / Natural Sum Conversion";
-        addEqualityTheorem(true, eq, name + "_left");
-        addEqualityTheorem(false, eq, name + "_right");
+    static boolean isTheoremUsed(TheoremEntry e) {
+        return e.getSourceModuleIdentifier().toString().contains(
+                "Integer_Theory");
     }
 
     ///////////////////////////////////////////////////////
@@ -244,84 +323,98 @@ public final class CongruenceClassProver {
                 VCGenerator.FLAG_ALTVERIFY_VC);
         FlagDependencies.addRequires(CongruenceClassProver.FLAG_NUMTRIES,
                 CongruenceClassProver.FLAG_PROVE);
+        FlagDependencies.addRequires(CongruenceClassProver.FLAG_NUMTHREADS,
+                CongruenceClassProver.FLAG_PROVE);
+        FlagDependencies.addRequires(CongruenceClassProver.FLAG_STREAM_VCS,
+                CongruenceClassProver.FLAG_PROVE);
     }
 
-    private void addEqualityTheorem(boolean matchLeft, PExp theorem,
-            String thName) {
-        PExp lhs, rhs;
+    public void start() throws IOException {
 
-        if (matchLeft) {
-            lhs = theorem.getSubExpressions().get(0);
-            rhs = theorem.getSubExpressions().get(1);
+        String summary = "";
+        int i = 0;
+        int numUnproved = 0;
+        // VCs share only the (read only) theorems and the type graph, which
+        // gives every thread its own reasoning resources, so they can be
+        // proved in any order.  Results are still reported in VC order.
+        ProofCache.Entry[] cached = new ProofCache.Entry[m_ccVCs.size()];
+        if (m_proofCache != null) {
+            for (int j = 0; j < cached.length; ++j) {
+                ProofCache.Entry e =
+                        m_proofCache.lookup(m_proofCacheKeys.get(j));
+                if (e != null && e.isProved()) {
+                    cached[j] = e;
+                }
+            }
         }
-        else {
-            lhs = theorem.getSubExpressions().get(1);
-            rhs = theorem.getSubExpressions().get(0);
+        List<Future<VCProofResult>> pending = m_streamedProofs;
+        if (pending != null) {
+            // every VC has been handed over and is already under way
+            m_streamWorkers.shutdown();
         }
+        else if (numThreads > 1 && m_ccVCs.size() > 1) {
+            ExecutorService workers =
+                    Executors.newFixedThreadPool(Math.min(numThreads, m_ccVCs
+                            .size()));
+            pending = new ArrayList<Future<VCProofResult>>(m_ccVCs.size());
+            for (int j = 0; j < cached.length; ++j) {
+                final VerificationConditionCongruenceClosureImpl vcc =
+                        m_ccVCs.get(j);
+                if (cached[j] != null) {
+                    pending.add(null);
+                    continue;
+                }
+                pending.add(workers.submit(new Callable<VCProofResult>() {
 
-        if (lhs.getSubExpressions().size() > 0
-                || rhs.getSubExpressions().size() > 0) {
-            TheoremCongruenceClosureImpl t =
-                    new TheoremCongruenceClosureImpl(m_typeGraph, theorem, lhs,
-                            rhs, theorem, false, false, thName);
-
-            m_theorems.add(t);
-            if (lhs.getSymbolNames().size() < rhs.getSymbolNames().size()) {
-                m_smallEndEquations.add(t);
-
+                    @Override
+                    public VCProofResult call() {
+                        return prove(vcc);
+                    }
+                }));
             }
+            workers.shutdown();
         }
-    }
-
-    // forall x. p(x) -> q(x) to
-    // forall x,y,_g.((q(x) = _g) )
-    //              -> (_g = (p(x) or _g))
-    // the idea is to find q(x) = g, then add all p(x,y) we can find to goal
-    private void addGoalSearchingTheorem(PExp theorem, String name) {
-        // search method will do a search for each current goal, replacing _g with goal in the binding map
-        ArrayList<PExp> args = new ArrayList<PExp>();
-        PSymbol goal =
-                new PSymbol(m_typeGraph.BOOLEAN, null, "_g",
-                        PSymbol.Quantification.FOR_ALL);
-        args.add(theorem.getSubExpressions().get(1));
-        args.add(goal);
-        PSymbol ant = new PSymbol(m_typeGraph.BOOLEAN, null, "=B", args);
-        args.clear();
-        args.add(theorem.getSubExpressions().get(0));
-        args.add(goal);
-        PSymbol pOrG = new PSymbol(m_typeGraph.BOOLEAN, null, "orB", args);
-        args.clear();
-        args.add(pOrG);
-        args.add(goal);
-        PSymbol consq = new PSymbol(m_typeGraph.BOOLEAN, null, "=B", args);
-        TheoremCongruenceClosureImpl t =
-                new TheoremCongruenceClosureImpl(m_typeGraph, theorem, ant,
-                        consq, consq, true, false, name + "_goalSearch");
-        m_theorems.add(t);
-    }
-
-    public void start() throws IOException {
-
-        String summary = "";
-        int i = 0;
-        int numUnproved = 0;
         for (VerificationConditionCongruenceClosureImpl vcc : m_ccVCs) {
             //printVCEachStep = true;
             //if (!vcc.m_name.equals("0_2")) continue;
-            long startTime = System.nanoTime();
             String whyQuit = "";
             // Skip proof loop
             if (numUsesBeforeQuit >= 0 && numUnproved >= numUsesBeforeQuit) {
+                if (pending != null && pending.get(i) != null) {
+                    pending.get(i).cancel(true);
+                }
                 if (myProverListener != null) {
-                    myProverListener.vcResult(false, myModels[i], new Metrics(
-                            0, 0));
+                    myProverListener.vcResult(false, myModels.get(i),
+                            new Metrics(0, 0));
                 }
                 summary += vcc.m_name + " skipped\n";
                 ++i;
                 continue;
             }
+            VCProofResult result;
+            if (cached[i] != null) {
+                result =
+                        new VCProofResult(
+                                VerificationConditionCongruenceClosureImpl.STATUS
+                                        .valueOf(cached[i].getOutcome()), 0,
+                                cached[i].getProofTrace());
+                whyQuit += " [cached]";
+            }
+            else {
+                result =
+                        (pending != null && pending.get(i) != null)
+                                ? getResult(pending.get(i)) : prove(vcc);
+            }
+            m_results.append(result.m_proofTrace);
             VerificationConditionCongruenceClosureImpl.STATUS proved =
-                    prove(vcc);
+                    result.m_status;
+            if (m_proofCache != null && cached[i] == null) {
+                m_proofCache
+                        .store(m_proofCacheKeys.get(i), proved.name(),
+                                proved == VerificationConditionCongruenceClosureImpl.STATUS.PROVED
+                                        || proved == VerificationConditionCongruenceClosureImpl.STATUS.FALSE_ASSUMPTION,
+                                result.m_proofTrace);
+            }
             if (proved
                     .equals(VerificationConditionCongruenceClosureImpl.STATUS.PROVED)) {
                 whyQuit += " Proved ";
@@ -338,17 +431,14 @@ public final class CongruenceClassProver {
             else
                 whyQuit += " Goal false "; // this isn't currently reachable
 
-            long endTime = System.nanoTime();
-            long delayNS = endTime - startTime;
-            long delayMS =
-                    TimeUnit.MILLISECONDS
-                            .convert(delayNS, TimeUnit.NANOSECONDS);
+            long delayMS = result.m_timeMS;
             summary += vcc.m_name + whyQuit + " time: " + delayMS + " ms\n";
             if (myProverListener != null) {
                 myProverListener
                         .vcResult(
                                 (proved == (VerificationConditionCongruenceClosureImpl.STATUS.PROVED) || (proved == VerificationConditionCongruenceClosureImpl.STATUS.FALSE_ASSUMPTION)),
-                                myModels[i], new Metrics(delayMS, myTimeout));
+                                myModels.get(i), new Metrics(delayMS,
+                                        myTimeout));
             }
 
             i++;
@@ -364,12 +454,25 @@ public final class CongruenceClassProver {
             if (!FlagManager.getInstance().isFlagSet("nodebug")) {
                 System.out.println(m_results + summary);
             }
-            m_results = summary + m_results;
+            m_results.insert(0, summary);
 
             outputProofFile();
         }
     }
 
+    private VCProofResult getResult(Future<VCProofResult> future) {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ie);
+        }
+        catch (ExecutionException ee) {
+            throw new RuntimeException(ee.getCause());
+        }
+    }
+
     private String divLine(String label) {
         if (label.length() > 78) {
             label = label.substring(0, 77);
@@ -393,11 +496,12 @@ public final class CongruenceClassProver {
                 choose new top rank
 
      */
-    protected VerificationConditionCongruenceClosureImpl.STATUS prove(
+    protected VCProofResult prove(
             VerificationConditionCongruenceClosureImpl vcc) {
-        ArrayList<TheoremCongruenceClosureImpl> theoremsForThisVC =
-                new ArrayList<TheoremCongruenceClosureImpl>();
-        theoremsForThisVC.addAll(m_theorems);
+        long startNanos = System.nanoTime();
+        // theorems without quantifiers that have been used up on this VC
+        Set<TheoremCongruenceClosureImpl> usedUp =
+                new HashSet<TheoremCongruenceClosureImpl>();
         long startTime = System.currentTimeMillis();
         long endTime = myTimeout + startTime;
         Map<String, Integer> theoremAppliedCount =
@@ -405,20 +509,24 @@ public final class CongruenceClassProver {
         VerificationConditionCongruenceClosureImpl.STATUS status =
                 vcc.isProved();
         String div = divLine(vcc.m_name);
-        String theseResults =
-                div + ("Before application of theorems: " + vcc + "\n");
+        StringBuilder theseResults = new StringBuilder();
+        if (m_traceProofs) {
+            theseResults.append(div).append(
+                    "Before application of theorems: ").append(vcc).append(
+                    "\n");
+        }
 
         int iteration = 0;
         // ++++++ Create new PQ for instantiated theorems
         chooseNewTheorem: while (status
                 .equals(VerificationConditionCongruenceClosureImpl.STATUS.STILL_EVALUATING)
-                && System.currentTimeMillis() <= endTime) {
+                && System.currentTimeMillis() <= endTime
+                && !Thread.currentThread().isInterrupted()) {
             long time_at_theorem_pq_creation = System.currentTimeMillis();
             // ++++++ Creates new PQ with all the theorems
             TheoremPrioritizer rankedTheorems =
-                    new TheoremPrioritizer(theoremsForThisVC,
-                            theoremAppliedCount, vcc,
-                            m_nonQuantifiedTheoremSymbols, m_smallEndEquations);
+                    new TheoremPrioritizer(m_library, usedUp,
+                            theoremAppliedCount, vcc);
             int max_Theorems_to_choose = 1;
             int num_Theorems_chosen = 0;
             while (!rankedTheorems.m_pQueue.isEmpty()
@@ -437,7 +545,7 @@ public final class CongruenceClassProver {
                 theoremAppliedCount.put(cur.m_name, ++count);
                 // We are using it, even if it makes no difference
                 int instThMatches = cur.applyTo(vcc, endTime);
-                PExpWithScore tMatch = cur.getNext();
+                PExpWithScore tMatch = cur.getNext(vcc);
                 if (tMatch != null) {
                     String substitutionMade = "";
                     int innerctr = 0;
@@ -447,51 +555,63 @@ public final class CongruenceClassProver {
                                     tMatch.m_theorem, endTime,
                                     tMatch.m_theoremDefinitionString);
                     if (cur.m_noQuants) {
-                        theoremsForThisVC.remove(cur);
+                        usedUp.add(cur);
                     }
                     if (!substitutionMade.equals("")) {
                         long curTime = System.currentTimeMillis();
-                        theseResults +=
-                                "Iter:"
-                                        + iteration++
-                                        + "."
-                                        + (innerctr++)
-                                        + " Iter Time: "
-                                        + (curTime - time_at_theorem_pq_creation)
-                                        + " Search Time for this theorem: "
-                                        + (curTime - time_at_selection)
-                                        + " Elapsed Time: "
-                                        + (curTime - startTime) + "\n["
-                                        + theoremScore + "]" + cur.m_name
-                                        + "\n" + tMatch.toString() + "\t"
-                                        + substitutionMade + "\n\n";
-                        if (printVCEachStep)
-                            theseResults += vcc.toString();
+                        if (m_traceProofs) {
+                            long iterTime =
+                                    curTime - time_at_theorem_pq_creation;
+                            long searchTime = curTime - time_at_selection;
+                            theseResults.append("Iter:").append(iteration)
+                                    .append(".").append(innerctr);
+                            theseResults.append(" Iter Time: ").append(
+                                    iterTime);
+                            theseResults.append(
+                                    " Search Time for this theorem: ")
+                                    .append(searchTime);
+                            theseResults.append(" Elapsed Time: ").append(
+                                    curTime - startTime);
+                            theseResults.append("\n[").append(theoremScore)
+                                    .append("]").append(cur.m_name);
+                            theseResults.append("\n").append(tMatch).append(
+                                    "\t").append(substitutionMade).append(
+                                    "\n\n");
+                            if (printVCEachStep)
+                                theseResults.append(vcc);
+                        }
+                        iteration++;
+                        innerctr++;
                         status = vcc.isProved();
                         num_Theorems_chosen++;
                         //continue chooseNewTheorem;
                     }
-                    if (substitutionMade == "") {
-                        theseResults +=
-                                "Emptied queue for "
-                                        + cur.m_name
-                                        + " with no new results ["
-                                        + (System.currentTimeMillis() - time_at_selection)
-                                        + "ms]\n\n";
+                    if (substitutionMade == "" && m_traceProofs) {
+                        theseResults.append("Emptied queue for ").append(
+                                cur.m_name).append(" with no new results [")
+                                .append(
+                                        System.currentTimeMillis()
+                                                - time_at_selection).append(
+                                        "ms]\n\n");
                     }
                 }
-                else {
-                    theseResults +=
-                            "Could not find any matches for "
-                                    + cur.m_name
-                                    + "["
-                                    + (System.currentTimeMillis() - time_at_selection)
-                                    + "ms]\n\n";
+                else if (m_traceProofs) {
+                    theseResults.append("Could not find any matches for ")
+                            .append(cur.m_name).append("[").append(
+                                    System.currentTimeMillis()
+                                            - time_at_selection).append(
+                                    "ms]\n\n");
                 }
             }
         }
-        m_results += theseResults + div;
-        return vcc.isProved();
+        long delayMS =
+                TimeUnit.MILLISECONDS.convert(System.nanoTime() - startNanos,
+                        TimeUnit.NANOSECONDS);
+        if (m_traceProofs) {
+            theseResults.append(div);
+        }
+        return new VCProofResult(vcc.isProved(), delayMS, theseResults
+                .toString());
 
     }
 
@@ -507,13 +627,33 @@ public final class CongruenceClassProver {
         return mainFileName;
     }
 
+    /**
+     * The outcome of a single call to <code>prove</code>. The proof trace
+     * is kept here rather than appended to <code>m_results</code> directly
+     * so that VCs proved on worker threads can be reported in order.
+     */
+    protected static class VCProofResult {
+
+        protected final VerificationConditionCongruenceClosureImpl.STATUS m_status;
+        protected final long m_timeMS;
+        protected final String m_proofTrace;
+
+        protected VCProofResult(
+                VerificationConditionCongruenceClosureImpl.STATUS status,
+                long timeMS, String proofTrace) {
+            m_status = status;
+            m_timeMS = timeMS;
+            m_proofTrace = proofTrace;
+        }
+    }
+
     private void outputProofFile() throws IOException {
         FileWriter w = new FileWriter(new File(proofFileName()));
 
         w.write("Proofs for " + m_scope.getModuleIdentifier() + " generated "
                 + new Date() + "\n\n");
 
-        w.write(m_results);
+        w.write(m_results.toString());
         w.write("\n");
         w.flush();
         w.close();
@@ -31,6 +31,11 @@ public class ConjunctionOfNormalizedAtomicExpressions {
     private String m_current_justification = "";
     protected final Map<Integer, Map<Integer, Set<NormalizedAtomicExpression>>> m_useMap;
     protected final VerificationConditionCongruenceClosureImpl m_VC;
+    // every expression added or altered, oldest first. See getGeneration().
+    private final List<NormalizedAtomicExpression> m_changeLog;
+    // logged since the last generation handed out, so each is logged once
+    private final Set<NormalizedAtomicExpression> m_loggedSinceGeneration;
+    private int m_lastGeneration = 0;
 
     /**
      * @param registry the Registry symbols contained in the conjunction will
@@ -46,6 +51,10 @@ public class ConjunctionOfNormalizedAtomicExpressions {
                 new HashMap<Integer, Map<Integer, Set<NormalizedAtomicExpression>>>(
                         2048, .5f);
         m_VC = vc; // null if this is a theorem
+        m_changeLog = new ArrayList<NormalizedAtomicExpression>(2048);
+        Map<NormalizedAtomicExpression, Boolean> logged =
+                new IdentityHashMap<NormalizedAtomicExpression, Boolean>();
+        m_loggedSinceGeneration = Collections.newSetFromMap(logged);
     }
 
     protected int size() {
@@ -60,6 +69,25 @@ public class ConjunctionOfNormalizedAtomicExpressions {
         return m_registry;
     }
 
+    /**
+     * Expressions added or altered after this call belong to a later
+     * generation. Passing the result to getMatchesForOverrideSet restricts a
+     * search to those expressions.
+     */
+    protected int getGeneration() {
+        if (m_changeLog.size() != m_lastGeneration) {
+            m_lastGeneration = m_changeLog.size();
+            m_loggedSinceGeneration.clear();
+        }
+        return m_lastGeneration;
+    }
+
+    // a search from any generation handed out still sees every change
+    private void logChange(NormalizedAtomicExpression nae) {
+        if (m_loggedSinceGeneration.add(nae))
+            m_changeLog.add(nae);
+    }
+
     protected String addExpressionAndTrackChanges(PExp expression,
             long timeToEnd, String justification) {
         m_timeToEnd = timeToEnd;
@@ -333,7 +361,15 @@ public class ConjunctionOfNormalizedAtomicExpressions {
                 m_VC.m_goal.remove(bstring);
                 m_VC.m_goal.add(m_registry.getSymbolForIndex(opA));
             }
+            MTType typeBeforeMerge = m_registry.getTypeByIndex(opA);
             m_registry.substitute(opA, opB);
+            // A narrower type can let opA's expressions match new wildcards
+            if (m_registry.getTypeByIndex(opA) != typeBeforeMerge
+                    && m_useMap.containsKey(opA)) {
+                for (NormalizedAtomicExpression nae : getUses(opA)) {
+                    logChange(nae);
+                }
+            }
             if (mResult != null)
                 holdingTank.addAll(mResult);
 
@@ -377,6 +413,7 @@ public class ConjunctionOfNormalizedAtomicExpressions {
         assert root >= 0 : "adding unrooted expression to conj";
         addMapUse(root, nae);
         m_expSet.put(nae, nae);
+        logChange(nae);
     }
 
     private void removeMapUse(int symK, NormalizedAtomicExpression nae) {
@@ -603,6 +640,7 @@ public class ConjunctionOfNormalizedAtomicExpressions {
                 // no change in atom, so only root is b
                 assert oldRoot == b;
                 addMapUse(a, nm);
+                logChange(nm);
                 applyBuiltInLogic(nm, coincidentalMergeHoldingTank);
 
             }
@@ -656,30 +694,41 @@ public class ConjunctionOfNormalizedAtomicExpressions {
         return resultSet;
     }
 
-    protected Set<java.util.Map<String, String>> getMatchesForOverrideSet(
+    protected Set<SubstitutionVector> getMatchesForOverrideSet(
             NormalizedAtomicExpression expr,
-            Set<Map<String, String>> foreignSymbolOverrideSet) {
-        Set<java.util.Map<String, String>> rSet =
-                new HashSet<Map<String, String>>();
-        for (Map<String, String> fs_m : foreignSymbolOverrideSet) {
-            Set<java.util.Map<String, String>> results =
-                    getBindingsForSearchExpr(expr, fs_m);
+            Set<SubstitutionVector> foreignSymbolOverrideSet) {
+        return getMatchesForOverrideSet(expr, foreignSymbolOverrideSet, -1);
+    }
+
+    /**
+     * @param sinceGeneration if not negative, only expressions added or
+     *                        altered since getGeneration() returned this
+     *                        value are matched against expr.
+     */
+    protected Set<SubstitutionVector> getMatchesForOverrideSet(
+            NormalizedAtomicExpression expr,
+            Set<SubstitutionVector> foreignSymbolOverrideSet,
+            int sinceGeneration) {
+        Set<SubstitutionVector> rSet = new HashSet<SubstitutionVector>();
+        for (SubstitutionVector fs_m : foreignSymbolOverrideSet) {
+            Set<SubstitutionVector> results =
+                    getBindingsForSearchExpr(expr, fs_m, sinceGeneration);
             if (results != null && results.size() != 0)
                 rSet.addAll(results);
         }
         return rSet;
     }
 
-    protected Set<Map<String, String>> getBindingsForSearchExpr(
+    protected Set<SubstitutionVector> getBindingsForSearchExpr(
             NormalizedAtomicExpression expr,
-            Map<String, String> foreignSymbolOverride) {
+            SubstitutionVector foreignSymbolOverride, int sinceGeneration) {
         int[] searchKeys =
                 expr.rootedLiterals(foreignSymbolOverride, m_registry);
         if (searchKeys == null)
             return null;
-        String[] unMappedWildCards =
+        int[] unMappedWildCards =
                 expr.unMappedWildcards(foreignSymbolOverride);
-        Set<Map<String, String>> rSet;
+        Set<SubstitutionVector> rSet;
         boolean isCommutOp =
                 expr.getRegistry().isCommutative(expr.readPosition(0));
         // only supporting arity 2 commutative search
@@ -693,8 +742,8 @@ public class ConjunctionOfNormalizedAtomicExpressions {
                     int t = searchKeys[1];
                     searchKeys[1] = searchKeys[2];
                     searchKeys[2] = t;
-                    return computeBindings(
-                            getExprsMatchingAtPosition(searchKeys),
+                    return computeBindings(getExprsMatchingAtPosition(
+                            searchKeys, sinceGeneration),
                             foreignSymbolOverride, unMappedWildCards, expr
                                     .getRegistry());
                 }
@@ -702,55 +751,70 @@ public class ConjunctionOfNormalizedAtomicExpressions {
             else {
                 // only one blank. 2 searches
                 rSet =
-                        computeBindings(getExprsMatchingAtPosition(searchKeys),
+                        computeBindings(getExprsMatchingAtPosition(
+                                searchKeys, sinceGeneration),
                                 foreignSymbolOverride, unMappedWildCards, expr
                                         .getRegistry());
                 int t = searchKeys[1];
-                String s = unMappedWildCards[1];
+                int s = unMappedWildCards[1];
                 searchKeys[1] = searchKeys[2];
                 unMappedWildCards[1] = unMappedWildCards[2];
                 searchKeys[2] = t;
                 unMappedWildCards[2] = s;
-                rSet.addAll(computeBindings(
-                        getExprsMatchingAtPosition(searchKeys),
+                rSet.addAll(computeBindings(getExprsMatchingAtPosition(
+                        searchKeys, sinceGeneration),
                         foreignSymbolOverride, unMappedWildCards, expr
                                 .getRegistry()));
                 return rSet;
             }
         }
-        return computeBindings(getExprsMatchingAtPosition(searchKeys),
-                foreignSymbolOverride, unMappedWildCards, expr.getRegistry());
+        return computeBindings(getExprsMatchingAtPosition(searchKeys,
+                sinceGeneration), foreignSymbolOverride, unMappedWildCards,
+                expr.getRegistry());
     }
 
-    private Set<Map<String, String>> computeBindings(
+    private Set<SubstitutionVector> computeBindings(
             Set<NormalizedAtomicExpression> filteredSet,
-            Map<String, String> baseMap, String[] unmappedWildcards,
+            SubstitutionVector base, int[] unmappedWildcards,
             Registry searchReg) {
 
-        Set<Map<String, String>> rSet =
-                new HashSet<Map<String, String>>(filteredSet.size(), .5f);
+        Set<SubstitutionVector> rSet =
+                new HashSet<SubstitutionVector>(filteredSet.size(), .5f);
         next: for (NormalizedAtomicExpression e : filteredSet) {
-            Map<String, String> bmap = new HashMap<String, String>(baseMap);
+            int[] bmap = base.copyValues();
             for (int i = 0; i < unmappedWildcards.length; ++i) {
-                String wc = unmappedWildcards[i];
-                String ac =
-                        (i < unmappedWildcards.length - 1 ? e.readSymbol(i)
-                                : m_registry.getSymbolForIndex(e.readRoot()));
-                if (wc.equals(""))
+                int wc = unmappedWildcards[i];
+                if (wc < 0)
                     continue;
-                if (!bmap.get(wc).equals("") && !bmap.get(wc).equals(ac))
+                int ac =
+                        m_registry
+                                .findAndCompress(i < unmappedWildcards.length - 1 ? e
+                                        .readPosition(i)
+                                        : e.readRoot());
+                if (bmap[wc] != SubstitutionVector.UNBOUND && bmap[wc] != ac)
                     continue next; // this clause ensures usage of same symbol where required.
-                MTType wildType =
-                        searchReg.getTypeByIndex(searchReg
-                                .getIndexForSymbol(wc));
-                MTType localType =
-                        m_registry.getTypeByIndex(m_registry
-                                .getIndexForSymbol(ac));
+                MTType wildType = searchReg.getTypeByIndex(wc);
+                MTType localType = m_registry.getTypeByIndex(ac);
                 if (!m_registry.isSubtype(localType, wildType))
                     continue next;
-                bmap.put(wc, ac);
+                bmap[wc] = ac;
             }
-            rSet.add(bmap);
+            rSet.add(new SubstitutionVector(bmap));
+        }
+        return rSet;
+    }
+
+    private Set<NormalizedAtomicExpression> getExprsMatchingAtPosition(
+            int[] searchKey, int sinceGeneration) {
+        if (sinceGeneration < 0)
+            return getExprsMatchingAtPosition(searchKey);
+        HashSet<NormalizedAtomicExpression> rSet =
+                new HashSet<NormalizedAtomicExpression>();
+        for (NormalizedAtomicExpression e : m_changeLog.subList(
+                sinceGeneration, m_changeLog.size())) {
+            // skip expressions since removed or rewritten
+            if (m_expSet.get(e) == e && matchesAtPositions(e, searchKey))
+                rSet.add(e);
         }
         return rSet;
     }
@@ -759,31 +823,36 @@ public class ConjunctionOfNormalizedAtomicExpressions {
             int[] searchKey) {
         HashSet<NormalizedAtomicExpression> rSet =
                 new HashSet<NormalizedAtomicExpression>();
-        for (int p = 0; p < searchKey.length; ++p) {
-            int k = searchKey[p];
-            if (k < 0)
-                continue;
-            if (!m_useMap.containsKey(k))
-                return rSet; // k is not used in the conjunction, but is still in Registry. Can happen with =, not, etc.
-            int x = (p < searchKey.length - 1) ? p : -1;
-            if (!m_useMap.get(k).containsKey(x)) // k not used in position p anywhere
-                return rSet;
+        int op = searchKey[0];
+        if (op < 0 || !m_useMap.containsKey(op)
+                || !m_useMap.get(op).containsKey(0))
+            // op is not used in the conjunction, but is still in Registry.
+            // Can happen with =, not, etc.
+            return rSet;
+        for (NormalizedAtomicExpression e : m_useMap.get(op).get(0)) {
+            if (matchesAtPositions(e, searchKey))
+                rSet.add(e);
         }
+        return rSet;
+
+    }
 
+    // The operator must be given. The last key is the root, and a negative
+    // key matches anything. Both searches use this so they agree.
+    private boolean matchesAtPositions(NormalizedAtomicExpression e,
+            int[] searchKey) {
+        if (searchKey[0] < 0 || e.getArity() != searchKey.length - 2)
+            return false;
+        int rootPos = searchKey.length - 1;
         for (int p = 0; p < searchKey.length; ++p) {
             int k = searchKey[p];
             if (k < 0)
                 continue;
-            if (p == 0)
-                rSet.addAll(m_useMap.get(k).get(p));
-            else if (p == searchKey.length - 1)//last element which is root class
-                rSet.retainAll(getUses(k, -1));
-            else
-                rSet.retainAll(getUses(k, p));
-
+            int actual = (p < rootPos) ? e.readPosition(p) : e.readRoot();
+            if (actual != k)
+                return false;
         }
-        return rSet;
-
+        return true;
     }
 
     @Override
@@ -136,44 +136,44 @@ public class NormalizedAtomicExpression {
     }
 
     // -1 meaning wildcard.
-    public int[] rootedLiterals(Map<String, String> overMap, Registry vc_Reg) {
+    public int[] rootedLiterals(SubstitutionVector binding, Registry vc_Reg) {
         int[] rArray = new int[m_expression.length + 1];
         for (int i = 0; i <= m_expression.length; ++i) {
             int expI =
                     (i < m_expression.length) ? m_expression[i]
                             : m_classConstant;
-            String k = m_registry.getSymbolForIndex(expI);
-            String v = (overMap.containsKey(k)) ? overMap.get(k) : k;
-            if (v.equals("")) {
+            int bound = binding.get(m_registry.findAndCompress(expI));
+            if (bound == SubstitutionVector.UNBOUND) {
                 rArray[i] = -1;
             }
-            else if (!vc_Reg.m_symbolToIndex.containsKey(v)) {
-                return null;
+            else if (bound != SubstitutionVector.NOT_A_WILDCARD) {
+                rArray[i] = vc_Reg.findAndCompress(bound);
             }
             else {
-                rArray[i] = vc_Reg.getIndexForSymbol(v);
+                String k = m_registry.getSymbolForIndex(expI);
+                if (!vc_Reg.m_symbolToIndex.containsKey(k)) {
+                    return null;
+                }
+                rArray[i] = vc_Reg.getIndexForSymbol(k);
             }
         }
         return rArray;
     }
 
-    // "" meaning mapped.
-    public String[] unMappedWildcards(Map<String, String> overMap) {
-        String[] rArray = new String[m_expression.length + 1];
-        for (int i = 0; i < m_expression.length; ++i) {
-            String ks = m_registry.getSymbolForIndex(m_expression[i]);
-            if (overMap.containsKey(ks) && overMap.get(ks).equals("")) {
+    // theorem registry index of each unbound wildcard, -1 meaning mapped.
+    public int[] unMappedWildcards(SubstitutionVector binding) {
+        int[] rArray = new int[m_expression.length + 1];
+        for (int i = 0; i <= m_expression.length; ++i) {
+            int expI =
+                    (i < m_expression.length) ? m_expression[i]
+                            : m_classConstant;
+            int ks = m_registry.findAndCompress(expI);
+            if (binding.get(ks) == SubstitutionVector.UNBOUND) {
                 rArray[i] = ks;
             }
             else
-                rArray[i] = "";
-        }
-        String ks = m_registry.getSymbolForIndex(m_classConstant);
-        if (overMap.containsKey(ks) && overMap.get(ks).equals("")) {
-            rArray[m_expression.length] = ks;
+                rArray[i] = -1;
         }
-        else
-            rArray[m_expression.length] = "";
         return rArray;
     }
 
@@ -38,7 +38,19 @@ public class Registry {
     protected Set<String> m_partTypes;
     protected Map<Integer, ArrayList<Integer>> m_partTypeParentArray;
     protected Set<String> m_commutative_operators;
-    protected Map<String, Boolean> m_cached_isSubtype;
+    // Type lattice index.  Every type that a symbol has been added with,
+    // or that has been asked about, gets an id.
+    private final Map<MTType, Integer> m_typeToId;
+    // same as m_typeToId, but keyed by identity so a hit skips type equality
+    private final Map<MTType, Integer> m_typeToIdByIdentity;
+    private final ArrayList<MTType> m_idToType;
+    // by type id, the ids of its supertypes (itself included)
+    private final ArrayList<BitSet> m_superTypeIds;
+    // by type id, the indices of the symbols added with exactly that type
+    private final ArrayList<BitSet> m_symbolsOfType;
+    // by type id, the indices of the symbols added with that type or a
+    // subtype of it
+    private final ArrayList<BitSet> m_symbolsBySuperType;
 
     public static enum Usage {
 
@@ -61,6 +73,12 @@ public class Registry {
         m_foralls = new HashSet<String>();
         m_typeGraph = g;
         m_typeDictionary = new TreeMap<String, MTType>();
+        m_typeToId = new HashMap<MTType, Integer>();
+        m_typeToIdByIdentity = new IdentityHashMap<MTType, Integer>();
+        m_idToType = new ArrayList<MTType>();
+        m_superTypeIds = new ArrayList<BitSet>();
+        m_symbolsOfType = new ArrayList<BitSet>();
+        m_symbolsBySuperType = new ArrayList<BitSet>();
         addSymbol("=B", new MTFunction(g, g.BOOLEAN, g.ENTITY, g.ENTITY),
                 Usage.LITERAL); // = as a predicate function, not as an assertion
         addSymbol("true", g.BOOLEAN, Usage.LITERAL);
@@ -77,40 +95,67 @@ public class Registry {
         m_commutative_operators.add("=B");
         m_commutative_operators.add("andB");
         m_commutative_operators.add("orB");
-        m_cached_isSubtype = new HashMap<String, Boolean>();
     }
 
     public boolean isSubtype(MTType a, MTType b) {
-        String catKey = a.toString() + "," + b.toString();
-        if (m_cached_isSubtype.containsKey(catKey)) {
-            return m_cached_isSubtype.get(catKey);
+        int aId = getTypeId(a);
+        int bId = getTypeId(b);
+        return m_superTypeIds.get(aId).get(bId);
+    }
+
+    private int getTypeId(MTType t) {
+        Integer id = m_typeToIdByIdentity.get(t);
+        if (id == null) {
+            id = m_typeToId.get(t);
+            if (id == null) {
+                id = addType(t);
+            }
+            m_typeToIdByIdentity.put(t, id);
         }
-        else {
-            boolean is = a.isSubtypeOf(b);
-            m_cached_isSubtype.put(catKey, is);
-            return is;
+        return id;
+    }
+
+    private int addType(MTType t) {
+        int id = m_idToType.size();
+        BitSet superTypeIds = new BitSet();
+        BitSet symbols = new BitSet();
+        superTypeIds.set(id);
+        for (int other = 0; other < id; ++other) {
+            MTType otherType = m_idToType.get(other);
+            if (t.isSubtypeOf(otherType)) {
+                superTypeIds.set(other);
+            }
+            if (otherType.isSubtypeOf(t)) {
+                m_superTypeIds.get(other).set(id);
+                symbols.or(m_symbolsOfType.get(other));
+            }
         }
+        m_typeToId.put(t, id);
+        m_idToType.add(t);
+        m_superTypeIds.add(superTypeIds);
+        m_symbolsOfType.add(new BitSet());
+        m_symbolsBySuperType.add(symbols);
+        return id;
     }
 
     public Usage getUsage(String symbol) {
         return m_symbolToUsage.get(symbol);
     }
 
-    public Set<String> getSetMatchingType(MTType t) {
+    // the indices of every symbol added with type t or a subtype of it.
+    // Do not modify the result.
+    public BitSet getIndicesMatchingType(MTType t) {
         assert t != null : "request for null type";
-        Set<String> rSet = new HashSet<String>();
-        Set<MTType> allTypesInSet = m_typeToSetOfOperators.keySet();
-        assert !m_typeToSetOfOperators.isEmpty() : "empty m_typeToSetOfOperator.keySet()";
-        assert allTypesInSet != null : "null set in Registry.getSetMatchingType";
-        // if there are subtypes of t, return those too
-        for (MTType m : allTypesInSet) {
-            assert m != null : "null entry in allTypesInSet";
-            if (isSubtype(m, t)) {
-                rSet.addAll(m_typeToSetOfOperators.get(m));
-            }
+        return m_symbolsBySuperType.get(getTypeId(t));
+    }
+
+    public Set<String> getSetMatchingType(MTType t) {
+        BitSet indices = getIndicesMatchingType(t);
+        Set<String> rSet = new HashSet<String>(indices.cardinality() * 2);
+        for (int i = indices.nextSetBit(0); i >= 0; i =
+                indices.nextSetBit(i + 1)) {
+            rSet.add(m_indexToSymbol.get(i));
         }
-        if (m_typeToSetOfOperators.get(t) != null)
-            rSet.addAll(m_typeToSetOfOperators.get(t));
 
         return rSet;
     }
@@ -161,6 +206,10 @@ public class Registry {
         // early return for parent
         if (m_symbolIndexParentArray.get(index) == index)
             return index;
+        // already compressed, nothing to write
+        int root = m_symbolIndexParentArray.get(index);
+        if (m_symbolIndexParentArray.get(root) == root)
+            return root;
         Stack<Integer> needToUpdate = new Stack<Integer>();
         assert index < m_symbolIndexParentArray.size() : "findAndCompress error";
         int parent = m_symbolIndexParentArray.get(index);
@@ -255,6 +304,15 @@ public class Registry {
             m_foralls.add(symbolName);
         }
         int incomingsize = m_symbolToIndex.size();
+        if (symbolType != null) {
+            int typeId = getTypeId(symbolType);
+            m_symbolsOfType.get(typeId).set(incomingsize);
+            BitSet superTypeIds = m_superTypeIds.get(typeId);
+            for (int t = superTypeIds.nextSetBit(0); t >= 0; t =
+                    superTypeIds.nextSetBit(t + 1)) {
+                m_symbolsBySuperType.get(t).set(incomingsize);
+            }
+        }
         m_symbolToIndex.put(symbolName, m_symbolToIndex.size());
         m_indexToSymbol.add(symbolName);
         m_indexToType.add(symbolType);
@@ -0,0 +1,69 @@
+/**
+ * SubstitutionVector.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.congruenceclassprover;
+
+import java.util.Arrays;
+
+/**
+ * A binding of a theorem's wildcards to symbols of a VC. Position i holds
+ * the VC registry index bound to theorem registry index i, UNBOUND if i is
+ * a wildcard that has not been bound yet, or NOT_A_WILDCARD if i is not to
+ * be bound at all. The array is not changed once the vector is built.
+ */
+public class SubstitutionVector implements Comparable<SubstitutionVector> {
+
+    public static final int UNBOUND = -1;
+    public static final int NOT_A_WILDCARD = -2;
+
+    protected final int[] m_values;
+    private final int m_hash;
+    // set when the binding is queued, lower is better
+    protected int m_score;
+
+    public SubstitutionVector(int[] values) {
+        m_values = values;
+        m_hash = Arrays.hashCode(values);
+    }
+
+    public int get(int theoremIndex) {
+        return m_values[theoremIndex];
+    }
+
+    public int[] copyValues() {
+        return Arrays.copyOf(m_values, m_values.length);
+    }
+
+    @Override
+    public int hashCode() {
+        return m_hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SubstitutionVector))
+            return false;
+        SubstitutionVector other = (SubstitutionVector) o;
+        return other.m_hash == m_hash
+                && Arrays.equals(other.m_values, m_values);
+    }
+
+    @Override
+    public int compareTo(SubstitutionVector o) {
+        return m_score - o.m_score;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(m_values);
+    }
+}
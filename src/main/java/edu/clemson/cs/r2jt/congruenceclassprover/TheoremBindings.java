@@ -0,0 +1,40 @@
+/**
+ * TheoremBindings.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.congruenceclassprover;
+
+import java.util.*;
+
+/**
+ * The bindings found for one theorem against one VC. Theorems are shared by
+ * every VC (and every prover thread), so the state that changes while a
+ * theorem is applied lives here and is owned by the VC.
+ */
+public class TheoremBindings {
+
+    // candidates from the last applyTo, best at the head
+    protected final PriorityQueue<SubstitutionVector> m_bindings;
+    // bindings that have already been inserted into the VC
+    protected final Set<SubstitutionVector> m_selectedBindings;
+    // every match of the required part of the theorem found so far
+    protected final Set<SubstitutionVector> m_requiredMatches;
+    // conjunct generation as of the last search, -1 if never searched
+    protected int m_generation = -1;
+    // goals as of the last search
+    protected Set<String> m_goals;
+
+    public TheoremBindings() {
+        m_bindings = new PriorityQueue<SubstitutionVector>(128);
+        m_selectedBindings = new HashSet<SubstitutionVector>(128);
+        m_requiredMatches = new HashSet<SubstitutionVector>(128);
+    }
+}
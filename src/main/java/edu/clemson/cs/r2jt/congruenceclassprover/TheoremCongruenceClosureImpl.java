@@ -38,11 +38,9 @@ public class TheoremCongruenceClosureImpl {
     protected boolean m_allowNewSymbols;
     protected String m_name;
     protected boolean m_noQuants = false;
-    protected VerificationConditionCongruenceClosureImpl m_lastVC;
     protected Set<String> m_insert_qvars;
-    // clear these when starting new VC
-    protected List<Map<String, String>> m_bindings;
-    protected Set<Map<String, String>> m_selectedBindings;
+    // wildcards to bind, indexed by theorem registry index
+    private final SubstitutionVector m_initBindings;
 
     public TheoremCongruenceClosureImpl(TypeGraph g, PExp entireTheorem,
             PExp mustMatch, PExp restOfExp, PExp toInsert,
@@ -54,8 +52,6 @@ public class TheoremCongruenceClosureImpl {
         m_theoremString = entireTheorem.toString();
         isEquality = true;
         m_theoremRegistry = new Registry(g);
-        m_bindings = new ArrayList<Map<String, String>>(128);
-        m_selectedBindings = new HashSet<Map<String, String>>(128);
         m_matchConj =
                 new ConjunctionOfNormalizedAtomicExpressions(m_theoremRegistry,
                         null);
@@ -101,6 +97,14 @@ public class TheoremCongruenceClosureImpl {
         if (m_theorem.getQuantifiedVariables().isEmpty()) {
             m_noQuants = true;
         }
+        // Theorems are shared between VCs that may be proved concurrently.
+        // Fill every lazy cache now so applyTo only ever reads this object.
+        getNonQuantifiedSymbols();
+        int numSymbols = m_theoremRegistry.m_symbolIndexParentArray.size();
+        for (int i = 0; i < numSymbols; ++i) {
+            m_theoremRegistry.findAndCompress(i);
+        }
+        m_initBindings = getInitBindings();
     }
 
     public Set<String> getNonQuantifiedSymbols() {
@@ -135,62 +139,81 @@ public class TheoremCongruenceClosureImpl {
 
     public int applyTo(VerificationConditionCongruenceClosureImpl vc,
             long endTime) {
-        Set<Map<String, String>> sResults;
-        m_bindings.clear();
-        if (m_lastVC == null || !m_lastVC.equals(vc)) {
-            m_selectedBindings.clear();
-            m_lastVC = vc;
-        }
-        if (m_noQuants)
+        Set<SubstitutionVector> sResults;
+        TheoremBindings state = vc.getTheoremBindings(this);
+        if (m_noQuants) {
+            state.m_bindings.clear();
             return 1;
+        }
         if (m_matchRequired.size() == 0
                 || ((m_allowNewSymbols && m_theorem.getQuantifiedVariables()
                         .size() == 1) && isEquality)) {
+            state.m_bindings.clear();
             sResults = findValidBindingsByType(vc, endTime);
         }
         else
-            sResults = findValidBindings(vc, endTime);
-        if (sResults == null || sResults.isEmpty())
-            return 0;
-        nextMap: for (Map<String, String> s : sResults) {
-            if (!m_selectedBindings.contains(s)) {
-                for (String k : s.keySet()) {
-                    String v = s.get(k);
-                    if (!m_insert_qvars.contains(v)) {
-                        continue;
-                    }
-                    if (s.get(k).equals(""))
-                        continue nextMap;
-                }
-                m_bindings.add(s);
+            sResults = findValidBindings(vc, endTime, state);
+        if (sResults == null)
+            sResults = Collections.emptySet();
+        // Candidates left over from earlier searches are still valid, but
+        // classes may have merged since, so re-root and re-score them.
+        List<SubstitutionVector> candidates =
+                new ArrayList<SubstitutionVector>(state.m_bindings);
+        candidates.addAll(sResults);
+        state.m_bindings.clear();
+        Set<SubstitutionVector> queued =
+                new HashSet<SubstitutionVector>(candidates.size());
+        Registry vcReg = vc.getRegistry();
+        for (SubstitutionVector s : candidates) {
+            s = toRoots(vcReg, s);
+            if (!state.m_selectedBindings.contains(s) && queued.add(s)) {
+                // score once, against the VC as it is now
+                s.m_score = calculateScore(vc, s);
+                state.m_bindings.add(s);
             }
         }
-        Collections.sort(m_bindings, new Comparator<Map<String, String>>() {
+        return state.m_bindings.size();
+    }
 
-            @Override
-            public int compare(Map<String, String> o1, Map<String, String> o2) {
-                return calculateScore(o1) - calculateScore(o2);
+    private SubstitutionVector toRoots(Registry vcReg,
+            SubstitutionVector binding) {
+        int[] values = null;
+        for (int i = 0; i < binding.m_values.length; ++i) {
+            int v = binding.m_values[i];
+            if (v >= 0 && vcReg.findAndCompress(v) != v) {
+                if (values == null)
+                    values = binding.copyValues();
+                values[i] = vcReg.findAndCompress(v);
             }
-        });
-        return m_bindings.size();
+        }
+        return values == null ? binding : new SubstitutionVector(values);
     }
 
-    public int calculateScore(Map<String, String> bmap) {
-        HashSet<String> seen = new HashSet<String>(bmap.keySet().size());
-        float max = m_lastVC.getRegistry().m_indexToSymbol.size();
+    public int calculateScore(VerificationConditionCongruenceClosureImpl vc,
+            SubstitutionVector binding) {
+        Registry vcReg = vc.getRegistry();
+        float max = vcReg.m_indexToSymbol.size();
         float age = 0f;
-        float sSz = bmap.keySet().size();
-        for (String k : bmap.keySet()) {
-            String rS =
-                    m_lastVC.getRegistry().getRootSymbolForSymbol(bmap.get(k));
-            seen.add(rS);
-            if (m_lastVC.getRegistry().m_symbolToIndex.containsKey(rS)) {
-                int indexVal = m_lastVC.getRegistry().getIndexForSymbol(rS);
+        int[] roots = new int[binding.m_values.length];
+        int sSz = 0;
+        for (int v : binding.m_values) {
+            if (v == SubstitutionVector.NOT_A_WILDCARD)
+                continue;
+            int r = SubstitutionVector.UNBOUND;
+            if (v != SubstitutionVector.UNBOUND) {
+                r = vcReg.findAndCompress(v);
                 // Age
-                age += indexVal;
+                age += r;
             }
+            roots[sSz++] = r;
+        }
+        Arrays.sort(roots, 0, sSz);
+        int seen = (sSz > 0) ? 1 : 0;
+        for (int i = 1; i < sSz; ++i) {
+            if (roots[i] != roots[i - 1])
+                seen++;
         }
-        float diff = 1.0f - seen.size() / sSz;
+        float diff = 1.0f - seen / (float) sSz;
         float avgAge = age / sSz;
         // these range from [0,1], lower is better
         float scaledAvgAge = avgAge / max;
@@ -201,104 +224,123 @@ public class TheoremCongruenceClosureImpl {
         return r;
     }
 
-    public PExpWithScore getNext() {
-        if (m_noQuants && m_selectedBindings.isEmpty()) {
-            m_selectedBindings.add(new HashMap<String, String>());
+    public PExpWithScore getNext(
+            VerificationConditionCongruenceClosureImpl vc) {
+        TheoremBindings state = vc.getTheoremBindings(this);
+        if (m_noQuants && state.m_selectedBindings.isEmpty()) {
+            state.m_selectedBindings.add(m_initBindings);
             return new PExpWithScore(m_insertExpr,
-                    new HashMap<String, String>(), m_theorem.toString());
+                    new HashMap<String, String>(), m_theoremString);
         }
-        if (m_bindings.isEmpty())
+        SubstitutionVector curBinding = state.m_bindings.poll();
+        if (curBinding == null)
             return null;
+        state.m_selectedBindings.add(curBinding);
+        Registry vcReg = vc.getRegistry();
         HashMap<PExp, PExp> quantToLit = new HashMap<PExp, PExp>();
-        Map<String, String> curBinding = m_bindings.remove(0);
-        m_selectedBindings.add(curBinding);
         for (PSymbol p : m_insertExpr.getQuantifiedVariables()) {
             String thKey = p.getTopLevelOperation();
-            String thVal = "";
-            if (curBinding.containsKey(thKey)) {
-                thVal = curBinding.get(thKey);
-            }
-            else if (curBinding.containsKey(m_theoremRegistry
-                    .getRootSymbolForSymbol(thKey))) {
-                thVal =
-                        curBinding.get(m_theoremRegistry
-                                .getRootSymbolForSymbol(thKey));
-            }
-            if (thVal.equals(""))
-                return getNext();
-            MTType quanType =
-                    m_theoremRegistry.getTypeByIndex(m_theoremRegistry
-                            .getIndexForSymbol(thKey));
+            int thIndex = m_theoremRegistry.getIndexForSymbol(thKey);
+            int bound = curBinding.get(thIndex);
+            if (bound < 0)
+                return getNext(vc);
+            String thVal = vcReg.getSymbolForIndex(bound);
+            MTType quanType = m_theoremRegistry.getTypeByIndex(thIndex);
             quantToLit.put(new PSymbol(quanType, null, thKey,
                     PSymbol.Quantification.FOR_ALL), new PSymbol(quanType,
                     null, thVal, PSymbol.Quantification.NONE));
         }
 
         PExp modifiedInsert = m_insertExpr.substitute(quantToLit);
-        modifiedInsert = m_lastVC.getConjunct().find(modifiedInsert);
+        modifiedInsert = vc.getConjunct().find(modifiedInsert);
         // Discard s = s
         if ((modifiedInsert.getTopLevelOperation().equals("=") && modifiedInsert
                 .getSubExpressions().get(0).toString().equals(
                         modifiedInsert.getSubExpressions().get(1).toString()))) {
-            return getNext();
+            return getNext(vc);
         }
-        return new PExpWithScore(modifiedInsert, curBinding, m_theorem
-                .toString());
+        return new PExpWithScore(modifiedInsert, bindingAsMap(vcReg,
+                curBinding), m_theoremString);
+    }
+
+    // readable form of a binding, for the proof trace
+    private Map<String, String> bindingAsMap(Registry vcReg,
+            SubstitutionVector binding) {
+        Map<String, String> r = new HashMap<String, String>();
+        for (int i = 0; i < binding.m_values.length; ++i) {
+            int v = binding.m_values[i];
+            if (v == SubstitutionVector.NOT_A_WILDCARD)
+                continue;
+            r.put(m_theoremRegistry.getSymbolForIndex(i),
+                    v == SubstitutionVector.UNBOUND ? "" : vcReg
+                            .getSymbolForIndex(v));
+        }
+        return r;
     }
 
     // variables to bind are the quantified vars the quantified statement
     // and the created variables in the match conjunction
-    private java.util.Map<String, String> getInitBindings() {
-        HashMap<String, String> initBindings = new HashMap<String, String>();
+    private SubstitutionVector getInitBindings() {
+        int[] initBindings = newEmptyBinding();
         // Created vars. that are parents of quantified vars can be a problem later
-        for (int i = 0; i < m_theoremRegistry.m_indexToSymbol.size(); ++i) {
+        for (int i = 0; i < initBindings.length; ++i) {
 
             String curSym = m_theoremRegistry.getSymbolForIndex(i);
             Registry.Usage us = m_theoremRegistry.getUsage(curSym);
             if (us == Registry.Usage.CREATED || us == Registry.Usage.FORALL
                     || us == Registry.Usage.HASARGS_FORALL) {
-                initBindings.put(curSym, "");
+                initBindings[m_theoremRegistry.getIndexForSymbol(curSym)] =
+                        SubstitutionVector.UNBOUND;
 
             }
         }
-        return initBindings;
+        return new SubstitutionVector(initBindings);
     }
 
-    private Set<java.util.Map<String, String>> findValidBindingsByType(
+    // every position NOT_A_WILDCARD
+    private int[] newEmptyBinding() {
+        int[] r = new int[m_theoremRegistry.m_indexToSymbol.size()];
+        Arrays.fill(r, SubstitutionVector.NOT_A_WILDCARD);
+        return r;
+    }
+
+    private Set<SubstitutionVector> findValidBindingsByType(
             VerificationConditionCongruenceClosureImpl vc, long endTime) {
         // Case where no match conj. is produced.
         // Example: S = Empty_String. Relevant info is only in registry.
-        Set<java.util.Map<String, String>> allValidBindings =
-                new HashSet<java.util.Map<String, String>>();
+        Set<SubstitutionVector> allValidBindings =
+                new HashSet<SubstitutionVector>();
+        Registry vcReg = vc.getRegistry();
         // x = constant?
         if (partMatchedisConstantEquation) {
-            HashMap<String, String> wildToActual =
-                    new HashMap<String, String>();
+            int[] wildToActual = newEmptyBinding();
             for (String wild : m_theoremRegistry.getForAlls()) {
 
                 String actual = m_theoremRegistry.getRootSymbolForSymbol(wild);
-                // wildcard is not parent
-                if (!actual.equals(wild))
-                    wildToActual.put(wild, actual);
                 // wildcard is parent, bind to child
-                else {
+                if (actual.equals(wild)) {
                     Set<String> ch = m_theoremRegistry.getChildren(wild);
                     // choose first non quantified symbol (they are all equal)
                     if (ch.isEmpty())
                         return null;
+                    actual = null;
                     for (String c : ch) {
                         if (!m_theoremRegistry.getUsage(c).equals(
                                 Registry.Usage.FORALL)
                                 || !m_theoremRegistry.getUsage(c).equals(
                                         Registry.Usage.CREATED)) {
-                            wildToActual.put(wild, c);
+                            actual = c;
                             break;
                         }
                         return null;
                     }
                 }
+                if (actual == null || !vcReg.isSymbolInTable(actual))
+                    return null;
+                wildToActual[m_theoremRegistry.getIndexForSymbol(wild)] =
+                        vcReg.getIndexForSymbol(actual);
             }
-            allValidBindings.add(wildToActual);
+            allValidBindings.add(new SubstitutionVector(wildToActual));
             return allValidBindings;
 
         }
@@ -307,45 +349,90 @@ public class TheoremCongruenceClosureImpl {
         if (foralls.size() != 1)
             return null;
         String wild = foralls.iterator().next();
-        MTType t =
-                m_theoremRegistry.getTypeByIndex(m_theoremRegistry
-                        .getIndexForSymbol(wild));
+        int wildIndex = m_theoremRegistry.getIndexForSymbol(wild);
+        MTType t = m_theoremRegistry.getTypeByIndex(wildIndex);
 
-        for (String actual : vc.getRegistry().getParentsByType(t)) {
-            HashMap<String, String> wildToActual =
-                    new HashMap<String, String>();
-            wildToActual.put(wild, actual);
-            if (!wild.equals(actual)) // can be = with constants in theorems
-                allValidBindings.add(wildToActual);
+        BitSet actuals = vcReg.getIndicesMatchingType(t);
+        BitSet boundRoots = new BitSet();
+        for (int actual = actuals.nextSetBit(0); actual >= 0; actual =
+                actuals.nextSetBit(actual + 1)) {
+            // can be = with constants in theorems
+            if (!wild.equals(vcReg.m_indexToSymbol.get(actual))) {
+                int root = vcReg.findAndCompress(actual);
+                if (!boundRoots.get(root)) {
+                    boundRoots.set(root);
+                    int[] wildToActual = newEmptyBinding();
+                    wildToActual[wildIndex] = root;
+                    allValidBindings.add(new SubstitutionVector(wildToActual));
+                }
+            }
         }
         return allValidBindings;
 
     }
 
-    private Set<java.util.Map<String, String>> findValidBindings(
-            VerificationConditionCongruenceClosureImpl vc, long endTime) {
-
-        Set<java.util.Map<String, String>> results =
-                new HashSet<java.util.Map<String, String>>();
-        java.util.Map<String, String> initBindings = getInitBindings();
-        if (m_theoremRegistry.m_symbolToIndex.containsKey("_g")) {
-            // each goal gets a new map with _g bound to the goal
+    /*
+     * Finds bindings that match the required part of the theorem and then
+     * extends them with the optional part. After the first search only
+     * matches using an expression added or altered since the last one are
+     * produced: each required expression in turn is matched against just
+     * those, and the remaining ones against everything.
+     */
+    private Set<SubstitutionVector> findValidBindings(
+            VerificationConditionCongruenceClosureImpl vc, long endTime,
+            TheoremBindings state) {
+        ConjunctionOfNormalizedAtomicExpressions conj = vc.getConjunct();
+        int since = state.m_generation;
+        state.m_generation = conj.getGeneration();
+        Set<SubstitutionVector> seeds = new HashSet<SubstitutionVector>();
+        boolean usesGoals =
+                m_theoremRegistry.m_symbolToIndex.containsKey("_g");
+        if (usesGoals) {
+            // each goal gets a new binding with _g bound to the goal
+            int gIndex = m_theoremRegistry.getIndexForSymbol("_g");
+            Registry vcReg = vc.getRegistry();
             for (String g : vc.m_goal) {
-                java.util.Map<String, String> gBinds =
-                        new HashMap<String, String>(initBindings);
-                gBinds.put("_g", g);
-                results.add(gBinds);
+                if (!vcReg.isSymbolInTable(g))
+                    continue;
+                int[] gBinds = m_initBindings.copyValues();
+                gBinds[gIndex] = vcReg.getIndexForSymbol(g);
+                seeds.add(new SubstitutionVector(gBinds));
+            }
+            // the seeds themselves changed, start over
+            if (!vc.m_goal.equals(state.m_goals)) {
+                since = -1;
+                state.m_goals = new HashSet<String>(vc.m_goal);
             }
         }
         else {
-            results.add(initBindings);
+            seeds.add(m_initBindings);
         }
-        for (NormalizedAtomicExpression e_t : m_matchRequired) {
-            results = vc.getConjunct().getMatchesForOverrideSet(e_t, results);
+
+        Set<SubstitutionVector> results;
+        Set<SubstitutionVector> newRequired;
+        if (since < 0) {
+            state.m_bindings.clear();
+            state.m_requiredMatches.clear();
+            newRequired = matchAll(conj, seeds, -1, -1);
+            results = new HashSet<SubstitutionVector>(newRequired);
         }
-        Set<java.util.Map<String, String>> t_results;
+        else {
+            newRequired = new HashSet<SubstitutionVector>();
+            for (int j = 0; j < m_matchRequired.size(); ++j) {
+                newRequired.addAll(matchAll(conj, seeds, j, since));
+            }
+            newRequired.removeAll(state.m_requiredMatches);
+            results = new HashSet<SubstitutionVector>(newRequired);
+            // old required matches that new expressions let us extend
+            for (NormalizedAtomicExpression e_t : m_noMatchRequired) {
+                results.addAll(conj.getMatchesForOverrideSet(e_t,
+                        state.m_requiredMatches, since));
+            }
+        }
+        state.m_requiredMatches.addAll(newRequired);
+        Set<SubstitutionVector> t_results;
         for (NormalizedAtomicExpression e_t : m_noMatchRequired) {
-            t_results = vc.getConjunct().getMatchesForOverrideSet(e_t, results);
+            t_results = conj.getMatchesForOverrideSet(e_t, results);
             if (t_results.isEmpty())
                 continue;
             else
@@ -354,6 +441,27 @@ public class TheoremCongruenceClosureImpl {
         return results;
     }
 
+    // match every required expression, the one at deltaIndex (if any) only
+    // against expressions of generation since or later, and that one first
+    private Set<SubstitutionVector> matchAll(
+            ConjunctionOfNormalizedAtomicExpressions conj,
+            Set<SubstitutionVector> seeds, int deltaIndex, int since) {
+        Set<SubstitutionVector> results = seeds;
+        if (deltaIndex >= 0) {
+            results =
+                    conj.getMatchesForOverrideSet(m_matchRequired
+                            .get(deltaIndex), results, since);
+        }
+        for (int i = 0; i < m_matchRequired.size() && !results.isEmpty(); ++i) {
+            if (i != deltaIndex) {
+                results =
+                        conj.getMatchesForOverrideSet(m_matchRequired.get(i),
+                                results);
+            }
+        }
+        return results;
+    }
+
     @Override
     public String toString() {
         String r = "\n--------------------------------------\n";
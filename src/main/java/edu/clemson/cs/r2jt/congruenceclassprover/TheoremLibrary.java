@@ -0,0 +1,301 @@
+/**
+ * TheoremLibrary.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.congruenceclassprover;
+
+import edu.clemson.cs.r2jt.rewriteprover.absyn.PExp;
+import edu.clemson.cs.r2jt.rewriteprover.absyn.PSymbol;
+import edu.clemson.cs.r2jt.typeandpopulate.MTType;
+import edu.clemson.cs.r2jt.typeandpopulate.entry.TheoremEntry;
+import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
+
+import java.util.*;
+
+/**
+ * The theorems the congruence class prover works with, converted from
+ * <code>TheoremEntry</code>s once and then only ever read.  One library is
+ * shared by every VC and every worker thread of a prover, and by later
+ * provers (e.g. for other modules of the same compile) that see the same
+ * theorems against the same type graph.  Everything that changes while a VC
+ * is being proved lives in that VC's <code>TheoremBindings</code>.
+ *
+ * A theorem can only be used on a VC that contains every one of its
+ * non-quantified symbols, so each theorem is indexed by the one of those
+ * symbols that the fewest theorems share.  candidatesFor() then only looks
+ * at the theorems whose key symbol the VC actually has.
+ */
+final class TheoremLibrary {
+
+    // recently built libraries, so repeated compiles don't rebuild them.
+    // Bounded, since each one holds on to its type graph.
+    private static final int MAX_LIBRARIES = 4;
+    private static final Map<List<Object>, TheoremLibrary> LIBRARIES =
+            new LinkedHashMap<List<Object>, TheoremLibrary>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<List<Object>, TheoremLibrary> eldest) {
+                    return size() > MAX_LIBRARIES;
+                }
+            };
+
+    private final TypeGraph m_typeGraph;
+    private final List<TheoremCongruenceClosureImpl> m_theorems;
+    private final Set<String> m_nonQuantifiedSymbols;
+    private final Set<TheoremCongruenceClosureImpl> m_smallEndEquations;
+    // positions in m_theorems, in order, by key symbol
+    private final Map<String, int[]> m_byKeySymbol;
+    // positions of theorems that have no non-quantified symbols at all
+    private final int[] m_unkeyed;
+
+    private TheoremLibrary(TypeGraph g, List<TheoremEntry> theoremEntries,
+            MTType z, MTType n) {
+        m_typeGraph = g;
+        m_theorems = new ArrayList<TheoremCongruenceClosureImpl>();
+        m_nonQuantifiedSymbols = new HashSet<String>();
+        m_smallEndEquations = new HashSet<TheoremCongruenceClosureImpl>();
+        for (TheoremEntry e : theoremEntries) {
+            if (!CongruenceClassProver.isTheoremUsed(e)) {
+                continue;
+            }
+            PExp assertion =
+                    Utilities.replacePExp(e.getAssertion(), m_typeGraph, z, n);
+            String eName = e.getName();
+            if (assertion.getTopLevelOperation().equals("=B")
+                    && assertion.getQuantifiedVariables().size() > 0) {
+                addEqualityTheorem(true, assertion, eName + "_left"); // match left
+                addEqualityTheorem(false, assertion, eName + "_right"); // match right
+                //m_theorems.add(new TheoremCongruenceClosureImpl(g, assertion, assertion, assertion, false,
+                //false, eName + "_whole")); // match whole*/
+            }
+            else {
+                TheoremCongruenceClosureImpl t;
+                if (assertion.getTopLevelOperation().equals("impliesB")) {
+                    addGoalSearchingTheorem(assertion, eName);
+                    t =
+                            new TheoremCongruenceClosureImpl(g, assertion,
+                                    assertion.getSubExpressions().get(0),
+                                    assertion.getSubExpressions().get(1),
+                                    assertion.getSubExpressions().get(1), true,
+                                    false, eName);
+                }
+                else {
+                    t =
+                            new TheoremCongruenceClosureImpl(g, assertion,
+                                    assertion, assertion, assertion, false,
+                                    false, eName);
+                }
+                m_theorems.add(t);
+                m_nonQuantifiedSymbols.addAll(t.getNonQuantifiedSymbols());
+                //addContrapositive(assertion, eName);
+            }
+        }
+        if (n != null && z != null) {
+            sumConversion(n, z);
+        }
+
+        // Index every theorem by its rarest non-quantified symbol
+        Map<String, Integer> symbolCounts = new HashMap<String, Integer>();
+        for (TheoremCongruenceClosureImpl t : m_theorems) {
+            for (String s : t.getNonQuantifiedSymbols()) {
+                Integer c = symbolCounts.get(s);
+                symbolCounts.put(s, (c == null) ? 1 : c + 1);
+            }
+        }
+        Map<String, List<Integer>> byKey =
+                new HashMap<String, List<Integer>>();
+        List<Integer> unkeyed = new ArrayList<Integer>();
+        for (int i = 0; i < m_theorems.size(); ++i) {
+            String key = null;
+            int keyCount = Integer.MAX_VALUE;
+            for (String s : m_theorems.get(i).getNonQuantifiedSymbols()) {
+                int c = symbolCounts.get(s);
+                if (c < keyCount || (c == keyCount && s.compareTo(key) < 0)) {
+                    key = s;
+                    keyCount = c;
+                }
+            }
+            if (key == null) {
+                unkeyed.add(i);
+            }
+            else {
+                List<Integer> positions = byKey.get(key);
+                if (positions == null) {
+                    positions = new ArrayList<Integer>();
+                    byKey.put(key, positions);
+                }
+                positions.add(i);
+            }
+        }
+        m_byKeySymbol = new HashMap<String, int[]>();
+        for (Map.Entry<String, List<Integer>> e : byKey.entrySet()) {
+            m_byKeySymbol.put(e.getKey(), toArray(e.getValue()));
+        }
+        m_unkeyed = toArray(unkeyed);
+    }
+
+    // Returns the library for these theorems, building it only if no recent
+    // prover has used the same ones
+    static TheoremLibrary get(TypeGraph g, List<TheoremEntry> theoremEntries,
+            MTType z, MTType n) {
+        List<Object> key = new ArrayList<Object>(4);
+        key.add(new IdentityKey(g));
+        key.add(theoremEntries);
+        key.add(z);
+        key.add(n);
+
+        synchronized (LIBRARIES) {
+            TheoremLibrary result = LIBRARIES.get(key);
+            if (result == null) {
+                result = new TheoremLibrary(g, theoremEntries, z, n);
+                LIBRARIES.put(key, result);
+            }
+            return result;
+        }
+    }
+
+    Set<String> getNonQuantifiedSymbols() {
+        return Collections.unmodifiableSet(m_nonQuantifiedSymbols);
+    }
+
+    Set<TheoremCongruenceClosureImpl> getSmallEndEquations() {
+        return Collections.unmodifiableSet(m_smallEndEquations);
+    }
+
+    // The theorems that might apply to a VC with this registry, in library
+    // order.  Every theorem left out lacks a symbol the VC must contain.
+    List<TheoremCongruenceClosureImpl> candidatesFor(Registry vcReg) {
+        BitSet positions = new BitSet(m_theorems.size());
+        for (int p : m_unkeyed) {
+            positions.set(p);
+        }
+        for (Map.Entry<String, int[]> e : m_byKeySymbol.entrySet()) {
+            if (vcReg.isSymbolInTable(e.getKey())) {
+                for (int p : e.getValue()) {
+                    positions.set(p);
+                }
+            }
+        }
+
+        List<TheoremCongruenceClosureImpl> result =
+                new ArrayList<TheoremCongruenceClosureImpl>(positions
+                        .cardinality());
+        for (int p = positions.nextSetBit(0); p >= 0; p =
+                positions.nextSetBit(p + 1)) {
+            result.add(m_theorems.get(p));
+        }
+        return result;
+    }
+
+    // Temporarily coding conversion theorem for natural / integer addition
+    // forall x,y:N, +N(x,y) = +Z(x,y) match left only
+    private void sumConversion(MTType n, MTType z) {
+        PSymbol x = new PSymbol(n, null, "x", PSymbol.Quantification.FOR_ALL);
+        PSymbol y = new PSymbol(n, null, "y", PSymbol.Quantification.FOR_ALL);
+        ArrayList<PExp> args = new ArrayList<PExp>();
+        args.add(x);
+        args.add(y);
+        PSymbol nPlus = new PSymbol(n, null, "+N", args);
+        PSymbol zPlus = new PSymbol(z, null, "+Z", args);
+        args.clear();
+        args.add(nPlus);
+        args.add(zPlus);
+        PSymbol eq = new PSymbol(m_typeGraph.BOOLEAN, null, "=B", args);
+        String name = "Integer / Natural Sum Conversion";
+        addEqualityTheorem(true, eq, name + "_left");
+        addEqualityTheorem(false, eq, name + "_right");
+    }
+
+    private void addEqualityTheorem(boolean matchLeft, PExp theorem,
+            String thName) {
+        PExp lhs, rhs;
+
+        if (matchLeft) {
+            lhs = theorem.getSubExpressions().get(0);
+            rhs = theorem.getSubExpressions().get(1);
+        }
+        else {
+            lhs = theorem.getSubExpressions().get(1);
+            rhs = theorem.getSubExpressions().get(0);
+        }
+
+        if (lhs.getSubExpressions().size() > 0
+                || rhs.getSubExpressions().size() > 0) {
+            TheoremCongruenceClosureImpl t =
+                    new TheoremCongruenceClosureImpl(m_typeGraph, theorem, lhs,
+                            rhs, theorem, false, false, thName);
+
+            m_theorems.add(t);
+            if (lhs.getSymbolNames().size() < rhs.getSymbolNames().size()) {
+                m_smallEndEquations.add(t);
+
+            }
+        }
+    }
+
+    // forall x. p(x) -> q(x) to
+    // forall x,y,_g.((q(x) = _g) )
+    //              -> (_g = (p(x) or _g))
+    // the idea is to find q(x) = g, then add all p(x,y) we can find to goal
+    private void addGoalSearchingTheorem(PExp theorem, String name) {
+        // search method will do a search for each current goal, replacing _g with goal in the binding map
+        ArrayList<PExp> args = new ArrayList<PExp>();
+        PSymbol goal =
+                new PSymbol(m_typeGraph.BOOLEAN, null, "_g",
+                        PSymbol.Quantification.FOR_ALL);
+        args.add(theorem.getSubExpressions().get(1));
+        args.add(goal);
+        PSymbol ant = new PSymbol(m_typeGraph.BOOLEAN, null, "=B", args);
+        args.clear();
+        args.add(theorem.getSubExpressions().get(0));
+        args.add(goal);
+        PSymbol pOrG = new PSymbol(m_typeGraph.BOOLEAN, null, "orB", args);
+        args.clear();
+        args.add(pOrG);
+        args.add(goal);
+        PSymbol consq = new PSymbol(m_typeGraph.BOOLEAN, null, "=B", args);
+        TheoremCongruenceClosureImpl t =
+                new TheoremCongruenceClosureImpl(m_typeGraph, theorem, ant,
+                        consq, consq, true, false, name + "_goalSearch");
+        m_theorems.add(t);
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+
+    // Compares by identity, for objects whose equals() is too costly or too
+    // loose to tell libraries apart
+    private static final class IdentityKey {
+
+        private final Object m_object;
+
+        IdentityKey(Object o) {
+            m_object = o;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey
+                    && ((IdentityKey) o).m_object == m_object;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(m_object);
+        }
+    }
+}
@@ -29,17 +29,22 @@ public class TheoremPrioritizer {
     private Map<String, Integer> m_nonQuantMap;
     private Set<TheoremCongruenceClosureImpl> m_smallEndEquations;
 
-    public TheoremPrioritizer(List<TheoremCongruenceClosureImpl> theoremList,
+    public TheoremPrioritizer(TheoremLibrary library,
+            Set<TheoremCongruenceClosureImpl> exclude,
             Map<String, Integer> appliedCount,
-            VerificationConditionCongruenceClosureImpl vc,
-            Set<String> nonQuantifiedTheoremSymbols,
-            Set<TheoremCongruenceClosureImpl> smallEndEquations) {
-        m_pQueue = new PriorityQueue<TheoremWithScore>(theoremList.size());
-        m_theoremAppliedCount = appliedCount;
+            VerificationConditionCongruenceClosureImpl vc) {
         m_vcReg = vc.getRegistry();
+        List<TheoremCongruenceClosureImpl> theoremList =
+                library.candidatesFor(m_vcReg);
+        Set<String> nonQuantifiedTheoremSymbols =
+                library.getNonQuantifiedSymbols();
+        m_pQueue =
+                new PriorityQueue<TheoremWithScore>(Math.max(1, theoremList
+                        .size()));
+        m_theoremAppliedCount = appliedCount;
         m_vc = vc;
         m_nonQuantMap = new HashMap<String, Integer>();
-        m_smallEndEquations = smallEndEquations;
+        m_smallEndEquations = library.getSmallEndEquations();
         int count = 0;
         for (String s : m_vcReg.m_indexToSymbol) {
             if (nonQuantifiedTheoremSymbols.contains(s)) {
@@ -47,6 +52,9 @@ public class TheoremPrioritizer {
             }
         }
         for (TheoremCongruenceClosureImpl t : theoremList) {
+            if (exclude.contains(t)) {
+                continue;
+            }
             TheoremWithScore tws = new TheoremWithScore(t);
             //int score = calculateScore(t.getFunctionNames());
             int score;
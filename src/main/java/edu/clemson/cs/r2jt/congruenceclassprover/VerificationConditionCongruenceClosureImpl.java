@@ -37,6 +37,7 @@ public class VerificationConditionCongruenceClosureImpl {
     private final MTType m_z;
     private final MTType m_n;
     protected final Set<String> m_goal;
+    private final Map<TheoremCongruenceClosureImpl, TheoremBindings> m_theoremBindings;
 
     public static enum STATUS {
         FALSE_ASSUMPTION, STILL_EVALUATING, PROVED, UNPROVABLE
@@ -58,6 +59,8 @@ public class VerificationConditionCongruenceClosureImpl {
         m_conjunction =
                 new ConjunctionOfNormalizedAtomicExpressions(m_registry, this);
         m_goal = new HashSet<String>();
+        m_theoremBindings =
+                new HashMap<TheoremCongruenceClosureImpl, TheoremBindings>();
         addPExp(m_consequent.iterator(), false);
         addPExp(m_antecedent.iterator(), true);
 
@@ -114,6 +117,16 @@ public class VerificationConditionCongruenceClosureImpl {
         return m_registry;
     }
 
+    protected TheoremBindings getTheoremBindings(
+            TheoremCongruenceClosureImpl theorem) {
+        TheoremBindings b = m_theoremBindings.get(theorem);
+        if (b == null) {
+            b = new TheoremBindings();
+            m_theoremBindings.put(theorem, b);
+        }
+        return b;
+    }
+
     public STATUS isProved() {
         if (m_conjunction.m_evaluates_to_false) {
             return STATUS.FALSE_ASSUMPTION; // this doesn't mean P->Q = False, it just means P = false
@@ -12,8 +12,12 @@
  */
 package edu.clemson.cs.r2jt.data;
 
+import java.io.Serializable;
+
 /** Provides access to type checkable variable modes. */
-public class Mode {
+public class Mode implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ===========================================================
     // Variables
@@ -53,6 +57,11 @@ public class Mode {
     public final static Mode EXEMPLAR = new Mode("Exemplar");
     public final static Mode MATH_FIELD = new Mode("Math_Field");
 
+    private final static Mode[] ALL_MODES =
+            { UPDATES, RESTORES, REPLACES, PRESERVES, EVALUATES, REASSIGNS,
+                    CLEARS, ALTERS, STATE, OPER_NAME, LOCAL, FIELD, MATH,
+                    DEFINITION, DEF_PARAM, CONCEPTUAL, EXEMPLAR, MATH_FIELD };
+
     // ===========================================================
     // Public Methods
     // ===========================================================
@@ -386,6 +395,20 @@ public class Mode {
         return result;
     }
 
+    /**
+     * <p>Modes are often compared by reference, so a deserialized mode must
+     * be replaced by the constant with the same name.</p>
+     */
+    private Object readResolve() {
+        Object result = this;
+        for (Mode m : ALL_MODES) {
+            if (m.modeName.equals(modeName)) {
+                result = m;
+            }
+        }
+        return result;
+    }
+
     private static boolean evaluatesCallCompatible(Mode actual) {
         boolean result;
         if (actual.equals(EVALUATES)) {
@@ -12,7 +12,11 @@
  */
 package edu.clemson.cs.r2jt.data;
 
-public class Symbol implements Comparable<Symbol> {
+import java.io.Serializable;
+
+public class Symbol implements Comparable<Symbol>, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // ===========================================================
     // Variables
@@ -78,4 +82,16 @@ public class Symbol implements Comparable<Symbol> {
     public int compareTo(Symbol o) {
         return name.compareTo(o.name);
     }
+
+    // ===========================================================
+    // Private Methods
+    // ===========================================================
+
+    /**
+     * <p>Symbols are compared by reference, so a deserialized symbol must be
+     * replaced by the interned one with the same name.</p>
+     */
+    private Object readResolve() {
+        return Symbol.symbol(name);
+    }
 }
@@ -0,0 +1,153 @@
+/**
+ * CompactFileStream.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.init;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.CharStream;
+
+/**
+ * <p>A replacement for <code>ANTLRFileStream</code> that reads a UTF-8
+ * source file in one piece rather than copying it into a <code>char[]</code>.
+ * </p>
+ *
+ * <p>When the file is plain ASCII, as nearly all RESOLVE sources are, every
+ * byte is one character and the lexer reads straight out of the file's
+ * bytes. Only a file holding a non-ASCII byte is decoded, once, when the
+ * stream is created. Marking, rewinding and line tracking are inherited
+ * unchanged from <code>ANTLRStringStream</code>.</p>
+ *
+ * <p>The stream keeps its own copy of the file rather than a mapping of it,
+ * since tokens read their text from it lazily, possibly after the file has
+ * been edited or truncated, and a mapping would keep the file locked on some
+ * platforms.</p>
+ */
+public class CompactFileStream extends ANTLRStringStream {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * <p>The contents of an ASCII file, or <code>null</code> if the file had
+     * to be decoded into <code>data</code>.</p>
+     */
+    private final byte[] myAsciiBytes;
+
+    public CompactFileStream(File file) throws IOException {
+        this(file, Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * <p>Creates a stream over <code>bytes</code>, which were read from
+     * <code>file</code>. The stream takes ownership of the array.</p>
+     */
+    public CompactFileStream(File file, byte[] bytes) {
+        name = file.getAbsolutePath();
+        if (isAscii(bytes)) {
+            myAsciiBytes = bytes;
+            n = bytes.length;
+        }
+        else {
+            CharBuffer chars = UTF_8.decode(ByteBuffer.wrap(bytes));
+            myAsciiBytes = null;
+            data = new char[chars.remaining()];
+            chars.get(data);
+            n = data.length;
+        }
+    }
+
+    @Override
+    public void consume() {
+        if (myAsciiBytes == null) {
+            super.consume();
+        }
+        else if (p < n) {
+            charPositionInLine++;
+            if (myAsciiBytes[p] == '\n') {
+                line++;
+                charPositionInLine = 0;
+            }
+            p++;
+        }
+    }
+
+    @Override
+    public int LA(int i) {
+        int result;
+        if (myAsciiBytes == null) {
+            result = super.LA(i);
+        }
+        else if (i == 0) {
+            result = 0; //undefined
+        }
+        else {
+            int index = (i < 0) ? p + i : p + i - 1;
+            if (index < 0 || index >= n) {
+                result = CharStream.EOF;
+            }
+            else {
+                result = myAsciiBytes[index];
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public int LT(int i) {
+        return LA(i);
+    }
+
+    @Override
+    public String substring(int start, int stop) {
+        String result;
+        if (myAsciiBytes == null) {
+            result = super.substring(start, stop);
+        }
+        else {
+            result = asciiText(start, stop + 1);
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        String result;
+        if (myAsciiBytes == null) {
+            result = super.toString();
+        }
+        else {
+            result = asciiText(0, n);
+        }
+
+        return result;
+    }
+
+    private String asciiText(int start, int end) {
+        return new String(myAsciiBytes, start, end - start, UTF_8);
+    }
+
+    private static boolean isAscii(byte[] bytes) {
+        boolean result = true;
+        for (int i = 0; result && i < bytes.length; i++) {
+            result = bytes[i] >= 0;
+        }
+
+        return result;
+    }
+}
@@ -13,6 +13,8 @@
 package edu.clemson.cs.r2jt.init;
 
 import java.io.File;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 
 import edu.clemson.cs.r2jt.Main;
@@ -64,12 +66,14 @@ public class CompileEnvironment {
     private String myTargetFileName = null;
     private String myCurrentTargetFileName = null;
     private ProverListener myListener = null;
+    private ModuleDecCache myModuleDecCache = null;
     private TypeGraph myTypeGraph = null;
 
     // variables brought in from the old Environment class
     private Map<ModuleID, ModuleRecord> map = new Map<ModuleID, ModuleRecord>();
 
     private Map<File, ModuleID> fmap = new Map<File, ModuleID>();
+    private Map<File, byte[]> sourceDigests = new Map<File, byte[]>();
     private List<File> unparsables = new List<File>();
     private Stack<ModuleID> stack = new Stack<ModuleID>();
     private File mainDir = null;
@@ -234,6 +238,18 @@ public class CompileEnvironment {
         return myListener;
     }
 
+    /**
+     * Used to share parsed imports with other compiles in the same process,
+     * e.g. by the <code>CompileServer</code>
+     */
+    public void setModuleDecCache(ModuleDecCache cache) {
+        myModuleDecCache = cache;
+    }
+
+    public ModuleDecCache getModuleDecCache() {
+        return myModuleDecCache;
+    }
+
     /**
      * Returns the array of Std_Fac names
      */
@@ -532,6 +548,29 @@ public class CompileEnvironment {
         return fmap.get(file);
     }
 
+    /**
+     * Records the source the specified file was just parsed from. Only a
+     * SHA-1 digest of it is kept.
+     */
+    public void setSource(File file, byte[] source) {
+        try {
+            sourceDigests.put(file, MessageDigest.getInstance("SHA-1").digest(
+                    source));
+        }
+        catch (NoSuchAlgorithmException nsae) {
+            //Every Java platform is required to support SHA-1
+            throw new RuntimeException(nsae);
+        }
+    }
+
+    /**
+     * Returns the SHA-1 digest of the source the specified file was last
+     * parsed from, or null if it was not parsed from disk.
+     */
+    public byte[] getSourceDigest(File file) {
+        return sourceDigests.get(file);
+    }
+
     /**
      * Returns the file associated with the specified module.
      */
@@ -553,6 +592,14 @@ public class CompileEnvironment {
         return map.get(id).getTheories();
     }
 
+    /**
+     * Returns the list of modules the specified module imports directly, or
+     * null if they are still being compiled.
+     */
+    public List<ModuleID> getImports(ModuleID id) {
+        return map.get(id).getImports();
+    }
+
     /**
      * Returns the map of symbol tables.
      */
@@ -590,6 +637,15 @@ public class CompileEnvironment {
         record.setTheories(theories);
     }
 
+    /**
+     * Associates the list of modules the specified module imports directly
+     * with that module.
+     */
+    public void setImports(ModuleID id, List<ModuleID> imports) {
+        ModuleRecord record = map.get(id);
+        record.setImports(imports);
+    }
+
     /**
      * Adds a file to the environment which failed to parse.
      */
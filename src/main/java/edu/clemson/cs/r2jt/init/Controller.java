@@ -13,6 +13,7 @@
 package edu.clemson.cs.r2jt.init;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -22,7 +23,6 @@ import edu.clemson.cs.r2jt.parsing.RLexer;
 import edu.clemson.cs.r2jt.parsing.RParser;
 import edu.clemson.cs.r2jt.translation.*;
 import edu.clemson.cs.r2jt.typeandpopulate.*;
-import org.antlr.runtime.ANTLRFileStream;
 import org.antlr.runtime.ANTLRStringStream;
 import org.antlr.runtime.CharStream;
 import org.antlr.runtime.CommonTokenStream;
@@ -66,6 +66,8 @@ public class Controller {
 
     private File astDumpFile = null;
 
+    private final ModuleDecCache myModuleDecCache;
+
     private String[] noImportList =
             { "Std_Location_Linking_Realiz.rb", "Std_Array_Realiz.rb" };
 
@@ -76,6 +78,7 @@ public class Controller {
         myInstanceEnvironment = e;
         err = e.getErrorHandler();
         myCompileReport = e.getCompileReport();
+        myModuleDecCache = ModuleDecCache.fromEnvironment(e);
         /*if(myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)){
          myArchive = new Archiver(myInstanceEnvironment);
          }
@@ -128,6 +131,7 @@ public class Controller {
                     myArchive = null;
                 }
                 compileNewTargetFile(file, symbolTable);
+                JavaTranslator.saveManifest(myInstanceEnvironment);
 
                 if (myInstanceEnvironment.flags
                         .isFlagSet(Archiver.FLAG_ARCHIVE)) {
@@ -201,6 +205,7 @@ public class Controller {
             }
         }
         //compileNewTargetFile(file);
+        JavaTranslator.saveManifest(myInstanceEnvironment);
         if (myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)) {
             //arc.printArchiveList();
             //arc.prepArchiver(file);
@@ -675,7 +680,7 @@ public class Controller {
             MathSymbolTableBuilder symbolTable) throws Exception {
         try {
             myInstanceEnvironment.setCurrentTargetFileName(file.getName());
-            ModuleDec dec = buildModuleDec(file);
+            ModuleDec dec = buildImportedModuleDec(file);
             ModuleID id = ModuleID.createID(dec);
 
             checkNameCompatibility(dec.getName().getLocation(), id, file);
@@ -754,12 +759,47 @@ public class Controller {
     private ModuleDec buildModuleDec(File file) throws Exception {
         // FIX: Is this the only place we mess with this?
         //err.setFile(file);
-        CommonTokenStream tokens = getFileTokenStream(file);
+        return buildModuleDec(file, null);
+    }
+
+    /**
+     * <p>Builds a module from <code>source</code>, the contents of
+     * <code>file</code>, or from the file itself if <code>source</code> is
+     * <code>null</code>.</p>
+     */
+    private ModuleDec buildModuleDec(File file, byte[] source)
+            throws Exception {
+        CommonTokenStream tokens = getFileTokenStream(file, source);
         CommonTree ast = getParseTree(file.toString(), tokens);
         ModuleDec dec = getModuleDec(ast);
         return dec;
     }
 
+    /**
+     * <p>Builds an imported module, reusing the copy stored in the module
+     * cache when its source has not changed.</p>
+     */
+    private ModuleDec buildImportedModuleDec(File file) throws Exception {
+        ModuleDec dec;
+        if (myModuleDecCache == null) {
+            dec = buildModuleDec(file);
+        }
+        else {
+            byte[] source = Files.readAllBytes(file.toPath());
+            String key = myModuleDecCache.getKey(file, source);
+            dec = myModuleDecCache.lookup(key);
+            if (dec == null) {
+                dec = buildModuleDec(file, source);
+                myModuleDecCache.store(key, dec);
+            }
+            else {
+                err.setFile(file);
+                myInstanceEnvironment.setSource(file, source);
+            }
+        }
+        return dec;
+    }
+
     private CommonTree getParseTree(String fileName, CommonTokenStream tokens)
             throws Exception {
         CommonTree ast = null;
@@ -784,14 +824,17 @@ public class Controller {
         return ast;
     }
 
-    private CommonTokenStream getFileTokenStream(File file) {
+    private CommonTokenStream getFileTokenStream(File file, byte[] source) {
         CharStream cs = null;
         CommonTokenStream tokens = null;
         try {
             err.setFile(file);
             int initErrorCount = err.getErrorCount();
-            String fileName = file.getAbsolutePath();
-            cs = new ANTLRFileStream(fileName);
+            if (source == null) {
+                source = Files.readAllBytes(file.toPath());
+            }
+            myInstanceEnvironment.setSource(file, source);
+            cs = new CompactFileStream(file, source);
             RLexer lexer = new RLexer(cs);
             tokens = new CommonTokenStream();
             tokens.setTokenSource(lexer);
@@ -878,6 +921,7 @@ public class Controller {
                 myInstanceEnvironment.getModuleID(dec.getName().getLocation()
                         .getFile());
         List<ModuleID> theories = new List<ModuleID>();
+        List<ModuleID> imported = new List<ModuleID>();
         ImportScanner scanner = new ImportScanner(myInstanceEnvironment);
         List<Import> imports = scanner.getImportList(dec);
         Iterator<Import> i = imports.iterator();
@@ -886,6 +930,10 @@ public class Controller {
             compilePosModule(pid, dec, symbolTable);
             ModuleID id2 = guessModuleID(pid);
 
+            // Every import is recorded, compiled or not, so that the
+            // translation manifest never treats a module as depending on
+            // less than it does
+            imported.addUnique(id2);
             if (myInstanceEnvironment.contains(id2)
                     && myInstanceEnvironment
                             .compileCompleted(myInstanceEnvironment
@@ -906,6 +954,7 @@ public class Controller {
                     + " Controller(969)");
         }
         myInstanceEnvironment.setTheories(id, theories);
+        myInstanceEnvironment.setImports(id, imported);
         if (err.countExceeds(initErrorCount)) {
             throw new CompilerException();
         }
@@ -1189,55 +1238,80 @@ public class Controller {
     // Invoke the new VC Generator
     // -YS
     private void generateVCs(ScopeRepository table, ModuleDec dec) {
-
-        // Create a new instance of the VC Generator and invoke the
-        // tree walker on it.
-        VCGenerator vcgen = new VCGenerator(table, myInstanceEnvironment);
-        TreeWalker tw = new TreeWalker(vcgen);
-        tw.visit(dec);
-
-        // Print Debug Information
-        //System.out.println(vcgen.verboseOutput());
-
-        // Obtain VCs for Prover
-        java.util.List<VC> vcs = vcgen.proverOutput();
-
-        // If specified, invoke one of our in house provers
         try {
             ModuleScope scope = table.getModuleScope(new ModuleIdentifier(dec));
 
-            // Congruence Class Prover
+            // Create a new instance of the VC Generator and invoke the
+            // tree walker on it.
+            VCGenerator vcgen = new VCGenerator(table, myInstanceEnvironment);
+
+            // If asked to, the congruence class prover works on each VC
+            // while the rest are still being generated.
+            CongruenceClassProver streamingProver = null;
             if (myInstanceEnvironment.flags
-                    .isFlagSet(CongruenceClassProver.FLAG_PROVE)) {
-                CongruenceClassProver ccProver =
-                        new CongruenceClassProver(table.getTypeGraph(), vcs,
-                                scope, myInstanceEnvironment,
-                                myInstanceEnvironment.getProverListener());
-                try {
-                    ccProver.start();
-                }
-                catch (IOException ioe) {
-                    throw new RuntimeException(ioe);
-                }
-            }
-            // Algebraic Prover
-            else if (myInstanceEnvironment.flags
-                    .isFlagSet(AlgebraicProver.FLAG_PROVE)) {
-                AlgebraicProver prover =
-                        new AlgebraicProver(
-                                table.getTypeGraph(),
-                                vcs,
-                                scope,
-                                myInstanceEnvironment.flags
-                                        .isFlagSet(AlgebraicProver.FLAG_INTERACTIVE),
+                    .isFlagSet(CongruenceClassProver.FLAG_STREAM_VCS)) {
+                streamingProver =
+                        new CongruenceClassProver(table.getTypeGraph(), scope,
                                 myInstanceEnvironment, myInstanceEnvironment
                                         .getProverListener());
+                vcgen.addVCListener(streamingProver);
+            }
+
+            try {
+                TreeWalker tw = new TreeWalker(vcgen);
+                tw.visit(dec);
 
-                try {
-                    prover.start();
+                // Print Debug Information
+                //System.out.println(vcgen.verboseOutput());
+
+                // Obtain VCs for Prover
+                java.util.List<VC> vcs = vcgen.proverOutput();
+
+                // If specified, invoke one of our in house provers
+                // Congruence Class Prover
+                if (myInstanceEnvironment.flags
+                        .isFlagSet(CongruenceClassProver.FLAG_PROVE)) {
+                    CongruenceClassProver ccProver = streamingProver;
+                    if (ccProver == null) {
+                        ccProver =
+                                new CongruenceClassProver(
+                                        table.getTypeGraph(), vcs, scope,
+                                        myInstanceEnvironment,
+                                        myInstanceEnvironment
+                                                .getProverListener());
+                    }
+                    try {
+                        ccProver.start();
+                    }
+                    catch (IOException ioe) {
+                        throw new RuntimeException(ioe);
+                    }
                 }
-                catch (IOException ioe) {
-                    throw new RuntimeException(ioe);
+                // Algebraic Prover
+                else if (myInstanceEnvironment.flags
+                        .isFlagSet(AlgebraicProver.FLAG_PROVE)) {
+                    AlgebraicProver prover =
+                            new AlgebraicProver(
+                                    table.getTypeGraph(),
+                                    vcs,
+                                    scope,
+                                    myInstanceEnvironment.flags
+                                            .isFlagSet(AlgebraicProver.FLAG_INTERACTIVE),
+                                    myInstanceEnvironment, myInstanceEnvironment
+                                            .getProverListener());
+
+                    try {
+                        prover.start();
+                    }
+                    catch (IOException ioe) {
+                        throw new RuntimeException(ioe);
+                    }
+                }
+            }
+            finally {
+                // The workers must not outlive a failed walk or proof
+                if (streamingProver != null) {
+                    streamingProver.stop();
                 }
             }
         }
@@ -1262,11 +1336,14 @@ public class Controller {
 
         String targetFile = myInstanceEnvironment.getTargetFile().toString();
         String thisFile = dec.getName().getFile().toString();
-        // We only translate if this is the target file or if file is stale
-        if ((thisFile.equals(targetFile)) || translator.needToTranslate(file)) {
+        // We only translate if this is the target file or if file is stale.
+        // Staleness is checked either way, so that the translator works out
+        // its manifest key before it translates anything.
+        boolean stale = translator.needToTranslate(file);
+        if ((thisFile.equals(targetFile)) || stale) {
             TreeWalker tw = new TreeWalker(translator);
             tw.visit(dec);
-            translator.outputCode(file);
+            translator.outputCode(file, myArchive);
         }
     }
 
@@ -13,6 +13,8 @@
 package edu.clemson.cs.r2jt.init;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.collections.Iterator;
 import edu.clemson.cs.r2jt.data.*;
@@ -20,6 +22,17 @@ import edu.clemson.cs.r2jt.errors.*;
 
 public class FileLocator {
 
+    // ===========================================================
+    // Variables
+    // ===========================================================
+
+    /**
+     * The directory trees searched so far, so that each tree is only
+     * walked again once one of its directories has changed.
+     */
+    private final Map<File, DirectoryTree> myTrees =
+            new HashMap<File, DirectoryTree>();
+
     // ===========================================================
     // Constructors
     // ===========================================================
@@ -124,24 +137,68 @@ public class FileLocator {
     // ===========================================================
 
     private List<File> recursivelyLocateFiles(String name, File dir) {
+        DirectoryTree tree = myTrees.get(dir);
+        if (tree == null || tree.isStale()) {
+            tree = new DirectoryTree(dir);
+            myTrees.put(dir, tree);
+        }
+
         List<File> resultFiles = new List<File>();
-        File[] fileArray = dir.listFiles();
-        List<File> files = new List<File>();
-        //JMH avoid problems with 1.5 generics files.addAll(fileArray);
-        for (int i = 0; i < fileArray.length; i++) {
-            files.add(fileArray[i]);
+        List<File> files = tree.filesByName.get(name);
+        if (files != null) {
+            resultFiles.addAll(files);
         }
-        Iterator<File> i = files.iterator();
-        while (i.hasNext()) {
-            File file = i.next();
-            if (file.isDirectory()) {
-                resultFiles.addAll(recursivelyLocateFiles(name, file));
+        return resultFiles;
+    }
+
+    // -----------------------------------------------------------
+    // Directory Tree
+    // -----------------------------------------------------------
+
+    /**
+     * Every file in a directory tree, by name, in the order a recursive
+     * search of the tree visits them. A directory's modification time
+     * changes whenever an entry is added to or removed from it, so the
+     * tree is stale once any of those times differ from the recorded ones.
+     */
+    private static class DirectoryTree {
+
+        private final Map<String, List<File>> filesByName =
+                new HashMap<String, List<File>>();
+        private final Map<File, Long> directoryTimes =
+                new HashMap<File, Long>();
+
+        public DirectoryTree(File dir) {
+            addFiles(dir);
+        }
+
+        public boolean isStale() {
+            for (Map.Entry<File, Long> entry : directoryTimes.entrySet()) {
+                if (entry.getKey().lastModified() != entry.getValue()) {
+                    return true;
+                }
             }
-            else if (file.getName().equals(name)) {
-                resultFiles.add(file);
+            return false;
+        }
+
+        private void addFiles(File dir) {
+            directoryTimes.put(dir, dir.lastModified());
+            File[] fileArray = dir.listFiles();
+            for (int i = 0; i < fileArray.length; i++) {
+                File file = fileArray[i];
+                if (file.isDirectory()) {
+                    addFiles(file);
+                }
+                else {
+                    List<File> files = filesByName.get(file.getName());
+                    if (files == null) {
+                        files = new List<File>();
+                        filesByName.put(file.getName(), files);
+                    }
+                    files.add(file);
+                }
             }
         }
-        return resultFiles;
     }
 
     // -----------------------------------------------------------
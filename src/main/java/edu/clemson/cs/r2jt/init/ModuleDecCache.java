@@ -0,0 +1,483 @@
+/**
+ * ModuleDecCache.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.init;
+
+import edu.clemson.cs.r2jt.Main;
+import edu.clemson.cs.r2jt.absyn.ModuleDec;
+import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * <p>A cache of freshly parsed <code>ModuleDec</code>s, so that the standard
+ * facilities and theories, which change a few times a year, are not lexed,
+ * parsed and built again by every compile that imports them. The cache is
+ * either kept in a directory between runs, or held in memory by a
+ * long-lived process such as the <code>CompileServer</code>.</p>
+ *
+ * <p>An entry is keyed by a fingerprint of the compiler's grammar and abstract
+ * syntax classes, the module's path and a hash of its source, and holds the
+ * binary serialized tree exactly as it came out of the <code>RBuilder</code>,
+ * before the PreProcessor or the Populator touch it. Every lookup returns a
+ * new copy, so later phases are free to modify it.</p>
+ *
+ * <p>The directory is writable by the user, so entries are read back through
+ * a stream that refuses any class other than those a parsed module is made
+ * of.</p>
+ */
+public class ModuleDecCache {
+
+    /**
+     * <p>Bump this whenever the key or entry format changes.</p>
+     */
+    private static final int CACHE_FORMAT_VERSION = 1;
+
+    private static final String ENTRY_EXTENSION = ".modulecache";
+
+    /**
+     * <p>The packages whose classes decide what a serialized module looks
+     * like: the generated parser and builder, and the tree they build.</p>
+     */
+    private static final List<String> FINGERPRINTED_PACKAGES =
+            Arrays.asList("edu/clemson/cs/r2jt/absyn/",
+                    "edu/clemson/cs/r2jt/collections/",
+                    "edu/clemson/cs/r2jt/data/",
+                    "edu/clemson/cs/r2jt/parsing/");
+
+    private static final String ALLOWED_PACKAGE = "edu.clemson.cs.r2jt.absyn.";
+
+    private static final Set<String> ALLOWED_CLASSES =
+            new HashSet<String>(Arrays.asList(
+                    "edu.clemson.cs.r2jt.collections.List",
+                    "edu.clemson.cs.r2jt.collections.Map",
+                    "edu.clemson.cs.r2jt.data.Location",
+                    "edu.clemson.cs.r2jt.data.Mode",
+                    "edu.clemson.cs.r2jt.data.Pos",
+                    "edu.clemson.cs.r2jt.data.PosSymbol",
+                    "edu.clemson.cs.r2jt.data.Symbol", "java.io.File",
+                    "java.lang.Boolean", "java.lang.Character",
+                    "java.lang.Enum", "java.lang.Integer", "java.lang.Number",
+                    "java.lang.String", "java.util.ArrayList",
+                    "java.util.HashMap", "java.util.LinkedList"));
+
+    private final File myDirectory;
+
+    /**
+     * <p>The serialized entries of an in-memory cache, least recently used
+     * first, or <code>null</code> if the cache is on disk. Guarded by
+     * itself.</p>
+     */
+    private final LinkedHashMap<String, byte[]> myEntries;
+
+    private final int myCapacity;
+
+    /**
+     * <p>Creates a cache kept in <code>directory</code>.</p>
+     */
+    public ModuleDecCache(File directory) {
+        myDirectory = directory;
+        myEntries = null;
+        myCapacity = 0;
+    }
+
+    /**
+     * <p>Creates a cache kept in memory, holding at most
+     * <code>capacity</code> modules.</p>
+     */
+    public ModuleDecCache(int capacity) {
+        myDirectory = null;
+        myEntries = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+        myCapacity = capacity;
+    }
+
+    /**
+     * <p>Returns the cache given to the environment, if any, or else the one
+     * named by {@link Main#FLAG_AST_CACHE}. Returns <code>null</code> if
+     * neither is there or the compiler's own classes cannot be found to
+     * fingerprint.</p>
+     */
+    public static ModuleDecCache fromEnvironment(
+            CompileEnvironment environment) {
+        ModuleDecCache result = environment.getModuleDecCache();
+
+        if (result == null && environment.flags.isFlagSet(Main.FLAG_AST_CACHE)
+                && BuildFingerprint.VALUE != null) {
+            String directory =
+                    environment.flags.getFlagArgument(Main.FLAG_AST_CACHE,
+                            "directory");
+            result = new ModuleDecCache(new File(directory));
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns the key under which the parsed form of <code>file</code>,
+     * whose contents are <code>source</code>, is stored.</p>
+     */
+    public String getKey(File file, byte[] source) {
+        MessageDigest digest = newDigest();
+        digest.update(("" + CACHE_FORMAT_VERSION + '\n'
+                + BuildFingerprint.VALUE + '\n' + file.getAbsolutePath() + '\n')
+                .getBytes());
+        digest.update(source);
+
+        return toHex(digest.digest());
+    }
+
+    /**
+     * <p>Returns a new copy of the module stored under <code>key</code>, or
+     * <code>null</code> if there is none or it cannot be read.</p>
+     */
+    public ModuleDec lookup(String key) {
+        ModuleDec result = null;
+
+        InputStream entry = null;
+        ObjectInputStream in = null;
+        try {
+            entry = openEntry(key);
+            if (entry != null) {
+                in = new ModuleInputStream(entry);
+                result = (ModuleDec) in.readObject();
+            }
+        }
+        catch (IOException ioe) {
+            //An unreadable or rejected entry is treated as a miss
+            result = null;
+        }
+        catch (ClassNotFoundException cnfe) {
+            result = null;
+        }
+        catch (ClassCastException cce) {
+            result = null;
+        }
+        finally {
+            closeQuietly(in);
+            closeQuietly(entry);
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Records a freshly built module under <code>key</code>, replacing any
+     * existing entry. A failure to write the cache never fails the
+     * compile.</p>
+     */
+    public void store(String key, ModuleDec dec) {
+        if (myEntries == null) {
+            storeOnDisk(key, dec);
+        }
+        else {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                ObjectOutputStream out = new ObjectOutputStream(bytes);
+                out.writeObject(dec);
+                out.close();
+
+                synchronized (myEntries) {
+                    myEntries.put(key, bytes.toByteArray());
+                    if (myEntries.size() > myCapacity) {
+                        Iterator<String> eldest = myEntries.keySet().iterator();
+                        eldest.next();
+                        eldest.remove();
+                    }
+                }
+            }
+            catch (IOException ioe) {
+                System.err.println("Unable to update module cache: "
+                        + ioe.getMessage());
+            }
+        }
+    }
+
+    /**
+     * <p>Returns the number of modules held by an in-memory cache.</p>
+     */
+    public int size() {
+        int result = 0;
+
+        if (myEntries != null) {
+            synchronized (myEntries) {
+                result = myEntries.size();
+            }
+        }
+
+        return result;
+    }
+
+    private void storeOnDisk(String key, ModuleDec dec) {
+        Path temp = null;
+        ObjectOutputStream out = null;
+        try {
+            Files.createDirectories(myDirectory.toPath());
+            temp = Files.createTempFile(myDirectory.toPath(), key, ".tmp");
+            out =
+                    new ObjectOutputStream(new BufferedOutputStream(Files
+                            .newOutputStream(temp)));
+            out.writeObject(dec);
+            out.close();
+            out = null;
+
+            Files.move(temp, entryFile(key),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+        }
+        catch (IOException ioe) {
+            System.err.println("Unable to update module cache in "
+                    + myDirectory + ": " + ioe.getMessage());
+        }
+        finally {
+            closeQuietly(out);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                }
+                catch (IOException ioe) {}
+            }
+        }
+    }
+
+    /**
+     * <p>Returns the serialized entry stored under <code>key</code>, or
+     * <code>null</code> if there is none.</p>
+     */
+    private InputStream openEntry(String key) throws IOException {
+        InputStream result = null;
+
+        if (myEntries == null) {
+            Path entryFile = entryFile(key);
+            if (Files.isRegularFile(entryFile)) {
+                result =
+                        new BufferedInputStream(Files
+                                .newInputStream(entryFile));
+            }
+        }
+        else {
+            byte[] entry;
+            synchronized (myEntries) {
+                entry = myEntries.get(key);
+            }
+
+            if (entry != null) {
+                result = new ByteArrayInputStream(entry);
+            }
+        }
+
+        return result;
+    }
+
+    private Path entryFile(String key) {
+        return new File(myDirectory, key + ENTRY_EXTENSION).toPath();
+    }
+
+    private static void closeQuietly(Closeable c) {
+        if (c != null) {
+            try {
+                c.close();
+            }
+            catch (IOException ioe) {}
+        }
+    }
+
+    /**
+     * <p>Returns a hash of every class in {@link #FINGERPRINTED_PACKAGES} as
+     * loaded by this compiler, so that entries written by a build with a
+     * different grammar or tree are never found, or <code>null</code> if
+     * those classes are not in a plain directory or jar.</p>
+     */
+    private static String computeBuildFingerprint() {
+        String result;
+
+        try {
+            result = hashCompilerClasses();
+        }
+        catch (IOException ioe) {
+            result = null;
+        }
+        catch (URISyntaxException use) {
+            result = null;
+        }
+
+        return result;
+    }
+
+    private static String hashCompilerClasses()
+            throws IOException,
+                URISyntaxException {
+        String result = null;
+
+        CodeSource codeSource =
+                ModuleDecCache.class.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+            File location = new File(codeSource.getLocation().toURI());
+            MessageDigest digest = newDigest();
+
+            if (location.isDirectory()) {
+                SortedSet<String> names = new TreeSet<String>();
+                for (String pkg : FINGERPRINTED_PACKAGES) {
+                    String[] children = new File(location, pkg).list();
+                    if (children != null) {
+                        for (String child : children) {
+                            if (child.endsWith(".class")) {
+                                names.add(pkg + child);
+                            }
+                        }
+                    }
+                }
+
+                for (String name : names) {
+                    digest.update(name.getBytes());
+                    digest.update(Files.readAllBytes(new File(location, name)
+                            .toPath()));
+                }
+                result = toHex(digest.digest());
+            }
+            else if (location.isFile()) {
+                JarFile jar = new JarFile(location);
+                try {
+                    SortedSet<String> names = new TreeSet<String>();
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        String name = entries.nextElement().getName();
+                        if (name.endsWith(".class")
+                                && isFingerprinted(name)) {
+                            names.add(name);
+                        }
+                    }
+
+                    byte[] buffer = new byte[8192];
+                    for (String name : names) {
+                        digest.update(name.getBytes());
+                        InputStream in =
+                                jar.getInputStream(jar.getJarEntry(name));
+                        try {
+                            int read;
+                            while ((read = in.read(buffer)) != -1) {
+                                digest.update(buffer, 0, read);
+                            }
+                        }
+                        finally {
+                            in.close();
+                        }
+                    }
+                    result = toHex(digest.digest());
+                }
+                finally {
+                    jar.close();
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns whether the jar entry <code>name</code> lies directly in one
+     * of {@link #FINGERPRINTED_PACKAGES}.</p>
+     */
+    private static boolean isFingerprinted(String name) {
+        boolean result = false;
+
+        for (String pkg : FINGERPRINTED_PACKAGES) {
+            result |=
+                    name.startsWith(pkg)
+                            && name.indexOf('/', pkg.length()) == -1;
+        }
+
+        return result;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte by : bytes) {
+            hex.append(Character.forDigit((by >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(by & 0xF, 16));
+        }
+
+        return hex.toString();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException nsae) {
+            //Every Java platform is required to support SHA-256
+            throw new RuntimeException(nsae);
+        }
+    }
+
+    /**
+     * <p>Holds the fingerprint of this build, computed the first time a
+     * cache needs it.</p>
+     */
+    private static class BuildFingerprint {
+
+        static final String VALUE = computeBuildFingerprint();
+    }
+
+    /**
+     * <p>Reads back an entry, refusing every class that is not part of a
+     * parsed module before it is loaded or instantiated.</p>
+     */
+    private static class ModuleInputStream extends ObjectInputStream {
+
+        public ModuleInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException,
+                    ClassNotFoundException {
+            String name = desc.getName();
+
+            //Arrays are allowed when their element type is
+            int dimensions = 0;
+            while (name.charAt(dimensions) == '[') {
+                dimensions++;
+            }
+            if (dimensions > 0) {
+                name =
+                        (name.charAt(dimensions) == 'L') ? name.substring(
+                                dimensions + 1, name.length() - 1) : null;
+            }
+
+            if (name != null && !name.startsWith(ALLOWED_PACKAGE)
+                    && !ALLOWED_CLASSES.contains(name)) {
+                throw new InvalidClassException(desc.getName(),
+                        "not part of a parsed module");
+            }
+
+            return super.resolveClass(desc);
+        }
+    }
+}
@@ -45,6 +45,9 @@ public class ModuleRecord {
 
     private List<ModuleID> theories = new List<ModuleID>();
 
+    // Null until the module's imports have all been compiled
+    private List<ModuleID> imports = null;
+
     private boolean errors = false;
 
     // ==========================================================
@@ -80,6 +83,10 @@ public class ModuleRecord {
         return theories;
     }
 
+    public List<ModuleID> getImports() {
+        return imports;
+    }
+
     // -----------------------------------------------------------
     // Set Methods
     // -----------------------------------------------------------
@@ -104,6 +111,20 @@ public class ModuleRecord {
         }
     }
 
+    public void setImports(List<ModuleID> imports) {
+        assert dec != null : "dec is null";
+        if (this.imports == null) {
+            this.imports = new List<ModuleID>();
+        }
+        Iterator<ModuleID> it = imports.iterator();
+        while (it.hasNext()) {
+            ModuleID temp = it.next();
+            if (!this.imports.contains(temp)) {
+                this.imports.add(temp);
+            }
+        }
+    }
+
     // -----------------------------------------------------------
     // Query Methods
     // -----------------------------------------------------------
@@ -30,6 +30,15 @@ public class FlagManager {
     private final String[] myRemainingArgs;
     private static FlagManager global_instance;
 
+    /**
+     * <p>The flags of the compilation running on each thread. Threads started
+     * by a compilation (e.g. the prover's workers) inherit its flags, so that
+     * several compilations can run in one JVM without seeing each other's
+     * flags.</p>
+     */
+    private static final InheritableThreadLocal<FlagManager> current_instance =
+            new InheritableThreadLocal<FlagManager>();
+
     /**
      * <p>Creates a new
      * <code>FlagManager</code> based on the provided user command-line
@@ -57,13 +66,30 @@ public class FlagManager {
     }
 
     private void assignToGlobalInstance() {
-        if (global_instance == null) {
-            global_instance = this;
+        synchronized (FlagManager.class) {
+            if (global_instance == null) {
+                global_instance = this;
+            }
         }
+        current_instance.set(this);
     }
 
+    /**
+     * <p>Returns the flags of the compilation running on the calling thread,
+     * or the first <code>FlagManager</code> ever created if this thread does
+     * not belong to a compilation.</p>
+     *
+     * @return The current <code>FlagManager</code>.
+     */
     public static FlagManager getInstance() {
-        return global_instance;
+        FlagManager result = current_instance.get();
+        if (result == null) {
+            synchronized (FlagManager.class) {
+                result = global_instance;
+            }
+        }
+
+        return result;
     }
 
     /**
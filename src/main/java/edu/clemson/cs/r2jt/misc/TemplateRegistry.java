@@ -0,0 +1,75 @@
+/**
+ * TemplateRegistry.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.misc;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import org.stringtemplate.v4.AutoIndentWriter;
+import org.stringtemplate.v4.ST;
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.STGroupFile;
+
+/**
+ * <p>The string template groups of the compiler, each loaded and compiled
+ * once per process rather than once per translated module.</p>
+ *
+ * <p>A group is fully loaded before it is handed out, so nothing in it
+ * changes afterwards except the adaptor and member caches, which ST guards
+ * itself. Templates from a shared group can therefore be created and
+ * rendered from any thread.</p>
+ */
+public final class TemplateRegistry {
+
+    private static final Map<String, STGroup> GROUPS =
+            new HashMap<String, STGroup>();
+
+    private TemplateRegistry() {}
+
+    /**
+     * <p>Returns the shared, fully loaded group in the given template group
+     * file, loading it the first time it is asked for.</p>
+     *
+     * @param fileName The group file's name on the class path, e.g.
+     *                 <code>"templates/Java.stg"</code>.
+     *
+     * @return The group.
+     */
+    public static STGroup getGroup(String fileName) {
+        synchronized (GROUPS) {
+            STGroup result = GROUPS.get(fileName);
+            if (result == null) {
+                result = new STGroupFile(fileName);
+                result.load();
+                GROUPS.put(fileName, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * <p>Renders <code>template</code> straight onto <code>out</code>,
+     * without first building the whole text as a string.</p>
+     *
+     * @param template A template from any group.
+     * @param out Where the text goes. It is neither flushed nor closed.
+     *
+     * @return The number of characters written.
+     *
+     * @throws IOException If <code>out</code> fails.
+     */
+    public static int write(ST template, Writer out) throws IOException {
+        return template.write(new AutoIndentWriter(out));
+    }
+}
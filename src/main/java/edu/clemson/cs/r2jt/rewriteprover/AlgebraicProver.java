@@ -101,6 +101,9 @@ public class AlgebraicProver {
     private final ModuleScope myModuleScope;
     private final CompileEnvironment myInstanceEnvironment;
     private final int myTimeout;
+    private final ProofCache myProofCache;
+    private final String[] myProofCacheKeys;
+    private final ProofCache.Entry[] myCachedProofs;
 
     public AlgebraicProver(TypeGraph g, List<VC> vcs, ModuleScope scope,
             final boolean startInteractive, CompileEnvironment environment,
@@ -140,6 +143,27 @@ public class AlgebraicProver {
 
         myTheoremLibrary = new ArrayBackedImmutableList<Theorem>(theorems);
 
+        //Interactive sessions always start from scratch
+        if (startInteractive) {
+            myProofCache = null;
+        }
+        else {
+            myProofCache =
+                    ProofCache.fromEnvironment(environment, "altprove",
+                            theoremEntries, myTimeout);
+        }
+        myProofCacheKeys = new String[vcs.size()];
+        myCachedProofs = new ProofCache.Entry[vcs.size()];
+        if (myProofCache != null) {
+            for (int i = 0; i < vcs.size(); i++) {
+                myProofCacheKeys[i] = myProofCache.getKey(vcs.get(i));
+                ProofCache.Entry e = myProofCache.lookup(myProofCacheKeys[i]);
+                if (e != null && e.isProved()) {
+                    myCachedProofs[i] = e;
+                }
+            }
+        }
+
         myModels[0] =
                 new PerVCProverModel(g, vcs.get(0).getName(), vcs.get(0),
                         myTheoremLibrary);
@@ -206,7 +230,8 @@ public class AlgebraicProver {
             }
             //This will block until it either finishes proving or is told to
             //stop by, e.g., a "pause" action
-            if (!myInteractiveModeFlag) {
+            boolean cached = (myCachedProofs[myVCIndex] != null);
+            if (!myInteractiveModeFlag && !cached) {
                 myAutomatedProvers[myVCIndex].start();
             }
             if (!FlagManager.getInstance().isFlagSet("nodebug")) {
@@ -214,11 +239,19 @@ public class AlgebraicProver {
                         + myInteractiveModeFlag);
             }
             //myModels[myVCIndex].touch();
-            if (myModels[myVCIndex].noConsequents()
+            if (cached || myModels[myVCIndex].noConsequents()
                     || myAutomatedProvers[myVCIndex].doneSearching()) {
                 //We finished searching--either proved or failed
 
-                boolean proved = myModels[myVCIndex].noConsequents();
+                boolean proved =
+                        cached || myModels[myVCIndex].noConsequents();
+                if (myProofCache != null && !cached) {
+                    StringBuilder trace = new StringBuilder();
+                    appendProofTrace(myVCIndex, trace);
+                    myProofCache.store(myProofCacheKeys[myVCIndex],
+                            proved ? "PROVED" : "NOT PROVED", proved, trace
+                                    .toString());
+                }
                 for (ProverListener l : myProverListeners) {
                     l.vcResult(proved, myModels[myVCIndex], new Metrics(
                             myAutomatedProvers[myVCIndex].getLastStartLength(),
@@ -301,77 +334,28 @@ public class AlgebraicProver {
         int[] stepCount = new int[myModels.length];
         int[] searchStepCount = new int[myModels.length];
 
-        boolean doneWithAntecedentDevelopment;
-
         StringBuilder[] buffers = new StringBuilder[myModels.length];
         for (int i = 0; i < myModels.length; i++) {
-            doneWithAntecedentDevelopment = false;
-
             buffers[i] = new StringBuilder();
             buffers[i].append("=================================== ");
             buffers[i].append(myModels[i].getTheoremName());
             buffers[i].append(" ===================================\n\n");
 
-            if (myModels[i].noConsequents()) {
-                buffers[i].append("[PROVED] via:\n\n");
-
-                PerVCProverModel workingModel =
-                        new PerVCProverModel(myTypeGraph, myVCs.get(i)
-                                .getName(), myVCs.get(i), myTheoremLibrary);
-
-                buffers[i].append(workingModel.toString());
-                buffers[i].append("\n\n");
-
-                Application lastApplication = null;
-                Transformation stepTransformation;
-                List<ProofStep> steps = myModels[i].getProductiveProofSteps();
-                //List<ProofStep> steps = myModels[i].getProofSteps();
-                for (ProofStep step : steps) {
-                    workingModel.mimic(step);
-
-                    if (step.getApplication() != lastApplication) {
-                        stepCount[i]++;
-
-                        if (doneWithAntecedentDevelopment
-                                && !(step.getTransformation() instanceof EliminateTrueConjunctInConsequent)
-                                && !(step.getTransformation() instanceof ReplaceSymmetricEqualityWithTrueInConsequent)
-                                && !(step.getTransformation() instanceof ReplaceTheoremInConsequentWithTrue)) {
-                            searchStepCount[i]++;
-                        }
-
-                        lastApplication = step.getApplication();
-                        stepTransformation = step.getTransformation();
-
-                        if (stepTransformation instanceof NoOpLabel) {
-                            doneWithAntecedentDevelopment =
-                                    doneWithAntecedentDevelopment
-                                            || stepTransformation
-                                                    .toString()
-                                                    .equals(
-                                                            AutomatedProver.SEARCH_START_LABEL);
-
-                            buffers[i].append(stepTransformation.toString());
-                            buffers[i].append("\n\n");
-                        }
-                        else {
-                            buffers[i].append("Applied ");
-                            buffers[i].append(stepTransformation);
-                            buffers[i].append("\n\n");
-                            buffers[i].append(workingModel.toString());
-                            buffers[i].append("\n\n");
-                        }
-                    }
-                }
-
-                buffers[i].append("Q.E.D.\n\n");
+            if (myCachedProofs[i] != null) {
+                buffers[i].append(myCachedProofs[i].getProofTrace());
             }
             else {
-                buffers[i].append("[NOT PROVED]\n\n");
+                int[] counts = appendProofTrace(i, buffers[i]);
+                stepCount[i] = counts[0];
+                searchStepCount[i] = counts[1];
             }
 
             w.write("\t" + myModels[i].getTheoremName() + "\t......... ");
 
-            if (myModels[i].noConsequents()) {
+            if (myCachedProofs[i] != null) {
+                w.write("proved (cached)\n");
+            }
+            else if (myModels[i].noConsequents()) {
                 w.write("proved in "
                         + myAutomatedProvers[i].getLastStartLength()
                         + "ms via " + stepCount[i] + " steps ("
@@ -393,6 +377,75 @@ public class AlgebraicProver {
         w.close();
     }
 
+    /**
+     * <p>Appends the outcome of the VC at <code>index</code> to
+     * <code>trace</code>, replaying its proof if it was proved, and returns
+     * the number of steps and search steps in that proof.</p>
+     */
+    private int[] appendProofTrace(int index, StringBuilder trace) {
+        int[] counts = new int[2];
+        boolean doneWithAntecedentDevelopment = false;
+
+        if (myModels[index].noConsequents()) {
+            trace.append("[PROVED] via:\n\n");
+
+            PerVCProverModel workingModel =
+                    new PerVCProverModel(myTypeGraph, myVCs.get(index)
+                            .getName(), myVCs.get(index), myTheoremLibrary);
+
+            trace.append(workingModel.toString());
+            trace.append("\n\n");
+
+            Application lastApplication = null;
+            Transformation stepTransformation;
+            List<ProofStep> steps = myModels[index].getProductiveProofSteps();
+            //List<ProofStep> steps = myModels[index].getProofSteps();
+            for (ProofStep step : steps) {
+                workingModel.mimic(step);
+
+                if (step.getApplication() != lastApplication) {
+                    counts[0]++;
+
+                    if (doneWithAntecedentDevelopment
+                            && !(step.getTransformation() instanceof EliminateTrueConjunctInConsequent)
+                            && !(step.getTransformation() instanceof ReplaceSymmetricEqualityWithTrueInConsequent)
+                            && !(step.getTransformation() instanceof ReplaceTheoremInConsequentWithTrue)) {
+                        counts[1]++;
+                    }
+
+                    lastApplication = step.getApplication();
+                    stepTransformation = step.getTransformation();
+
+                    if (stepTransformation instanceof NoOpLabel) {
+                        doneWithAntecedentDevelopment =
+                                doneWithAntecedentDevelopment
+                                        || stepTransformation
+                                                .toString()
+                                                .equals(
+                                                        AutomatedProver.SEARCH_START_LABEL);
+
+                        trace.append(stepTransformation.toString());
+                        trace.append("\n\n");
+                    }
+                    else {
+                        trace.append("Applied ");
+                        trace.append(stepTransformation);
+                        trace.append("\n\n");
+                        trace.append(workingModel.toString());
+                        trace.append("\n\n");
+                    }
+                }
+            }
+
+            trace.append("Q.E.D.\n\n");
+        }
+        else {
+            trace.append("[NOT PROVED]\n\n");
+        }
+
+        return counts;
+    }
+
     private void setVCIndex(int index) {
         if (!FlagManager.getInstance().isFlagSet("nodebug")) {
             System.out.println("Algebraic Prover - SET VC INDEX " + index);
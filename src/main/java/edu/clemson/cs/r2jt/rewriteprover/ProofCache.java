@@ -0,0 +1,301 @@
+/**
+ * ProofCache.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.rewriteprover;
+
+import edu.clemson.cs.r2jt.congruenceclassprover.CongruenceClassProver;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.misc.Flag;
+import edu.clemson.cs.r2jt.misc.FlagDependencies;
+import edu.clemson.cs.r2jt.rewriteprover.absyn.PExp;
+import edu.clemson.cs.r2jt.rewriteprover.absyn.PLambda;
+import edu.clemson.cs.r2jt.rewriteprover.absyn.PSymbol;
+import edu.clemson.cs.r2jt.typeandpopulate.entry.TheoremEntry;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>An on-disk cache of proof results that survives between compiler runs.
+ * Each entry records the outcome and proof trace of a single VC.</p>
+ *
+ * <p>Entries are keyed by a hash of the VC's antecedents and consequents
+ * (including the types of every subexpression) combined with a fingerprint
+ * of the theorems available to the prover, the prover that produced the
+ * result and its timeout. A change to the VC or to any imported theorem
+ * therefore results in a different key, and stale entries are simply never
+ * looked up again.</p>
+ *
+ * <p>Each entry is stored in its own file, written to a temporary file first
+ * and then moved into place, so several compiles may share one cache
+ * directory.</p>
+ */
+public class ProofCache {
+
+    private static final String FLAG_DESC_PROOF_CACHE =
+            "Reuse proofs of unchanged VCs stored in the given directory, "
+                    + "and store new ones there.";
+
+    private static final String[] FLAG_PROOF_CACHE_ARGS = { "directory" };
+
+    /**
+     * <p>Tells <code>ccprove</code> and <code>altprove</code> where to keep
+     * proof results between runs.</p>
+     */
+    public static final Flag FLAG_PROOF_CACHE =
+            new Flag(Prover.FLAG_SECTION_NAME, "proofcache",
+                    FLAG_DESC_PROOF_CACHE, FLAG_PROOF_CACHE_ARGS,
+                    Flag.Type.HIDDEN);
+
+    public static void setUpFlags() {
+        Flag[] cachingProvers =
+                { CongruenceClassProver.FLAG_PROVE, AlgebraicProver.FLAG_PROVE };
+        FlagDependencies.addRequires(FLAG_PROOF_CACHE, cachingProvers);
+    }
+
+    /**
+     * <p>Bump this whenever the key or entry format changes.</p>
+     */
+    private static final int CACHE_FORMAT_VERSION = 1;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final String ENTRY_EXTENSION = ".vcproof";
+
+    private final File myDirectory;
+    private final String myProverFingerprint;
+
+    /**
+     * <p>Creates a cache rooted at <code>directory</code> for results from
+     * the prover named <code>proverName</code>.</p>
+     *
+     * @param directory The directory holding the cache entries. It is created
+     *                  if it does not exist.
+     * @param proverName A name identifying the prover (and its settings)
+     *                   producing the results.
+     * @param theorems Every theorem the prover may use.
+     * @param timeout The prover timeout in milliseconds.
+     */
+    public ProofCache(File directory, String proverName,
+            List<TheoremEntry> theorems, long timeout) {
+        myDirectory = directory;
+
+        List<String> theoremForms = new ArrayList<String>(theorems.size());
+        for (TheoremEntry e : theorems) {
+            StringBuilder b = new StringBuilder();
+            b.append(e.getSourceModuleIdentifier()).append('.');
+            b.append(e.getName()).append(':');
+            appendCanonicalForm(e.getAssertion(), b);
+            theoremForms.add(b.toString());
+        }
+        //Theorem queries make no promise about order
+        Collections.sort(theoremForms);
+
+        StringBuilder fingerprint = new StringBuilder();
+        fingerprint.append(CACHE_FORMAT_VERSION).append('\n');
+        fingerprint.append(proverName).append('\n');
+        fingerprint.append(timeout).append('\n');
+        for (String t : theoremForms) {
+            fingerprint.append(t).append('\n');
+        }
+        myProverFingerprint = hash(fingerprint.toString());
+    }
+
+    /**
+     * <p>Returns the cache named by {@link #FLAG_PROOF_CACHE} in the given
+     * environment, or <code>null</code> if the flag is not set.</p>
+     */
+    public static ProofCache fromEnvironment(CompileEnvironment environment,
+            String proverName, List<TheoremEntry> theorems, long timeout) {
+        ProofCache result = null;
+
+        if (environment.flags.isFlagSet(FLAG_PROOF_CACHE)) {
+            String directory =
+                    environment.flags.getFlagArgument(FLAG_PROOF_CACHE,
+                            "directory");
+            result =
+                    new ProofCache(new File(directory), proverName, theorems,
+                            timeout);
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns the key under which the result for <code>vc</code> is
+     * stored. Two VCs get the same key if and only if (barring hash
+     * collisions) they have the same antecedents and consequents, with the
+     * same types, in the same order.</p>
+     */
+    public String getKey(VC vc) {
+        StringBuilder b = new StringBuilder(myProverFingerprint);
+        b.append("\nantecedents\n");
+        for (PExp e : vc.getAntecedent()) {
+            appendCanonicalForm(e, b);
+            b.append('\n');
+        }
+        b.append("consequents\n");
+        for (PExp e : vc.getConsequent()) {
+            appendCanonicalForm(e, b);
+            b.append('\n');
+        }
+
+        return hash(b.toString());
+    }
+
+    /**
+     * <p>Returns the cached result stored under <code>key</code>, or
+     * <code>null</code> if there is none or it cannot be read.</p>
+     */
+    public Entry lookup(String key) {
+        Entry result = null;
+
+        Path entryFile = entryFile(key);
+        if (Files.isRegularFile(entryFile)) {
+            try {
+                String contents =
+                        new String(Files.readAllBytes(entryFile), UTF8);
+                int firstLineEnd = contents.indexOf('\n');
+                if (firstLineEnd > 0) {
+                    result =
+                            new Entry(contents.substring(0, firstLineEnd),
+                                    contents.substring(firstLineEnd + 1));
+                }
+            }
+            catch (IOException ioe) {
+                //An unreadable entry is treated as a miss
+                result = null;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Records a result under <code>key</code>, replacing any existing
+     * entry. A failure to write the cache never fails the compile.</p>
+     *
+     * @param key A key returned by {@link #getKey(VC)}.
+     * @param outcome The prover's verdict. Must not contain a line break.
+     * @param proved Whether <code>outcome</code> means the VC was proved.
+     * @param proofTrace The text describing the proof.
+     */
+    public void store(String key, String outcome, boolean proved,
+            String proofTrace) {
+        try {
+            Files.createDirectories(myDirectory.toPath());
+            Path temp =
+                    Files.createTempFile(myDirectory.toPath(), key, ".tmp");
+            String contents =
+                    (proved ? Entry.PROVED_PREFIX : "") + outcome + "\n"
+                            + proofTrace;
+            Files.write(temp, contents.getBytes(UTF8));
+            Files.move(temp, entryFile(key),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ioe) {
+            System.err.println("Unable to update proof cache in "
+                    + myDirectory + ": " + ioe.getMessage());
+        }
+    }
+
+    private Path entryFile(String key) {
+        return new File(myDirectory, key + ENTRY_EXTENSION).toPath();
+    }
+
+    private static void appendCanonicalForm(PExp e, StringBuilder b) {
+        b.append(e.getClass().getSimpleName()).append(' ');
+        b.append(e.getTopLevelOperation());
+        if (e instanceof PSymbol) {
+            b.append(' ').append(((PSymbol) e).quantification);
+        }
+        else if (e instanceof PLambda) {
+            b.append(' ').append(((PLambda) e).getParameters());
+        }
+        b.append(" : ").append(e.getType());
+        if (e.getTypeValue() != null) {
+            b.append(" / ").append(e.getTypeValue());
+        }
+
+        b.append('(');
+        for (PExp sub : e.getSubExpressions()) {
+            appendCanonicalForm(sub, b);
+            b.append(',');
+        }
+        b.append(')');
+    }
+
+    private static String hash(String s) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException nsae) {
+            //Every Java platform is required to support SHA-256
+            throw new RuntimeException(nsae);
+        }
+
+        byte[] bytes = digest.digest(s.getBytes(UTF8));
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte by : bytes) {
+            hex.append(Character.forDigit((by >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(by & 0xF, 16));
+        }
+
+        return hex.toString();
+    }
+
+    /**
+     * <p>A cached result for a single VC.</p>
+     */
+    public static class Entry {
+
+        private static final String PROVED_PREFIX = "+";
+
+        private final String myOutcome;
+        private final boolean myProvedFlag;
+        private final String myProofTrace;
+
+        private Entry(String firstLine, String proofTrace) {
+            myProvedFlag = firstLine.startsWith(PROVED_PREFIX);
+            myOutcome =
+                    myProvedFlag ? firstLine.substring(PROVED_PREFIX.length())
+                            : firstLine;
+            myProofTrace = proofTrace;
+        }
+
+        /**
+         * <p>The prover-specific verdict, as passed to
+         * {@link ProofCache#store}.</p>
+         */
+        public String getOutcome() {
+            return myOutcome;
+        }
+
+        public boolean isProved() {
+            return myProvedFlag;
+        }
+
+        public String getProofTrace() {
+            return myProofTrace;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * PExpInterner.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.rewriteprover.absyn;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>A hash-consing table for {@link PSymbol PSymbol}s. Interning an
+ * expression returns a canonical copy of it in which every
+ * <code>PSymbol</code> node is shared with every other interned expression
+ * containing an identical node, so that an expression repeated across many
+ * conjuncts is only stored once and compares equal by reference.</p>
+ *
+ * <p>Two nodes are identical for this purpose if they have the same name,
+ * quantification and display type, the very same type and type value
+ * objects, and identical arguments. This is stricter than
+ * {@link PSymbol#equals(Object) PSymbol.equals()}, which ignores types and
+ * quantification, so interning never changes the meaning of an
+ * expression.</p>
+ *
+ * <p>Other kinds of <code>PExp</code> are returned unchanged, along with
+ * everything beneath them. An interner is not thread-safe and holds on to
+ * every node it has seen, so it should live no longer than the proof that
+ * uses it.</p>
+ */
+public class PExpInterner {
+
+    private final Map<Node, PSymbol> myNodes = new HashMap<Node, PSymbol>();
+
+    public PExp intern(PExp e) {
+        PExp result = e;
+
+        if (e instanceof PSymbol) {
+            result = intern((PSymbol) e);
+        }
+
+        return result;
+    }
+
+    public PSymbol intern(PSymbol s) {
+        PSymbol result = s;
+
+        boolean argumentChanged = false;
+        List<PExp> newArguments = new ArrayList<PExp>(s.arguments.size());
+        for (PExp argument : s.arguments) {
+            PExp interned = intern(argument);
+            argumentChanged |= (interned != argument);
+            newArguments.add(interned);
+        }
+
+        if (argumentChanged) {
+            result = s.setArguments(newArguments);
+        }
+
+        Node key = new Node(result);
+        PSymbol canonical = myNodes.get(key);
+        if (canonical == null) {
+            myNodes.put(key, result);
+        }
+        else {
+            result = canonical;
+        }
+
+        return result;
+    }
+
+    public int size() {
+        return myNodes.size();
+    }
+
+    /**
+     * <p>Wraps a <code>PSymbol</code> whose arguments have already been
+     * interned, so that they can be compared by reference.</p>
+     */
+    private static class Node {
+
+        private final PSymbol mySymbol;
+        private final int myHashCode;
+
+        public Node(PSymbol s) {
+            mySymbol = s;
+
+            int hash = s.valueHash;
+            hash = (31 * hash) + s.quantification.ordinal();
+            hash = (31 * hash) + System.identityHashCode(s.getType());
+            myHashCode = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return myHashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            boolean result = (o instanceof Node);
+
+            if (result) {
+                PSymbol other = ((Node) o).mySymbol;
+
+                result =
+                        (other.valueHash == mySymbol.valueHash)
+                                && other.getType() == mySymbol.getType()
+                                && other.getTypeValue() == mySymbol
+                                        .getTypeValue()
+                                && other.quantification == mySymbol.quantification
+                                && other.displayType == mySymbol.displayType
+                                && other.leftPrint.equals(mySymbol.leftPrint)
+                                && other.rightPrint.equals(mySymbol.rightPrint)
+                                && other.arguments.size() == mySymbol.arguments
+                                        .size();
+
+                int argIndex = 0;
+                while (result && argIndex < mySymbol.arguments.size()) {
+                    result =
+                            (other.arguments.get(argIndex) == mySymbol.arguments
+                                    .get(argIndex));
+                    argIndex++;
+                }
+            }
+
+            return result;
+        }
+    }
+}
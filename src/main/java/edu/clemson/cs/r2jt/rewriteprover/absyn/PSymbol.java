@@ -171,7 +171,6 @@ public class PSymbol extends PExp {
     private MTType myPreApplicationType;
 
     private int myArgumentsSize;
-    private final PExp[] myScratchSpace;
 
     public PSymbol(MTType type, MTType typeValue, String leftPrint,
             String rightPrint, Collection<PExp> arguments,
@@ -198,7 +197,6 @@ public class PSymbol extends PExp {
 
         this.arguments = arguments;
         myArgumentsSize = arguments.size();
-        myScratchSpace = new PExp[myArgumentsSize];
 
         this.quantification = quantification;
         this.leftPrint = leftPrint;
@@ -359,9 +357,10 @@ public class PSymbol extends PExp {
     }
 
     public boolean equals(Object o) {
-        boolean retval = (o instanceof PSymbol);
+        //Interned subexpressions are frequently shared outright
+        boolean retval = (o == this);
 
-        if (retval) {
+        if (!retval && o instanceof PSymbol) {
             PSymbol oAsPSymbol = (PSymbol) o;
 
             retval =
@@ -434,6 +433,9 @@ public class PSymbol extends PExp {
                 }
             }
 
+            //A local buffer rather than a field, so that shared expressions
+            //may be substituted into from several threads at once
+            PExp[] newArguments = new PExp[myArgumentsSize];
             boolean argumentChanged = false;
             int argIndex = 0;
             Iterator<PExp> argumentsIter = arguments.iterator();
@@ -442,9 +444,9 @@ public class PSymbol extends PExp {
             while (argumentsIter.hasNext()) {
                 argument = argumentsIter.next();
 
-                myScratchSpace[argIndex] = argument.substitute(substitutions);
+                newArguments[argIndex] = argument.substitute(substitutions);
 
-                argumentChanged |= (myScratchSpace[argIndex] != argument);
+                argumentChanged |= (newArguments[argIndex] != argument);
                 argIndex++;
             }
 
@@ -452,9 +454,14 @@ public class PSymbol extends PExp {
                 retval =
                         new PSymbol(myType, myTypeValue, newLeft, newRight,
                                 new ArrayBackedImmutableList<PExp>(
-                                        myScratchSpace), newQuantification,
+                                        newArguments), newQuantification,
                                 displayType);
             }
+            else if (newLeft.equals(leftPrint) && newRight.equals(rightPrint)
+                    && newQuantification == quantification) {
+                //Nothing changed, so keep sharing this node
+                retval = this;
+            }
             else {
                 // changed this to handle case where func name changes but args don't -- mike
                 retval =
@@ -498,6 +505,7 @@ public class PSymbol extends PExp {
     public PExp flipQuantifiers() {
         PExp retval;
 
+        PExp[] newArguments = new PExp[myArgumentsSize];
         boolean argumentChanged = false;
         int argIndex = 0;
         Iterator<PExp> argumentsIter = arguments.iterator();
@@ -506,16 +514,16 @@ public class PSymbol extends PExp {
         while (argumentsIter.hasNext()) {
             argument = argumentsIter.next();
 
-            myScratchSpace[argIndex] = argument.flipQuantifiers();
+            newArguments[argIndex] = argument.flipQuantifiers();
 
-            argumentChanged |= (myScratchSpace[argIndex] != argument);
+            argumentChanged |= (newArguments[argIndex] != argument);
             argIndex++;
         }
 
         if (argumentChanged) {
             retval =
                     new PSymbol(myType, myTypeValue, leftPrint, rightPrint,
-                            Arrays.asList(myScratchSpace), quantification
+                            Arrays.asList(newArguments), quantification
                                     .flipped(), displayType);
         }
         else {
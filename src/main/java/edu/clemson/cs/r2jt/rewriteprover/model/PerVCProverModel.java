@@ -17,6 +17,7 @@ import edu.clemson.cs.r2jt.rewriteprover.iterators.DummyIterator;
 import edu.clemson.cs.r2jt.rewriteprover.iterators.LazyMappingIterator;
 import edu.clemson.cs.r2jt.rewriteprover.absyn.BindingException;
 import edu.clemson.cs.r2jt.rewriteprover.absyn.PExp;
+import edu.clemson.cs.r2jt.rewriteprover.absyn.PExpInterner;
 import edu.clemson.cs.r2jt.rewriteprover.absyn.PSymbol;
 import edu.clemson.cs.r2jt.rewriteprover.absyn.PSymbol.Quantification;
 import edu.clemson.cs.r2jt.rewriteprover.immutableadts.ImmutableList;
@@ -145,6 +146,13 @@ public final class PerVCProverModel {
      * <p>A link to the global theorem library.</p>
      */
     private final ImmutableList<Theorem> myTheoremLibrary;
+
+    /**
+     * <p>Shares identical subexpressions among the local theorems and
+     * consequents of this model, which otherwise accumulate many copies of
+     * the same terms over a long proof search.</p>
+     */
+    private final PExpInterner myInterner = new PExpInterner();
     /**
      * <p>A list of listeners to be contacted when the model changes. Note that
      * the behavior of change listening is modified by
@@ -519,7 +527,7 @@ public final class PerVCProverModel {
     }
 
     public Consequent addConsequent(PExp c) {
-        Consequent result = new Consequent(c);
+        Consequent result = new Consequent(myInterner.intern(c));
 
         insertConsequent(result, myConsequents.size());
 
@@ -610,7 +618,7 @@ public final class PerVCProverModel {
         PExp newRootExp =
                 s.root.exp.withSiteAltered(s.pathIterator(), newValue);
 
-        s.conjunct.setExpression(newRootExp);
+        s.conjunct.setExpression(myInterner.intern(newRootExp));
 
         insertConjunct(s.conjunct, index);
 
@@ -627,7 +635,7 @@ public final class PerVCProverModel {
 
         int index = removeConjunct(c);
 
-        c.setExpression(newValue);
+        c.setExpression(myInterner.intern(newValue));
 
         insertConjunct(c, index);
 
@@ -656,7 +664,8 @@ public final class PerVCProverModel {
             boolean tryingToProveThis, int index) {
 
         LocalTheorem theorem =
-                new LocalTheorem(assertion, j, tryingToProveThis);
+                new LocalTheorem(myInterner.intern(assertion), j,
+                        tryingToProveThis);
 
         insertLocalTheorem(theorem, index);
 
@@ -32,12 +32,14 @@ import edu.clemson.cs.r2jt.typeandpopulate.query.EntryTypeQuery;
 import edu.clemson.cs.r2jt.typeandpopulate.query.OperationQuery;
 import edu.clemson.cs.r2jt.typeandpopulate.query.UnqualifiedNameQuery;
 import edu.clemson.cs.r2jt.misc.SourceErrorException;
+import edu.clemson.cs.r2jt.misc.TemplateRegistry;
 import org.stringtemplate.v4.*;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileWriter;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.Writer;
 import java.util.*;
 import java.util.regex.Pattern;
 
@@ -787,8 +789,8 @@ public abstract class AbstractTranslator extends TreeWalkerStackVisitor {
             if (definingFacility.getEnhancements().size() >= 2
                     && comesFromEnhancement) {
                 result =
-                        "((" + oe.getSourceModuleIdentifier() + ")"
-                                + definingFacility.getName() + ")";
+                        getEnhancedQualifier(definingFacility, oe
+                                .getSourceModuleIdentifier().toString());
             }
             else {
                 result = definingFacility.getName();
@@ -805,6 +807,22 @@ public abstract class AbstractTranslator extends TreeWalkerStackVisitor {
         return result;
     }
 
+    /**
+     * <p>Returns the qualifier for a call to an operation that
+     * <code>facility</code> gets from one of its (two or more)
+     * enhancements.</p>
+     *
+     * @param facility    The enhanced facility.
+     * @param enhancement The name of the enhancement defining the operation.
+     *
+     * @return By default, <code>facility</code> cast to
+     *         <code>enhancement</code>.
+     */
+    protected String getEnhancedQualifier(FacilityEntry facility,
+            String enhancement) {
+        return "((" + enhancement + ")" + facility.getName() + ")";
+    }
+
     //-------------------------------------------------------------------
     //   Error handling
     //-------------------------------------------------------------------
@@ -935,14 +953,44 @@ public abstract class AbstractTranslator extends TreeWalkerStackVisitor {
     }
 
     public void outputCode(File outputFile) {
-        if (!myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)
-                || myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)) {
-            outputAsFile(outputFile.getAbsolutePath(), myActiveTemplates.peek()
-                    .render());
-            // System.out.println(myActiveTemplates.peek().render());
+        outputCode(outputFile, null);
+    }
+
+    /**
+     * <p>Outputs the translated code, also handing it to
+     * <code>archive</code> (if there is one) so that it can be compiled
+     * straight from memory. When running for the web, the archive's copy is
+     * the only one, since the Java file would just be deleted again.</p>
+     *
+     * @param outputFile The translated RESOLVE file.
+     * @param archive The <code>Archiver</code> building a jar, or
+     *                <code>null</code>.
+     */
+    public void outputCode(File outputFile, Archiver archive) {
+        ST module = myActiveTemplates.peek();
+        boolean web =
+                myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB);
+        boolean toFile =
+                !web
+                        || (archive == null && myInstanceEnvironment.flags
+                                .isFlagSet(Archiver.FLAG_ARCHIVE));
+
+        //Only render to a string when something needs one; the file alone
+        //is streamed
+        String code = null;
+        if (archive != null || !toFile) {
+            code = module.render();
         }
-        else {
-            outputToReport(myActiveTemplates.peek().render());
+
+        if (archive != null) {
+            archive.addTranslatedSource(outputFile, code);
+        }
+
+        if (toFile) {
+            outputAsFile(outputFile.getAbsolutePath(), module, code);
+        }
+        else if (archive == null) {
+            outputToReport(code);
         }
     }
 
@@ -953,26 +1001,72 @@ public abstract class AbstractTranslator extends TreeWalkerStackVisitor {
     }
 
     // TODO : Redo this and make it appropriate for the abstract translator.
-    private void outputAsFile(String fileName, String fileContents) {
+    private void outputAsFile(String fileName, ST module, String code) {
         String[] temp = fileName.split("\\.");
         fileName = temp[0] + ".java";
-        if (fileContents != null && fileContents.length() > 0) {
+        JavaFileWriter out = new JavaFileWriter(new File(fileName));
+        try {
             try {
-                File outputJavaFile = new File(fileName);
-                if (!outputJavaFile.exists()) {
-                    outputJavaFile.createNewFile();
+                if (code != null) {
+                    out.write(code);
+                }
+                else {
+                    TemplateRegistry.write(module, out);
                 }
-                byte buf[] = fileContents.getBytes();
-                OutputStream outFile = new FileOutputStream(outputJavaFile);
-                outFile.write(buf);
-                outFile.close();
             }
-            catch (IOException ex) {
-                //FIX: Something should be done with this exception - ya think?
+            finally {
+                out.close();
             }
         }
-        else {
+        catch (IOException ex) {
+            //FIX: Something should be done with this exception - ya think?
+        }
+
+        if (!out.isOpened()) {
             System.out.println("No translation available for " + fileName);
         }
     }
+
+    /**
+     * <p>A <code>Writer</code> onto a Java file that only creates (or
+     * replaces) the file once there is something to write, so that an empty
+     * module leaves it alone.</p>
+     */
+    private static class JavaFileWriter extends Writer {
+
+        private final File myFile;
+        private Writer myOut = null;
+
+        public JavaFileWriter(File file) {
+            myFile = file;
+        }
+
+        public boolean isOpened() {
+            return myOut != null;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (len > 0) {
+                if (myOut == null) {
+                    myOut = new BufferedWriter(new FileWriter(myFile));
+                }
+                myOut.write(cbuf, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (myOut != null) {
+                myOut.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (myOut != null) {
+                myOut.close();
+            }
+        }
+    }
 }
\ No newline at end of file
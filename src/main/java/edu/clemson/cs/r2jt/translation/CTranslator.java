@@ -24,6 +24,7 @@ import edu.clemson.cs.r2jt.typeandpopulate.programtypes.PTType;
 import edu.clemson.cs.r2jt.typeandpopulate.query.NameAndEntryTypeQuery;
 import edu.clemson.cs.r2jt.misc.Flag;
 import edu.clemson.cs.r2jt.misc.FlagDependencies;
+import edu.clemson.cs.r2jt.misc.TemplateRegistry;
 import org.stringtemplate.v4.*;
 
 import java.util.LinkedList;
@@ -70,7 +71,7 @@ public class CTranslator extends AbstractTranslator {
 
     public CTranslator(CompileEnvironment env, ScopeRepository repo) {
         super(env, repo);
-        myGroup = new STGroupFile("templates/C.stg");
+        myGroup = TemplateRegistry.getGroup("templates/C.stg");
     }
 
     //-------------------------------------------------------------------
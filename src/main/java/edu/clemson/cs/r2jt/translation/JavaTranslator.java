@@ -12,7 +12,9 @@
  */
 package edu.clemson.cs.r2jt.translation;
 
+import edu.clemson.cs.r2jt.ResolveCompiler;
 import edu.clemson.cs.r2jt.absyn.*;
+import edu.clemson.cs.r2jt.archiving.Archiver;
 import edu.clemson.cs.r2jt.data.PosSymbol;
 import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.misc.SourceErrorException;
@@ -28,6 +30,7 @@ import edu.clemson.cs.r2jt.typeandpopulate.query.NameQuery;
 import edu.clemson.cs.r2jt.typeandpopulate.query.UnqualifiedNameQuery;
 import edu.clemson.cs.r2jt.misc.Flag;
 import edu.clemson.cs.r2jt.misc.FlagDependencies;
+import edu.clemson.cs.r2jt.misc.TemplateRegistry;
 import org.stringtemplate.v4.*;
 
 import java.io.File;
@@ -60,6 +63,20 @@ public class JavaTranslator extends AbstractTranslator {
             new Flag(FLAG_SECTION_NAME, "javaTranslateClean",
                     FLAG_DESC_TRANSLATE_CLEAN);
 
+    private static final String FLAG_DESC_STATIC_ENHANCEMENTS =
+            "Build facilities with several enhancements without "
+                    + "java.lang.reflect.Proxy.";
+
+    /**
+     * <p>Tells the compiler to instantiate each enhancement of a facility
+     * with two or more enhancements directly on top of the base realization,
+     * and to call enhancement operations on those instances, rather than
+     * dispatching through a chain of <code>createProxy</code> wrappers.</p>
+     */
+    public static final Flag JAVA_FLAG_STATIC_ENHANCEMENTS =
+            new Flag(FLAG_SECTION_NAME, "javaStaticEnhancements",
+                    FLAG_DESC_STATIC_ENHANCEMENTS, Flag.Type.HIDDEN);
+
     /**
      * <p>A mapping between the <code>ModuleArgumentItem</code>s
      * representing the actual arguments of a <code>FacilityDec</code> and
@@ -82,9 +99,24 @@ public class JavaTranslator extends AbstractTranslator {
     private ModuleParameterization myCurrentEnhancement = null;
     private ST myBaseInstantiation, myBaseEnhancement;
 
+    /**
+     * <p>The declarations of the enhancement instances of the
+     * <code>FacilityDec</code> being walked, when its enhancements are
+     * instantiated statically.</p>
+     */
+    private List<ST> myEnhancementVariables = new LinkedList<ST>();
+
+    /**
+     * <p>The translation manifest key of the module being translated,
+     * worked out once, before it is translated, and recorded with its Java
+     * file.</p>
+     */
+    private String myManifestKey = null;
+    private boolean myManifestKeyKnown = false;
+
     public JavaTranslator(CompileEnvironment env, ScopeRepository repo) {
         super(env, repo);
-        myGroup = new STGroupFile("templates/Java.stg");
+        myGroup = TemplateRegistry.getGroup("templates/Java.stg");
     }
 
     //-------------------------------------------------------------------
@@ -355,7 +387,9 @@ public class JavaTranslator extends AbstractTranslator {
         List<ModuleParameterization> enhancements =
                 myCurrentFacilityEntry.getEnhancements();
 
-        boolean proxied = myCurrentFacilityEntry.getEnhancements().size() > 1;
+        boolean proxied =
+                myCurrentFacilityEntry.getEnhancements().size() > 1
+                        && !isStaticallyEnhanced();
 
         if (myBaseInstantiation.getAttribute("arguments") instanceof ST) {
             singleArg = ((ST) myBaseInstantiation.getAttribute("arguments"));
@@ -393,6 +427,21 @@ public class JavaTranslator extends AbstractTranslator {
 
         String curName = node.getBodyName().getName();
 
+        // Each enhancement wraps the base facility itself and gets its own
+        // variable, which calls to its operations are then qualified with.
+        if (isStaticallyEnhanced()) {
+            String facilityName = myCurrentFacilityEntry.getName();
+            String enhancementName = node.getName().getName();
+            ST init =
+                    myActiveTemplates.pop().add("arguments", facilityName);
+
+            myEnhancementVariables.add(myGroup.getInstanceOf("var_decl").add(
+                    "type", enhancementName).add("name",
+                    getEnhancementVariableName(facilityName, enhancementName))
+                    .add("init", init));
+            return;
+        }
+
         List<ModuleParameterization> enhancements =
                 myCurrentFacilityEntry.getEnhancements();
 
@@ -454,6 +503,11 @@ public class JavaTranslator extends AbstractTranslator {
 
         myActiveTemplates.peek().add("variables", facilityVariable);
 
+        for (ST enhancementVariable : myEnhancementVariables) {
+            myActiveTemplates.peek().add("variables", enhancementVariable);
+        }
+        myEnhancementVariables.clear();
+
         myDynamicImports.add(myGroup.getInstanceOf("include").add(
                 "directories", pathPieces).render());
     }
@@ -1023,7 +1077,9 @@ public class JavaTranslator extends AbstractTranslator {
                     || ext.equals("fa")) {
                 String javaName = modifyString(inFile, "\\." + ext, ".java");
                 File javaFile = new File(javaName);
-                if (!javaFile.exists() || sourceNewerThan(file, javaFile)) {
+                if (!javaFile.exists()
+                        || !getManifest().isUpToDate(file,
+                                getManifestKey(file))) {
                     translate = true;
                 }
                 else if (myInstanceEnvironment.flags
@@ -1041,15 +1097,81 @@ public class JavaTranslator extends AbstractTranslator {
         return matcher.replaceAll(replace);
     }
 
-    private boolean sourceNewerThan(File a, File b) {
-        if (a.lastModified() > b.lastModified()) {
-            return true;
+    @Override
+    public void outputCode(File outputFile, Archiver archive) {
+        super.outputCode(outputFile, archive);
+
+        // Only a Java file left on disk can be reused by a later compile
+        if (!myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)) {
+            getManifest().recordTranslation(outputFile,
+                    getManifestKey(outputFile));
         }
-        return false;
+    }
+
+    /**
+     * <p>Writes out the translation manifest keys recorded by every
+     * translator of the given environment. Called once a compile ends.</p>
+     */
+    public static void saveManifest(CompileEnvironment env) {
+        TranslationManifest.save(env);
+    }
+
+    private TranslationManifest getManifest() {
+        return TranslationManifest.fromEnvironment(myInstanceEnvironment);
+    }
+
+    private String getManifestKey(File file) {
+        if (!myManifestKeyKnown) {
+            myManifestKey =
+                    getManifest().getKey(myInstanceEnvironment, file,
+                            getTranslationSettings());
+            myManifestKeyKnown = true;
+        }
+        return myManifestKey;
+    }
+
+    /**
+     * <p>Returns the settings, besides the templates, that change the Java
+     * code translated from a module.</p>
+     */
+    private String getTranslationSettings() {
+        return "javaStaticEnhancements="
+                + myInstanceEnvironment.flags
+                        .isFlagSet(JAVA_FLAG_STATIC_ENHANCEMENTS);
+    }
+
+    @Override
+    protected String getEnhancedQualifier(FacilityEntry facility,
+            String enhancement) {
+        if (myInstanceEnvironment.flags
+                .isFlagSet(JAVA_FLAG_STATIC_ENHANCEMENTS)) {
+            return getEnhancementVariableName(facility.getName(), enhancement);
+        }
+        return super.getEnhancedQualifier(facility, enhancement);
+    }
+
+    /**
+     * <p>Checks if the enhancements of the <code>FacilityDec</code> being
+     * walked are to be instantiated statically.</p>
+     *
+     * @return True if the facility has two or more enhancements and
+     *         <code>JAVA_FLAG_STATIC_ENHANCEMENTS</code> is set.
+     */
+    private boolean isStaticallyEnhanced() {
+        return myCurrentFacilityEntry.getEnhancements().size() > 1
+                && myInstanceEnvironment.flags
+                        .isFlagSet(JAVA_FLAG_STATIC_ENHANCEMENTS);
+    }
+
+    private String getEnhancementVariableName(String facility,
+            String enhancement) {
+        return facility + "_" + enhancement;
     }
 
     public static final void setUpFlags() {
         FlagDependencies.addRequires(JAVA_FLAG_TRANSLATE_CLEAN,
                 JAVA_FLAG_TRANSLATE);
+        FlagDependencies.addRequires(JAVA_FLAG_STATIC_ENHANCEMENTS,
+                JAVA_FLAG_TRANSLATE);
     }
 }
\ No newline at end of file
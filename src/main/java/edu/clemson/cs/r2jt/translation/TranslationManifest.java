@@ -0,0 +1,399 @@
+/**
+ * TranslationManifest.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.translation;
+
+import edu.clemson.cs.r2jt.Main;
+import edu.clemson.cs.r2jt.absyn.AbstractParameterizedModuleDec;
+import edu.clemson.cs.r2jt.absyn.ConceptBodyModuleDec;
+import edu.clemson.cs.r2jt.absyn.EnhancementBodyModuleDec;
+import edu.clemson.cs.r2jt.absyn.ModuleDec;
+import edu.clemson.cs.r2jt.absyn.ModuleParameterDec;
+import edu.clemson.cs.r2jt.data.ModuleID;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * <p>Records, for every module translated to Java, a key covering
+ * everything its Java file was translated from: the module's own source,
+ * the parts of each module it imports that translation can see, the
+ * translator's templates and the flags that change its output. A Java file
+ * whose recorded key still matches is up to date, even if it is older than
+ * its source, and one whose key no longer matches is stale, even if it is
+ * newer.</p>
+ *
+ * <p>What translation can see of an imported realization is just its
+ * parameter list (its constructor), so edits to the body of a realization
+ * do not make the facilities that use it stale. Of any other module it
+ * sees the whole source. Either way, the key of an import also covers its
+ * own imports, so a change to a concept reaches every module that depends
+ * on it through an enhancement or a realization.</p>
+ *
+ * <p>The manifest is a properties file in the workspace's main directory,
+ * shared by every translator of a compile environment. Keys are collected
+ * in memory as modules are translated and written out together when the
+ * compile ends.</p>
+ */
+final class TranslationManifest {
+
+    /**
+     * <p>Bump this whenever the key or manifest format changes.</p>
+     */
+    private static final int MANIFEST_FORMAT_VERSION = 1;
+
+    private static final String MANIFEST_NAME = "translation.manifest";
+
+    private static final String[] TEMPLATES =
+            { "templates/Java.stg", "templates/Base.stg" };
+
+    // Manifests must not refer to their environments, or they would keep
+    // them from being collected
+    private static final Map<CompileEnvironment, TranslationManifest> OPEN =
+            new WeakHashMap<CompileEnvironment, TranslationManifest>();
+
+    private final File myFile;
+
+    /**
+     * <p>The entries on disk when the manifest was last loaded or saved.</p>
+     */
+    private Properties myEntries;
+
+    /**
+     * <p>The keys recorded since then, by source, with <code>null</code> for
+     * a source whose key could not be worked out.</p>
+     */
+    private final Map<String, String> myChanges =
+            new HashMap<String, String>();
+
+    /**
+     * <p>What translation can see of each module, by module, worked out at
+     * most once per compile environment.</p>
+     */
+    private final Map<ModuleID, String> myInterfaceHashes =
+            new HashMap<ModuleID, String>();
+
+    private String myTemplateHash;
+
+    private TranslationManifest(CompileEnvironment environment) {
+        myFile = new File(environment.getMainDir(), MANIFEST_NAME);
+        myEntries = load(myFile);
+    }
+
+    /**
+     * <p>Returns the manifest of the given environment's workspace.</p>
+     */
+    static TranslationManifest fromEnvironment(CompileEnvironment environment) {
+        synchronized (OPEN) {
+            TranslationManifest result = OPEN.get(environment);
+            if (result == null) {
+                result = new TranslationManifest(environment);
+                OPEN.put(environment, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * <p>Returns <code>true</code> if the Java file last translated from
+     * <code>source</code> was translated under <code>key</code>, as
+     * returned by {@link #getKey}.</p>
+     */
+    synchronized boolean isUpToDate(File source, String key) {
+        String recorded = getEntry(source.getAbsolutePath());
+        return recorded != null && recorded.equals(key);
+    }
+
+    /**
+     * <p>Records that <code>source</code> has just been translated under
+     * <code>key</code>, as returned by {@link #getKey} before it was
+     * translated. Nothing is written until {@link #save} is called.</p>
+     */
+    synchronized void recordTranslation(File source, String key) {
+        myChanges.put(source.getAbsolutePath(), key);
+    }
+
+    /**
+     * <p>Writes the translations recorded in the given environment since
+     * the last save, if any, into its workspace's manifest. They are merged
+     * with the entries currently on disk, so environments sharing a
+     * workspace only replace each other's entries for the modules they both
+     * translated. A failure to write the manifest never fails the compile;
+     * the modules are simply translated again next time.</p>
+     */
+    static void save(CompileEnvironment environment) {
+        TranslationManifest manifest;
+        synchronized (OPEN) {
+            manifest = OPEN.get(environment);
+        }
+
+        if (manifest != null) {
+            manifest.save();
+        }
+    }
+
+    private synchronized void save() {
+        if (myChanges.isEmpty()) {
+            return;
+        }
+
+        //Every manifest of the process is saved in turn, so that none of
+        //them can miss the entries another one has just written
+        synchronized (TranslationManifest.class) {
+            Properties merged = load(myFile);
+            for (Map.Entry<String, String> e : myChanges.entrySet()) {
+                if (e.getValue() == null) {
+                    merged.remove(e.getKey());
+                }
+                else {
+                    merged.setProperty(e.getKey(), e.getValue());
+                }
+            }
+
+            OutputStream out = null;
+            try {
+                File temp =
+                        File.createTempFile(MANIFEST_NAME, ".tmp", myFile
+                                .getAbsoluteFile().getParentFile());
+                out = new BufferedOutputStream(new FileOutputStream(temp));
+                merged.store(out, "RESOLVE to Java translation manifest");
+                out.close();
+                out = null;
+
+                if (!temp.renameTo(myFile)) {
+                    myFile.delete();
+                    if (!temp.renameTo(myFile)) {
+                        temp.delete();
+                    }
+                }
+            }
+            catch (IOException ioe) {
+                //Not being able to write the manifest only costs time
+            }
+            finally {
+                closeQuietly(out);
+            }
+
+            myEntries = merged;
+            myChanges.clear();
+        }
+    }
+
+    /**
+     * <p>Returns the key of everything the Java file for
+     * <code>source</code> would be translated from now, under the given
+     * translator settings. The module's own source, and that of the modules
+     * it imports, is taken to be the source the compiler parsed them from,
+     * not what is on disk now.</p>
+     *
+     * <p>Returns <code>null</code>, which is never up to date, if any of
+     * that cannot be known: a module that was not parsed from a file, or an
+     * import that failed to compile or whose own imports are still being
+     * compiled.</p>
+     */
+    synchronized String getKey(CompileEnvironment environment, File source,
+            String settings) {
+        ModuleID id = environment.getModuleID(source);
+        byte[] contents = environment.getSourceDigest(source);
+        if (id == null || contents == null) {
+            return null;
+        }
+
+        MessageDigest digest = newDigest();
+        digest.update(("" + MANIFEST_FORMAT_VERSION + '\n' + Main.VERSION
+                + '\n' + getTemplateHash() + '\n' + settings + '\n')
+                .getBytes());
+        digest.update(contents);
+
+        String imports = getImportsHash(environment, id, new ImportWalk());
+        if (imports == null) {
+            return null;
+        }
+        digest.update(imports.getBytes());
+
+        return toHex(digest.digest());
+    }
+
+    private String getEntry(String source) {
+        if (myChanges.containsKey(source)) {
+            return myChanges.get(source);
+        }
+        return myEntries.getProperty(source);
+    }
+
+    // Hashes what translation can see of each of id's imports, in a fixed
+    // order.  Returns null if one of them cannot be known.
+    private String getImportsHash(CompileEnvironment environment,
+            ModuleID id, ImportWalk walk) {
+        List<ModuleID> imports = environment.getImports(id);
+        if (imports == null) {
+            return null;
+        }
+
+        SortedMap<String, String> hashes = new TreeMap<String, String>();
+        for (ModuleID i : imports) {
+            String hash = getInterfaceHash(environment, i, walk);
+            if (hash == null) {
+                return null;
+            }
+            hashes.put(i.toString(), hash);
+        }
+
+        MessageDigest digest = newDigest();
+        for (Map.Entry<String, String> e : hashes.entrySet()) {
+            digest.update((e.getKey() + '=' + e.getValue() + '\n').getBytes());
+        }
+        return toHex(digest.digest());
+    }
+
+    private String getInterfaceHash(CompileEnvironment environment,
+            ModuleID id, ImportWalk walk) {
+        String result = myInterfaceHashes.get(id);
+        if (result != null) {
+            return result;
+        }
+        if (!walk.myInProgress.add(id)) {
+            //A cycle in the imports is cut here, its other modules still
+            //cover the module itself
+            walk.myCuts++;
+            return "";
+        }
+
+        if (environment.contains(id)
+                && environment.compileCompleted(environment.getFile(id))) {
+            int cutsBefore = walk.myCuts;
+            ModuleDec dec = environment.getModuleDec(id);
+            byte[] contents =
+                    environment.getSourceDigest(environment.getFile(id));
+            String imports = getImportsHash(environment, id, walk);
+
+            if (dec != null && contents != null && imports != null) {
+                MessageDigest digest = newDigest();
+                if (dec instanceof ConceptBodyModuleDec
+                        || dec instanceof EnhancementBodyModuleDec) {
+                    AbstractParameterizedModuleDec realization =
+                            (AbstractParameterizedModuleDec) dec;
+                    for (ModuleParameterDec p : realization.getParameters()) {
+                        digest.update(p.asString(0, 0).getBytes());
+                    }
+                }
+                else {
+                    digest.update(contents);
+                }
+                digest.update(imports.getBytes());
+
+                result = toHex(digest.digest());
+
+                //A hash that a cycle was cut from depends on where the walk
+                //entered the cycle, so only one worked out in full is kept
+                if (walk.myCuts == cutsBefore) {
+                    myInterfaceHashes.put(id, result);
+                }
+            }
+        }
+
+        walk.myInProgress.remove(id);
+        return result;
+    }
+
+    private String getTemplateHash() {
+        if (myTemplateHash == null) {
+            MessageDigest digest = newDigest();
+            for (String template : TEMPLATES) {
+                InputStream in =
+                        TranslationManifest.class.getClassLoader()
+                                .getResourceAsStream(template);
+                if (in == null) {
+                    continue;
+                }
+                try {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+                catch (IOException ioe) {
+                    digest.update(("unreadable " + template).getBytes());
+                }
+                finally {
+                    closeQuietly(in);
+                }
+            }
+            myTemplateHash = toHex(digest.digest());
+        }
+        return myTemplateHash;
+    }
+
+    // An unreadable manifest just makes everything stale
+    private static Properties load(File file) {
+        Properties result = new Properties();
+        if (file.isFile()) {
+            InputStream in = null;
+            try {
+                in = new BufferedInputStream(new FileInputStream(file));
+                result.load(in);
+            }
+            catch (IOException ioe) {
+                result.clear();
+            }
+            finally {
+                closeQuietly(in);
+            }
+        }
+        return result;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException nsae) {
+            //Every Java platform is required to support SHA-1
+            throw new RuntimeException(nsae);
+        }
+    }
+
+    /**
+     * <p>The state of one walk over the imports of a module.</p>
+     */
+    private static class ImportWalk {
+
+        private final Set<ModuleID> myInProgress = new HashSet<ModuleID>();
+
+        /**
+         * <p>How many times a cycle has been cut so far.</p>
+         */
+        private int myCuts;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte by : bytes) {
+            hex.append(Character.forDigit((by >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(by & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static void closeQuietly(Closeable c) {
+        if (c != null) {
+            try {
+                c.close();
+            }
+            catch (IOException ioe) {}
+        }
+    }
+}
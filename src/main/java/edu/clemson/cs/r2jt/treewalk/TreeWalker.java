@@ -14,6 +14,8 @@ package edu.clemson.cs.r2jt.treewalk;
 
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import edu.clemson.cs.r2jt.absyn.*;
 import edu.clemson.cs.r2jt.collections.List;
@@ -25,6 +27,21 @@ import edu.clemson.cs.r2jt.collections.List;
  */
 public class TreeWalker {
 
+    /**
+     * <p>The visitor methods found for each visitor class and node class, so
+     * that reflective lookups happen once per pairing rather than once per
+     * node. Shared by all walkers.</p>
+     */
+    private static final ConcurrentMap<DispatchKey, Method[]> VISITOR_METHODS =
+            new ConcurrentHashMap<DispatchKey, Method[]>();
+
+    /**
+     * <p>The <code>walk</code> methods found for each visitor class and node
+     * class, outermost superclass first.</p>
+     */
+    private static final ConcurrentMap<DispatchKey, Method[]> WALK_METHODS =
+            new ConcurrentHashMap<DispatchKey, Method[]>();
+
     private TreeWalkerVisitor myVisitor;
 
     /**
@@ -75,21 +92,89 @@ public class TreeWalker {
 
     private void invokeVisitorMethods(String prefix,
             ResolveConceptualElement... e) {
-        boolean pre = prefix.equals("pre"), post = prefix.equals("post"), mid =
-                prefix.equals("mid"), list = (e[0] instanceof VirtualListNode);
+        boolean pre = prefix.equals("pre"), post = prefix.equals("post"), list =
+                (e[0] instanceof VirtualListNode);
 
         // Invoke generic visitor methods (preAny, postAny)
         if (pre) {
             myVisitor.preAny(e[0]);
         }
 
+        Method[] visitorMethods = getVisitorMethods(prefix, e[0]);
+        if (visitorMethods.length > 0) {
+            ResolveConceptualElement[] parent = e;
+            if (list) {
+                parent = Arrays.copyOf(e, e.length);
+                parent[0] = ((VirtualListNode) e[0]).getParent();
+            }
+
+            for (Method visitorMethod : visitorMethods) {
+                try {
+                    // Invoking the visitor method now!!!
+                    visitorMethod.invoke(this.myVisitor, (Object[]) parent);
+                }
+                catch (IllegalAccessException iae) {
+                    throw new RuntimeException(iae);
+                }
+                catch (InvocationTargetException ite) {
+                    Throwable iteCause = ite.getCause();
+
+                    if (iteCause instanceof RuntimeException) {
+                        throw (RuntimeException) iteCause;
+                    }
+
+                    throw new RuntimeException(iteCause);
+                }
+            }
+        }
+
+        if (post) {
+            myVisitor.postAny(e[0]);
+        }
+    }
+
+    /**
+     * Returns the visitor methods to call, in order, for the given prefix
+     * and node, looking them up only the first time a visitor class meets
+     * a node class.
+     */
+    private Method[] getVisitorMethods(String prefix,
+            ResolveConceptualElement e) {
+        DispatchKey key;
+        if (e instanceof VirtualListNode) {
+            VirtualListNode listNode = (VirtualListNode) e;
+            key =
+                    new DispatchKey(myVisitor.getClass(), prefix, listNode
+                            .getParent().getClass(), listNode.getNodeName(),
+                            listNode.getListType());
+        }
+        else {
+            key =
+                    new DispatchKey(myVisitor.getClass(), prefix, e
+                            .getClass(), null, null);
+        }
+
+        Method[] result = VISITOR_METHODS.get(key);
+        if (result == null) {
+            result = findVisitorMethods(prefix, e);
+            VISITOR_METHODS.putIfAbsent(key, result);
+        }
+
+        return result;
+    }
+
+    private Method[] findVisitorMethods(String prefix,
+            ResolveConceptualElement e) {
+        boolean pre = prefix.equals("pre"), post = prefix.equals("post"), list =
+                (e instanceof VirtualListNode);
+
         // Get the heirarchy of classes from which this node inherits
         // e.g., [ConceptModuleDec, ModuleDec, Dec, ResolveConceptualElement]
-        Class<?> elementClass = e[0].getClass();
+        Class<?> elementClass = e.getClass();
         ArrayList<Class<?>> classHierarchy = new ArrayList<Class<?>>();
 
         if (list) {
-            classHierarchy.add(((VirtualListNode) e[0]).getParent().getClass());
+            classHierarchy.add(((VirtualListNode) e).getParent().getClass());
         }
         else if (pre || post) {
             while (elementClass != ResolveConceptualElement.class) {
@@ -107,6 +192,7 @@ public class TreeWalker {
         }
 
         // Iterate over the class hierarchy
+        ArrayList<Method> methods = new ArrayList<Method>();
         Iterator<Class<?>> iter = classHierarchy.iterator();
         while (iter.hasNext()) {
             Class<?> currentClass = iter.next();
@@ -117,34 +203,26 @@ public class TreeWalker {
                 className = currentClass.getSimpleName();
             }
             else {
-                className = ((VirtualListNode) e[0]).getNodeName();
+                className = ((VirtualListNode) e).getNodeName();
             }
             methodName = prefix + className;
 
-            ResolveConceptualElement[] parent = Arrays.copyOf(e, e.length);
             // Get parent and child types if this is a list node
             Class<?> paramType = ResolveConceptualElement.class;
             if (list) {
-                paramType = ((VirtualListNode) e[0]).getListType();
-                parent[0] = ((VirtualListNode) e[0]).getParent();
+                paramType = ((VirtualListNode) e).getListType();
             }
 
             // Now try to obtain the proper visitor method
             try {
-                Method visitorMethod;
                 if (pre || post) { // pre and post methods
-                    visitorMethod =
-                            this.myVisitor.getClass().getMethod(methodName,
-                                    currentClass);
+                    methods.add(this.myVisitor.getClass().getMethod(
+                            methodName, currentClass));
                 }
                 else { // mid methods
-                    visitorMethod =
-                            this.myVisitor.getClass().getMethod(methodName,
-                                    currentClass, paramType, paramType);
+                    methods.add(this.myVisitor.getClass().getMethod(
+                            methodName, currentClass, paramType, paramType));
                 }
-
-                // Invoking the visitor method now!!!
-                visitorMethod.invoke(this.myVisitor, (Object[]) parent);
             }
             catch (NoSuchMethodException nsme) {
                 //This is fine if we're dealing with a virtual node, otherwise
@@ -153,10 +231,33 @@ public class TreeWalker {
                     throw new RuntimeException(nsme);
                 }
             }
+        }
+
+        return methods.toArray(new Method[methods.size()]);
+    }
+
+    private boolean walkOverride(ResolveConceptualElement e) {
+        DispatchKey key =
+                new DispatchKey(myVisitor.getClass(), "walk", e.getClass(),
+                        null, null);
+        Method[] walkMethods = WALK_METHODS.get(key);
+        if (walkMethods == null) {
+            walkMethods = findWalkMethods(e);
+            WALK_METHODS.putIfAbsent(key, walkMethods);
+        }
+
+        boolean foundOverride = false;
+        for (int i = 0; i < walkMethods.length && !foundOverride; i++) {
+            try {
+                foundOverride =
+                        ((Boolean) walkMethods[i].invoke(this.myVisitor, e));
+            }
             catch (IllegalAccessException iae) {
+                //Shouldn't be possible
                 throw new RuntimeException(iae);
             }
             catch (InvocationTargetException ite) {
+                //An exception was thrown inside the corresponding walk method
                 Throwable iteCause = ite.getCause();
 
                 if (iteCause instanceof RuntimeException) {
@@ -167,12 +268,10 @@ public class TreeWalker {
             }
         }
 
-        if (post) {
-            myVisitor.postAny(e[0]);
-        }
+        return foundOverride;
     }
 
-    private boolean walkOverride(ResolveConceptualElement e) {
+    private Method[] findWalkMethods(ResolveConceptualElement e) {
         Class<?> elementClass = e.getClass();
         ArrayList<Class<?>> classHierarchy = new ArrayList<Class<?>>();
         while (elementClass != ResolveConceptualElement.class) {
@@ -180,41 +279,81 @@ public class TreeWalker {
             elementClass = elementClass.getSuperclass();
         }
 
-        boolean foundOverride = false;
+        ArrayList<Method> methods = new ArrayList<Method>();
         Iterator<Class<?>> iter = classHierarchy.iterator();
-        while (iter.hasNext() && !foundOverride) {
+        while (iter.hasNext()) {
             Class<?> c = iter.next();
 
             if (!c.equals(VirtualListNode.class)) {
                 String walkMethodName = "walk" + c.getSimpleName();
                 try {
-                    Method walkMethod =
-                            this.myVisitor.getClass().getMethod(walkMethodName,
-                                    c);
-                    foundOverride =
-                            ((Boolean) walkMethod.invoke(this.myVisitor, e));
+                    methods.add(this.myVisitor.getClass().getMethod(
+                            walkMethodName, c));
                 }
                 catch (NoSuchMethodException nsme) {
                     //Shouldn't be possible
                     throw new RuntimeException(nsme);
                 }
-                catch (IllegalAccessException iae) {
-                    //Shouldn't be possible
-                    throw new RuntimeException(iae);
-                }
-                catch (InvocationTargetException ite) {
-                    //An exception was thrown inside the corresponding walk method
-                    Throwable iteCause = ite.getCause();
+            }
+        }
 
-                    if (iteCause instanceof RuntimeException) {
-                        throw (RuntimeException) iteCause;
-                    }
+        return methods.toArray(new Method[methods.size()]);
+    }
 
-                    throw new RuntimeException(iteCause);
-                }
-            }
+    /**
+     * <p>Identifies one entry of a dispatch table: a visitor class, a kind
+     * of visitor method, and the node being visited. List nodes are told
+     * apart by their parent's class, name and element type, since those
+     * determine which visitor methods apply to them.</p>
+     */
+    private static class DispatchKey {
+
+        private final Class<?> myVisitorClass;
+        private final String myPrefix;
+        private final Class<?> myNodeClass;
+        private final String myListName;
+        private final Class<?> myListType;
+        private final int myHashCode;
+
+        public DispatchKey(Class<?> visitorClass, String prefix,
+                Class<?> nodeClass, String listName, Class<?> listType) {
+            myVisitorClass = visitorClass;
+            myPrefix = prefix;
+            myNodeClass = nodeClass;
+            myListName = listName;
+            myListType = listType;
+
+            int hash = visitorClass.hashCode();
+            hash = 31 * hash + prefix.hashCode();
+            hash = 31 * hash + nodeClass.hashCode();
+            hash = 31 * hash + (listName == null ? 0 : listName.hashCode());
+            hash = 31 * hash + (listType == null ? 0 : listType.hashCode());
+            myHashCode = hash;
         }
 
-        return foundOverride;
+        @Override
+        public int hashCode() {
+            return myHashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            boolean result = (o instanceof DispatchKey);
+
+            if (result) {
+                DispatchKey oAsKey = (DispatchKey) o;
+                result =
+                        myHashCode == oAsKey.myHashCode
+                                && myVisitorClass == oAsKey.myVisitorClass
+                                && myNodeClass == oAsKey.myNodeClass
+                                && myListType == oAsKey.myListType
+                                && myPrefix.equals(oAsKey.myPrefix)
+                                && (myListName == null
+                                        ? oAsKey.myListName == null
+                                        : myListName.equals(oAsKey.myListName));
+            }
+
+            return result;
+        }
     }
 }
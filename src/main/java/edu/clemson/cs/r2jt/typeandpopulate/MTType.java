@@ -15,11 +15,11 @@ package edu.clemson.cs.r2jt.typeandpopulate;
 import java.util.List;
 import java.util.Map;
 
+import edu.clemson.cs.r2jt.typereasoning.PerThreadReasoningResources;
 import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <p>The parent class of all mathematical types.</p>
@@ -28,14 +28,14 @@ public abstract class MTType {
 
     protected final TypeGraph myTypeGraph;
 
-    private final Set<Object> myKnownAlphaEquivalencies = new HashSet<Object>();
-    private final Map<MTType, Map<String, MTType>> myKnownSyntacticSubtypeBindings =
-            new HashMap<MTType, Map<String, MTType>>();
-
     /**
-     * <p>Allows us to detect if we're getting into an equals-loop.</p>
+     * <p>These caches may be filled by several threads reasoning with the
+     * same type graph, so they are concurrent.</p>
      */
-    private int myEqualsDepth = 0;
+    private final Set<Object> myKnownAlphaEquivalencies =
+            Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+    private final Map<MTType, Map<String, MTType>> myKnownSyntacticSubtypeBindings =
+            new ConcurrentHashMap<MTType, Map<String, MTType>>();
 
     public MTType(TypeGraph typeGraph) {
         myTypeGraph = typeGraph;
@@ -83,7 +83,11 @@ public abstract class MTType {
      */
     @Override
     public final boolean equals(Object o) {
-        myEqualsDepth++;
+        //Several threads may compare the same types at once, so everything
+        //that changes while comparing belongs to the calling thread
+        PerThreadReasoningResources resources =
+                myTypeGraph.getThreadResources();
+        boolean firstLevel = resources.typesInEquals.add(this);
 
         boolean result;
 
@@ -94,15 +98,14 @@ public abstract class MTType {
             //We only check our cache if we're at the first level of equals
             //comparison to avoid an infinite recursive loop
             result =
-                    (myEqualsDepth == 1)
+                    firstLevel && o != null
                             && myKnownAlphaEquivalencies.contains(o);
 
             if (!result) {
                 try {
                     //All 'equals' logic should be put into AlphaEquivalencyChecker! 
                     //Don't override equals!
-                    AlphaEquivalencyChecker alphaEq =
-                            myTypeGraph.threadResources.alphaChecker;
+                    AlphaEquivalencyChecker alphaEq = resources.alphaChecker;
                     alphaEq.reset();
 
                     alphaEq.visit(this, (MTType) o);
@@ -115,13 +118,15 @@ public abstract class MTType {
 
                 //We only cache our answer at the first level to avoid an 
                 //infinite equals loop
-                if ((myEqualsDepth == 1) && result) {
+                if (firstLevel && result) {
                     myKnownAlphaEquivalencies.add(o);
                 }
             }
         }
 
-        myEqualsDepth--;
+        if (firstLevel) {
+            resources.typesInEquals.remove(this);
+        }
 
         return result;
     }
@@ -129,12 +134,9 @@ public abstract class MTType {
     public final Map<String, MTType> getSyntacticSubtypeBindings(MTType o)
             throws NoSolutionException {
 
-        Map<String, MTType> result;
+        Map<String, MTType> result = myKnownSyntacticSubtypeBindings.get(o);
 
-        if (myKnownSyntacticSubtypeBindings.containsKey(o)) {
-            result = myKnownSyntacticSubtypeBindings.get(o);
-        }
-        else {
+        if (result == null) {
             SyntacticSubtypeChecker checker =
                     new SyntacticSubtypeChecker(myTypeGraph);
 
@@ -13,6 +13,10 @@
 package edu.clemson.cs.r2jt.typereasoning;
 
 import edu.clemson.cs.r2jt.typeandpopulate.AlphaEquivalencyChecker;
+import edu.clemson.cs.r2jt.typeandpopulate.MTType;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 /**
  * <p>Type reasoning is used extensively by the prover, where things are done
@@ -26,4 +30,12 @@ public class PerThreadReasoningResources {
 
     public final AlphaEquivalencyChecker alphaChecker =
             new AlphaEquivalencyChecker();
+
+    /**
+     * <p>The types whose <code>equals()</code> is running on this thread, so
+     * that a type can tell whether it is being compared from inside its own
+     * comparison.</p>
+     */
+    public final Set<MTType> typesInEquals =
+            Collections.newSetFromMap(new IdentityHashMap<MTType, Boolean>());
 }
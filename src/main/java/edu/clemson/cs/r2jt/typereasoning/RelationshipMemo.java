@@ -0,0 +1,204 @@
+/**
+ * RelationshipMemo.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.typereasoning;
+
+import edu.clemson.cs.r2jt.typeandpopulate.MTType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A record of answers to a yes-or-no question about an ordered pair of
+ * types, such as "is the first a subtype of the second?". Positive answers
+ * are kept for as long as the memo is, just as they always were. Negative
+ * answers are kept too, but only up to the memo's capacity; when there are
+ * too many, the least recently used negative answer is forgotten.</p>
+ *
+ * <p>A positive answer stays true as relationships are added to the
+ * {@link TypeGraph TypeGraph}, but a negative one may not, so the graph calls
+ * {@link #forgetNegatives() forgetNegatives()} whenever it grows.</p>
+ *
+ * <p>A memo may be used by several threads reasoning with the same graph.
+ * Positive answers are shared by all of them. Each thread remembers its own
+ * negative answers, so that keeping them in least recently used order never
+ * makes one thread wait for another.</p>
+ */
+public class RelationshipMemo {
+
+    private final int myCapacity;
+
+    private final Map<Pair, Boolean> myPositives =
+            new ConcurrentHashMap<Pair, Boolean>();
+
+    private final ThreadLocal<Negatives> myNegatives;
+
+    /**
+     * <p>Bumped by {@link #forgetNegatives()}. A thread whose negatives were
+     * recorded under an older generation drops them before its next
+     * lookup.</p>
+     */
+    private volatile int myGeneration = 0;
+
+    private final AtomicLong myHits = new AtomicLong();
+
+    private final AtomicLong myMisses = new AtomicLong();
+
+    public RelationshipMemo(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+
+        myCapacity = capacity;
+        myNegatives = new ThreadLocal<Negatives>() {
+
+            @Override
+            protected Negatives initialValue() {
+                return new Negatives(myCapacity);
+            }
+        };
+    }
+
+    /**
+     * <p>Returns the recorded answer for <code>(t1, t2)</code>, or
+     * <code>null</code> if there is none.</p>
+     */
+    public Boolean get(MTType t1, MTType t2) {
+        Pair p = new Pair(t1, t2);
+        Boolean result = myPositives.get(p);
+
+        if (result == null) {
+            result = getNegatives().get(p);
+        }
+
+        if (result == null) {
+            myMisses.incrementAndGet();
+        }
+        else {
+            myHits.incrementAndGet();
+        }
+
+        return result;
+    }
+
+    public void put(MTType t1, MTType t2, boolean answer) {
+        Pair p = new Pair(t1, t2);
+
+        if (answer) {
+            getNegatives().remove(p);
+            myPositives.put(p, Boolean.TRUE);
+        }
+        else {
+            getNegatives().put(p, Boolean.FALSE);
+        }
+    }
+
+    public void forgetNegatives() {
+        myGeneration++;
+    }
+
+    /**
+     * <p>Returns the number of positive answers plus the number of negative
+     * answers remembered by the calling thread.</p>
+     */
+    public int size() {
+        return myPositives.size() + getNegatives().size();
+    }
+
+    /**
+     * <p>Returns the most negative answers this memo will remember at
+     * once on each thread. There is no limit on positive answers.</p>
+     */
+    public int getCapacity() {
+        return myCapacity;
+    }
+
+    public long getHits() {
+        return myHits.get();
+    }
+
+    public long getMisses() {
+        return myMisses.get();
+    }
+
+    @Override
+    public String toString() {
+        return myHits + " hits, " + myMisses + " misses, "
+                + myPositives.size() + " positive and "
+                + getNegatives().size() + "/" + myCapacity
+                + " negative entries";
+    }
+
+    private Negatives getNegatives() {
+        Negatives result = myNegatives.get();
+
+        int generation = myGeneration;
+        if (result.myGeneration != generation) {
+            result.clear();
+            result.myGeneration = generation;
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>One thread's negative answers, least recently used first.</p>
+     */
+    private static class Negatives extends LinkedHashMap<Pair, Boolean> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int myCapacity;
+
+        private int myGeneration = 0;
+
+        public Negatives(int capacity) {
+            super(16, 0.75f, true);
+            myCapacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Pair, Boolean> eldest) {
+            return size() > myCapacity;
+        }
+    }
+
+    private static class Pair {
+
+        private final MTType myType1, myType2;
+
+        public Pair(MTType t1, MTType t2) {
+            myType1 = t1;
+            myType2 = t2;
+        }
+
+        @Override
+        public int hashCode() {
+            return myType1.hashCode() * 31 + myType2.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            boolean result = o instanceof Pair;
+
+            if (result) {
+                Pair oAsPair = (Pair) o;
+                result =
+                        myType1.equals(oAsPair.myType1)
+                                && myType2.equals(oAsPair.myType2);
+            }
+
+            return result;
+        }
+    }
+}
@@ -49,9 +49,19 @@ public class TypeGraph {
      * reasoning. This really doesn't belong here, but anything that's reasoning
      * about types should already have access to a type graph, and only one type
      * graph is created per thread, so this is a convenient place to put it.</p>
+     *
+     * <p>A graph may still be shared by threads that are each working on part
+     * of the same compile, such as the congruence closure prover's workers, so
+     * each of them gets its own set.</p>
      */
-    public final PerThreadReasoningResources threadResources =
-            new PerThreadReasoningResources();
+    private final ThreadLocal<PerThreadReasoningResources> myThreadResources =
+            new ThreadLocal<PerThreadReasoningResources>() {
+
+                @Override
+                protected PerThreadReasoningResources initialValue() {
+                    return new PerThreadReasoningResources();
+                }
+            };
 
     private final ExpValuePathStrategy EXP_VALUE_PATH =
             new ExpValuePathStrategy();
@@ -101,16 +111,29 @@ public class TypeGraph {
 
     private final HashMap<MTType, TypeNode> myTypeNodes;
 
-    private final Set<EstablishedRelationship> myEstablishedSubtypes =
-            new HashSet<EstablishedRelationship>();
+    /**
+     * <p>The number of negative answers remembered on each thread by each of
+     * {@link #getSubtypeMemo()} and {@link #getElementMemo()}.</p>
+     */
+    public static final int MEMO_CAPACITY = 4096;
+
+    private final RelationshipMemo myEstablishedSubtypes =
+            new RelationshipMemo(MEMO_CAPACITY);
 
-    private final Set<EstablishedRelationship> myEstablishedElements =
-            new HashSet<EstablishedRelationship>();
+    private final RelationshipMemo myEstablishedElements =
+            new RelationshipMemo(MEMO_CAPACITY);
 
     public TypeGraph() {
         this.myTypeNodes = new HashMap<MTType, TypeNode>();
     }
 
+    /**
+     * <p>Returns the reasoning resources of the calling thread.</p>
+     */
+    public PerThreadReasoningResources getThreadResources() {
+        return myThreadResources.get();
+    }
+
     private Map<MTType, Map<String, MTType>> getSyntacticSubtypesWithRelationships(
             MTType query) {
 
@@ -145,16 +168,20 @@ public class TypeGraph {
      *         <code>supertype</code>.
      */
     public boolean isSubtype(MTType subtype, MTType supertype) {
-        boolean result;
+        if (supertype == ENTITY || supertype == CLS) {
+            return true;
+        }
 
-        EstablishedRelationship r =
-                new EstablishedRelationship(subtype, supertype);
+        Boolean known = myEstablishedSubtypes.get(subtype, supertype);
+        if (known != null) {
+            return known;
+        }
+
+        boolean result;
 
         try {
             result =
-                    supertype == ENTITY || supertype == CLS
-                            || myEstablishedSubtypes.contains(r)
-                            || subtype.equals(supertype)
+                    subtype.equals(supertype)
                             || subtype.isSyntacticSubtypeOf(supertype);
         }
         catch (NoSuchElementException nsee) {
@@ -176,9 +203,7 @@ public class TypeGraph {
             }
         }
 
-        if (result) {
-            myEstablishedSubtypes.add(r);
-        }
+        myEstablishedSubtypes.put(subtype, supertype, result);
 
         return result;
     }
@@ -240,17 +265,18 @@ public class TypeGraph {
      *         definitely in <code>expected</code>.
      */
     public boolean isKnownToBeIn(MTType value, MTType expected) {
-        boolean result;
+        Boolean known = myEstablishedElements.get(value, expected);
+        if (known != null) {
+            return known;
+        }
 
-        EstablishedRelationship r =
-                new EstablishedRelationship(value, expected);
+        boolean result;
 
         //If the type of the given value is a subtype of the expected type, then
         //its value must necessarily be in the expected type.  Note we can't
         //reason about the type of CLS, so we exclude it
         result =
-                myEstablishedElements.contains(r) || (value != CLS)
-                        && (value != ENTITY)
+                (value != CLS) && (value != ENTITY)
                         && isSubtype(value.getType(), expected);
 
         if (!result) {
@@ -263,13 +289,33 @@ public class TypeGraph {
             }
         }
 
-        if (result) {
-            myEstablishedElements.add(r);
-        }
+        myEstablishedElements.put(value, expected, result);
 
         return result;
     }
 
+    /**
+     * <p>
+     * Returns the memo of answers given by
+     * {@link #isSubtype(MTType, MTType) isSubtype()}, so that its hit and
+     * miss counts can be reported.
+     * </p>
+     */
+    public RelationshipMemo getSubtypeMemo() {
+        return myEstablishedSubtypes;
+    }
+
+    /**
+     * <p>
+     * Returns the memo of answers given by
+     * {@link #isKnownToBeIn(MTType, MTType) isKnownToBeIn()}, so that its hit
+     * and miss counts can be reported.
+     * </p>
+     */
+    public RelationshipMemo getElementMemo() {
+        return myEstablishedElements;
+    }
+
     /**
      * <p>
      * Returns the conditions under which <code>value</code> could be
@@ -693,6 +739,10 @@ public class TypeGraph {
         //We'd like to force the presence of the destination node
         getTypeNode(destinationCanonicalResult.canonicalType);
 
+        //Anything we failed to show before might follow from the new edge
+        myEstablishedSubtypes.forgetNegatives();
+        myEstablishedElements.forgetNegatives();
+
         Populator.emitDebug("Added relationship to type node ["
                 + sourceCanonicalResult.canonicalType + "]: " + relationship);
     }
@@ -1177,33 +1227,4 @@ public class TypeGraph {
                     new MTCartesian.Element(arguments.get(1)));
         }
     }
-
-    private static class EstablishedRelationship {
-
-        private final MTType myType1, myType2;
-
-        public EstablishedRelationship(MTType t1, MTType t2) {
-            myType1 = t1;
-            myType2 = t2;
-        }
-
-        @Override
-        public int hashCode() {
-            return myType1.hashCode() * 31 + myType2.hashCode();
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            boolean result = o instanceof EstablishedRelationship;
-
-            if (result) {
-                EstablishedRelationship oAsER = (EstablishedRelationship) o;
-                result =
-                        myType1.equals(oAsER.myType1)
-                                && myType2.equals(oAsER.myType2);
-            }
-
-            return result;
-        }
-    }
 }
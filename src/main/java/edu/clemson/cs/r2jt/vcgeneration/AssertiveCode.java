@@ -24,6 +24,12 @@ import java.util.*;
 
 /**
  * TODO: Write a description of this module
+ *
+ * <p>Copying an <code>AssertiveCode</code>, as the if rule does for each
+ * branch, takes constant time. The copy shares the verification statements
+ * with the original through a <code>PersistentStack</code>, and an object
+ * that is shared is cloned only when a branch takes it off the stack. The
+ * free variables are copied the first time either side needs them.</p>
  */
 public class AssertiveCode {
 
@@ -41,6 +47,12 @@ public class AssertiveCode {
      */
     private List<Exp> myFreeVars;
 
+    /**
+     * <p>True if <code>myFreeVars</code> and the variables in it may also
+     * belong to another <code>AssertiveCode</code>.</p>
+     */
+    private boolean myFreeVarsShared;
+
     /**
      * <p>The <code>ResolveConceptualElement</code> that created
      * this object.</p>
@@ -48,10 +60,18 @@ public class AssertiveCode {
     private ResolveConceptualElement myInstantiatingElement;
 
     /**
-     * <p>List of verification statements that we
-     * need to apply proof rules to./p>
+     * <p>Stack of verification statements that we
+     * need to apply proof rules to.</p>
+     */
+    private PersistentStack<VerificationStatement> myVerificationStmts;
+
+    /**
+     * <p>The number of statements at the top of
+     * <code>myVerificationStmts</code> that were added since this object
+     * was last copied, and so belong to no other
+     * <code>AssertiveCode</code>.</p>
      */
-    private List<VerificationStatement> myVerificationStmtList;
+    private int myOwnedStmtCount;
 
     // ===========================================================
     // Constructors
@@ -63,20 +83,26 @@ public class AssertiveCode {
                 new ConfirmStmt(null, Exp.getTrueVarExp(env.getTypeGraph()),
                         true);
         myFreeVars = new ArrayList<Exp>();
-        myVerificationStmtList = new ArrayList<VerificationStatement>();
+        myFreeVarsShared = false;
+        myVerificationStmts = PersistentStack.empty();
+        myOwnedStmtCount = 0;
         myInstantiatingElement = instantiatingElement;
     }
 
     public AssertiveCode(AssertiveCode old) {
-        myConfirm = old.myConfirm.clone();
-        myFreeVars = new ArrayList<Exp>();
-        for (Exp exp : old.myFreeVars) {
-            myFreeVars.add(Exp.copy(exp));
-        }
-        myVerificationStmtList = new ArrayList<VerificationStatement>();
-        for (VerificationStatement stmt : old.myVerificationStmtList) {
-            myVerificationStmtList.add((VerificationStatement) stmt.clone());
-        }
+        // The final confirm is never modified in place; getFinalConfirm
+        // hands out copies and setFinalConfirm replaces it.
+        myConfirm = old.myConfirm;
+
+        // From now on, neither side owns the free variables or the
+        // statements currently on the stack.
+        myFreeVars = old.myFreeVars;
+        myFreeVarsShared = true;
+        old.myFreeVarsShared = true;
+        myVerificationStmts = old.myVerificationStmts;
+        myOwnedStmtCount = 0;
+        old.myOwnedStmtCount = 0;
+
         myInstantiatingElement = old.myInstantiatingElement;
     }
 
@@ -105,7 +131,7 @@ public class AssertiveCode {
      * <p>Add the changing clause to the list</p>
      */
     public void addChange(List<VariableExp> changeList) {
-        myVerificationStmtList.add(new VerificationStatement(
+        pushVerificationStmt(new VerificationStatement(
                 VerificationStatement.CHANGE, changeList));
     }
 
@@ -115,7 +141,7 @@ public class AssertiveCode {
      * @param stmt The corresponding <code>Statement</code>.
      */
     public void addCode(Statement stmt) {
-        myVerificationStmtList.add(new VerificationStatement(
+        pushVerificationStmt(new VerificationStatement(
                 VerificationStatement.CODE, stmt));
     }
 
@@ -143,6 +169,8 @@ public class AssertiveCode {
      * @param var The name of the variable.
      */
     public void addFreeVar(Exp var) {
+        ownFreeVars();
+
         // Check our list looking for var
         boolean inFreeVar = false;
         for (Exp freeVar : myFreeVars) {
@@ -184,7 +212,7 @@ public class AssertiveCode {
         Iterator<VarDec> i = variableList.iterator();
         while (i.hasNext()) {
             VarDec dec = i.next();
-            myVerificationStmtList.add(new VerificationStatement(
+            pushVerificationStmt(new VerificationStatement(
                     VerificationStatement.VARIABLE, dec.clone()));
         }
     }
@@ -216,9 +244,14 @@ public class AssertiveCode {
         }
         retStr = retStr.concat("\n");
 
-        // Verification Statements
-        Iterator<VerificationStatement> vsIt =
-                myVerificationStmtList.iterator();
+        // Verification Statements (the stack lists the latest first)
+        List<VerificationStatement> stmts =
+                new ArrayList<VerificationStatement>();
+        for (VerificationStatement stmt : myVerificationStmts) {
+            stmts.add(stmt);
+        }
+        Collections.reverse(stmts);
+        Iterator<VerificationStatement> vsIt = stmts.iterator();
         while (vsIt.hasNext()) {
             VerificationStatement current = vsIt.next();
 
@@ -291,6 +324,9 @@ public class AssertiveCode {
      * @return The free variable in <code>VarExp</code> form.
      */
     public Exp getFreeVar(PosSymbol name, boolean isGlobal) {
+        // The caller may modify the variable we return
+        ownFreeVars();
+
         Exp exp = null;
         for (Exp v : myFreeVars) {
             // Global free variables
@@ -321,11 +357,25 @@ public class AssertiveCode {
      * @return <code>VerificationStatement</code> from the list
      */
     public VerificationStatement getLastAssertion() {
-        if (!myVerificationStmtList.isEmpty())
-            return myVerificationStmtList
-                    .remove(myVerificationStmtList.size() - 1);
-        else
-            return new VerificationStatement();
+        VerificationStatement stmt;
+        if (!myVerificationStmts.isEmpty()) {
+            stmt = myVerificationStmts.peek();
+            myVerificationStmts = myVerificationStmts.pop();
+
+            // The caller may modify the statement, so one that another
+            // branch can still see must be copied first.
+            if (myOwnedStmtCount > 0) {
+                myOwnedStmtCount--;
+            }
+            else {
+                stmt = (VerificationStatement) stmt.clone();
+            }
+        }
+        else {
+            stmt = new VerificationStatement();
+        }
+
+        return stmt;
     }
 
     /**
@@ -334,7 +384,7 @@ public class AssertiveCode {
      * @return Boolean
      */
     public boolean hasAnotherAssertion() {
-        return (!myVerificationStmtList.isEmpty());
+        return (!myVerificationStmts.isEmpty());
     }
 
     /**
@@ -350,4 +400,34 @@ public class AssertiveCode {
                     new ConfirmStmt(confirm.getLocation(), confirm, simplify);
         }
     }
+
+    // ===========================================================
+    // Private Methods
+    // ===========================================================
+
+    /**
+     * <p>Makes sure no other <code>AssertiveCode</code> can see our free
+     * variables, copying them if necessary.</p>
+     */
+    private void ownFreeVars() {
+        if (myFreeVarsShared) {
+            List<Exp> freeVars = new ArrayList<Exp>();
+            for (Exp exp : myFreeVars) {
+                freeVars.add(Exp.copy(exp));
+            }
+            myFreeVars = freeVars;
+            myFreeVarsShared = false;
+        }
+    }
+
+    /**
+     * <p>Adds a statement to the top of the stack of verification
+     * statements.</p>
+     *
+     * @param stmt The new <code>VerificationStatement</code>.
+     */
+    private void pushVerificationStmt(VerificationStatement stmt) {
+        myVerificationStmts = myVerificationStmts.push(stmt);
+        myOwnedStmtCount++;
+    }
 }
@@ -51,11 +51,10 @@ public class OutputVCs {
     private CompileEnvironment myInstanceEnvironment;
 
     /**
-     * <p>A list that will be built up with <code>AssertiveCode</code>
-     * objects, each representing a VC or group of VCs that must be
-     * satisfied to verify a parsed program.</p>
+     * <p>The section number of the next <code>AssertiveCode</code>
+     * to be converted.</p>
      */
-    private Collection<AssertiveCode> myFinalAssertiveCode;
+    private int myNextSectionNumber;
 
     /**
      * <p>A list of final immutable VCs for this module.</p>
@@ -77,21 +76,44 @@ public class OutputVCs {
     // Constructors
     // ===========================================================
 
-    public OutputVCs(final CompileEnvironment env,
-            Collection<AssertiveCode> assertiveCode, StringBuffer steps) {
+    public OutputVCs(final CompileEnvironment env, StringBuffer steps) {
         myInstanceEnvironment = env;
-        myFinalAssertiveCode = assertiveCode;
+        myNextSectionNumber = 0;
+        myFinalImmutableVCs = new LinkedList<VC>();
         myVCDetails = new HashMap<String, List<Location>>();
         myVCSteps = steps;
-
-        // Convert to each format
-        proverVCs();
     }
 
     // ===========================================================
     // Public Methods
     // ===========================================================
 
+    /**
+     * <p>Converts the VCs of the next <code>AssertiveCode</code> into
+     * the format used by the output handler and our in house provers.
+     * Nothing refers back to the <code>AssertiveCode</code> afterwards,
+     * so the caller need not hold on to it.</p>
+     *
+     * @param batch The next <code>AssertiveCode</code> of this module.
+     *
+     * @return The immutable VCs of <code>batch</code>.
+     */
+    public List<VC> addAssertiveCode(AssertiveCode batch) {
+        // Convert to an iterable list of <code>VerificationCondition</code>
+        Iterable<VerificationCondition> vcsToProve =
+                new VCCollector(batch, myNextSectionNumber);
+        myNextSectionNumber++;
+
+        // Make the VCs immutable
+        List<VC> newVCs = new LinkedList<VC>();
+        for (VerificationCondition originalVC : vcsToProve) {
+            newVCs.add(convertToImmutableVC(originalVC));
+        }
+        myFinalImmutableVCs.addAll(newVCs);
+
+        return newVCs;
+    }
+
     /**
      * <p>Returns the list of Immutable VCs for the in house provers.</p>
      *
@@ -346,20 +368,4 @@ public class OutputVCs {
 
         return stringBuffer.toString();
     }
-
-    /**
-     * <p>This method converts all <code>AssertiveCode</code> into
-     * the format used by the output handler and our in house provers.</p>
-     */
-    private void proverVCs() {
-        // Convert to an iterable list of <code>VerificationCondition</code>
-        Iterable<VerificationCondition> vcsToProve =
-                new VCCollector(myFinalAssertiveCode);
-
-        // Make the VCs immutable
-        myFinalImmutableVCs = new LinkedList<VC>();
-        for (VerificationCondition originalVC : vcsToProve) {
-            myFinalImmutableVCs.add(convertToImmutableVC(originalVC));
-        }
-    }
 }
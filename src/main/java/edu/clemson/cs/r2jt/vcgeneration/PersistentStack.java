@@ -0,0 +1,171 @@
+/**
+ * PersistentStack.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.vcgeneration;
+
+/*
+ * Libraries
+ */
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>An immutable singly linked stack. Pushing or popping returns a new
+ * stack that shares every other element with the old one, so any number of
+ * <code>AssertiveCode</code>s can branch off the same stack in constant time
+ * and only ever pay for the elements in which they differ.</p>
+ *
+ * <p>Iteration goes from the top of the stack to the bottom.</p>
+ */
+final class PersistentStack<E> implements Iterable<E> {
+
+    // ===========================================================
+    // Global Variables
+    // ===========================================================
+
+    /**
+     * <p>The one empty stack.</p>
+     */
+    @SuppressWarnings("rawtypes")
+    private static final PersistentStack EMPTY =
+            new PersistentStack<Object>(null, null, 0);
+
+    /**
+     * <p>The top element, or <code>null</code> if this stack is empty.</p>
+     */
+    private final E myTop;
+
+    /**
+     * <p>The rest of the stack, or <code>null</code> if this stack is
+     * empty.</p>
+     */
+    private final PersistentStack<E> myRest;
+
+    /**
+     * <p>The number of elements.</p>
+     */
+    private final int mySize;
+
+    // ===========================================================
+    // Constructors
+    // ===========================================================
+
+    private PersistentStack(E top, PersistentStack<E> rest, int size) {
+        myTop = top;
+        myRest = rest;
+        mySize = size;
+    }
+
+    // ===========================================================
+    // Public Methods
+    // ===========================================================
+
+    /**
+     * <p>Returns the empty stack.</p>
+     *
+     * @return A stack with no elements.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentStack<E> empty() {
+        return (PersistentStack<E>) EMPTY;
+    }
+
+    /**
+     * <p>Checks if this stack has no elements.</p>
+     *
+     * @return True if it is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return mySize == 0;
+    }
+
+    /**
+     * <p>Returns an iterator from the top of the stack to the bottom.</p>
+     *
+     * @return An <code>Iterator</code> that does not support removal.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            private PersistentStack<E> myCursor = PersistentStack.this;
+
+            @Override
+            public boolean hasNext() {
+                return !myCursor.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (myCursor.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+
+                E result = myCursor.myTop;
+                myCursor = myCursor.myRest;
+
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * <p>Returns the top element.</p>
+     *
+     * @return The most recently pushed element.
+     */
+    public E peek() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        return myTop;
+    }
+
+    /**
+     * <p>Returns this stack without its top element.</p>
+     *
+     * @return The stack below the top element.
+     */
+    public PersistentStack<E> pop() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        return myRest;
+    }
+
+    /**
+     * <p>Returns this stack with <code>e</code> on top.</p>
+     *
+     * @param e The new top element.
+     *
+     * @return The new stack.
+     */
+    public PersistentStack<E> push(E e) {
+        return new PersistentStack<E>(e, this, mySize + 1);
+    }
+
+    /**
+     * <p>Returns the number of elements.</p>
+     *
+     * @return The size of the stack.
+     */
+    public int size() {
+        return mySize;
+    }
+}
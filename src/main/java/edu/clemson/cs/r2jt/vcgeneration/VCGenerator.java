@@ -75,13 +75,6 @@ public class VCGenerator extends TreeWalkerVisitor {
      */
     private final Map<VarExp, FacilityFormalToActuals> myInstantiatedFacilityArgMap;
 
-    /**
-     * <p>A list that will be built up with <code>AssertiveCode</code>
-     * objects, each representing a VC or group of VCs that must be
-     * satisfied to verify a parsed program.</p>
-     */
-    private Collection<AssertiveCode> myFinalAssertiveCodeList;
-
     /**
      * <p>A stack that is used to keep track of the <code>AssertiveCode</code>
      * that we still need to apply proof rules to.</p>
@@ -117,16 +110,30 @@ public class VCGenerator extends TreeWalkerVisitor {
     private final Map<VarExp, Exp> myRepresentationCorrespondenceMap;
 
     /**
-     * <p>This object creates the different VC outputs.</p>
+     * <p>This object creates the different VC outputs. Each final
+     * <code>AssertiveCode</code> is handed to it, and converted, as soon as
+     * we are done applying proof rules to it.</p>
      */
     private OutputVCs myOutputGenerator;
 
+    /**
+     * <p>The listeners that are told about each VC as soon as it has
+     * been generated.</p>
+     */
+    private final List<VCListener> myVCListeners;
+
     /**
      * <p>This string buffer holds all the steps
      * the VC generator takes to generate VCs.</p>
      */
     private StringBuffer myVCBuffer;
 
+    /**
+     * <p>This is where the VC generator reports its steps. It renders
+     * them onto <code>myVCBuffer</code> only if they will be shown.</p>
+     */
+    private final VCTraceSink myVCTrace;
+
     // ===========================================================
     // Flag Strings
     // ===========================================================
@@ -175,7 +182,6 @@ public class VCGenerator extends TreeWalkerVisitor {
 
         // VCs + Debugging String
         myCurrentAssertiveCode = null;
-        myFinalAssertiveCodeList = new LinkedList<AssertiveCode>();
         myIncAssertiveCodeStack = new Stack<AssertiveCode>();
         myIncAssertiveCodeStackInfo = new Stack<String>();
         myInstantiatedFacilityArgMap =
@@ -183,8 +189,19 @@ public class VCGenerator extends TreeWalkerVisitor {
         myRepresentationConstraintMap = new HashMap<VarExp, Exp>();
         myRepresentationConventionsMap = new HashMap<VarExp, Exp>();
         myRepresentationCorrespondenceMap = new HashMap<VarExp, Exp>();
-        myOutputGenerator = null;
         myVCBuffer = new StringBuffer();
+        myOutputGenerator = new OutputVCs(myInstanceEnvironment, myVCBuffer);
+
+        // The steps are only ever shown in the VC file, so don't render
+        // them when the VCs go to the WebIDE instead.
+        if (myInstanceEnvironment.flags
+                .isFlagSet(ResolveCompiler.FLAG_XML_OUT)) {
+            myVCTrace = VCTraceSink.NONE;
+        }
+        else {
+            myVCTrace = VCTraceSink.toBuffer(myVCBuffer);
+        }
+        myVCListeners = new LinkedList<VCListener>();
     }
 
     // ===========================================================
@@ -198,17 +215,17 @@ public class VCGenerator extends TreeWalkerVisitor {
     @Override
     public void preConceptBodyModuleDec(ConceptBodyModuleDec dec) {
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\n=========================");
-        myVCBuffer.append(" VC Generation Details ");
-        myVCBuffer.append(" =========================\n");
-        myVCBuffer.append("\n Concept Realization Name:\t");
-        myVCBuffer.append(dec.getName().getName());
-        myVCBuffer.append("\n Concept Name:\t");
-        myVCBuffer.append(dec.getConceptName().getName());
-        myVCBuffer.append("\n");
-        myVCBuffer.append("\n====================================");
-        myVCBuffer.append("======================================\n");
-        myVCBuffer.append("\n");
+        myVCTrace.text("\n=========================");
+        myVCTrace.text(" VC Generation Details ");
+        myVCTrace.text(" =========================\n");
+        myVCTrace.text("\n Concept Realization Name:\t");
+        myVCTrace.text(dec.getName().getName());
+        myVCTrace.text("\n Concept Name:\t");
+        myVCTrace.text(dec.getConceptName().getName());
+        myVCTrace.text("\n");
+        myVCTrace.text("\n====================================");
+        myVCTrace.text("======================================\n");
+        myVCTrace.text("\n");
 
         // From the list of imports, obtain the global constraints
         // of the imported modules.
@@ -284,19 +301,19 @@ public class VCGenerator extends TreeWalkerVisitor {
     @Override
     public void preEnhancementBodyModuleDec(EnhancementBodyModuleDec dec) {
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\n=========================");
-        myVCBuffer.append(" VC Generation Details ");
-        myVCBuffer.append(" =========================\n");
-        myVCBuffer.append("\n Enhancement Realization Name:\t");
-        myVCBuffer.append(dec.getName().getName());
-        myVCBuffer.append("\n Enhancement Name:\t");
-        myVCBuffer.append(dec.getEnhancementName().getName());
-        myVCBuffer.append("\n Concept Name:\t");
-        myVCBuffer.append(dec.getConceptName().getName());
-        myVCBuffer.append("\n");
-        myVCBuffer.append("\n====================================");
-        myVCBuffer.append("======================================\n");
-        myVCBuffer.append("\n");
+        myVCTrace.text("\n=========================");
+        myVCTrace.text(" VC Generation Details ");
+        myVCTrace.text(" =========================\n");
+        myVCTrace.text("\n Enhancement Realization Name:\t");
+        myVCTrace.text(dec.getName().getName());
+        myVCTrace.text("\n Enhancement Name:\t");
+        myVCTrace.text(dec.getEnhancementName().getName());
+        myVCTrace.text("\n Concept Name:\t");
+        myVCTrace.text(dec.getConceptName().getName());
+        myVCTrace.text("\n");
+        myVCTrace.text("\n====================================");
+        myVCTrace.text("======================================\n");
+        myVCTrace.text("\n");
 
         // From the list of imports, obtain the global constraints
         // of the imported modules.
@@ -428,15 +445,15 @@ public class VCGenerator extends TreeWalkerVisitor {
     @Override
     public void preFacilityModuleDec(FacilityModuleDec dec) {
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\n=========================");
-        myVCBuffer.append(" VC Generation Details ");
-        myVCBuffer.append(" =========================\n");
-        myVCBuffer.append("\n Facility Name:\t");
-        myVCBuffer.append(dec.getName().getName());
-        myVCBuffer.append("\n");
-        myVCBuffer.append("\n====================================");
-        myVCBuffer.append("======================================\n");
-        myVCBuffer.append("\n");
+        myVCTrace.text("\n=========================");
+        myVCTrace.text(" VC Generation Details ");
+        myVCTrace.text(" =========================\n");
+        myVCTrace.text("\n Facility Name:\t");
+        myVCTrace.text(dec.getName().getName());
+        myVCTrace.text("\n");
+        myVCTrace.text("\n====================================");
+        myVCTrace.text("======================================\n");
+        myVCTrace.text("\n");
 
         // From the list of imports, obtain the global constraints
         // of the imported modules.
@@ -473,10 +490,10 @@ public class VCGenerator extends TreeWalkerVisitor {
     @Override
     public void postFacilityOperationDec(FacilityOperationDec dec) {
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\n=========================");
-        myVCBuffer.append(" Procedure: ");
-        myVCBuffer.append(dec.getName().getName());
-        myVCBuffer.append(" =========================\n");
+        myVCTrace.text("\n=========================");
+        myVCTrace.text(" Procedure: ");
+        myVCTrace.text(dec.getName().getName());
+        myVCTrace.text(" =========================\n");
 
         // The current assertive code
         myCurrentAssertiveCode = new AssertiveCode(myInstanceEnvironment, dec);
@@ -592,12 +609,7 @@ public class VCGenerator extends TreeWalkerVisitor {
 
     @Override
     public void postModuleDec(ModuleDec dec) {
-        // Create the output generator and finalize output
-        myOutputGenerator =
-                new OutputVCs(myInstanceEnvironment, myFinalAssertiveCodeList,
-                        myVCBuffer);
-
-        // Check if it is generating VCs for WebIDE or not.
+        // Finalize output. Check if it is generating VCs for WebIDE or not.
         if (myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_XML_OUT)) {
             myOutputGenerator.outputToJSON();
         }
@@ -645,10 +657,10 @@ public class VCGenerator extends TreeWalkerVisitor {
     @Override
     public void postProcedureDec(ProcedureDec dec) {
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\n=========================");
-        myVCBuffer.append(" Procedure: ");
-        myVCBuffer.append(dec.getName().getName());
-        myVCBuffer.append(" =========================\n");
+        myVCTrace.text("\n=========================");
+        myVCTrace.text(" Procedure: ");
+        myVCTrace.text(dec.getName().getName());
+        myVCTrace.text(" =========================\n");
 
         // The current assertive code
         myCurrentAssertiveCode = new AssertiveCode(myInstanceEnvironment, dec);
@@ -751,6 +763,16 @@ public class VCGenerator extends TreeWalkerVisitor {
         return myOutputGenerator.getProverOutput();
     }
 
+    /**
+     * <p>Registers a listener that is given each VC as soon as it has been
+     * generated, while the rest of the module is still being walked.</p>
+     *
+     * @param listener The listener to add.
+     */
+    public void addVCListener(VCListener listener) {
+        myVCListeners.add(listener);
+    }
+
     // ===========================================================
     // Private Methods
     // ===========================================================
@@ -907,6 +929,21 @@ public class VCGenerator extends TreeWalkerVisitor {
         return mainFileName;
     }
 
+    /**
+     * <p>Converts the VCs of a final assertive code and hands each of them
+     * to our listeners right away. The assertive code itself is not kept.</p>
+     *
+     * @param assertiveCode The current assertive code we are working on.
+     */
+    private void emitVCs(AssertiveCode assertiveCode) {
+        List<VC> vcs = myOutputGenerator.addAssertiveCode(assertiveCode);
+        for (VCListener listener : myVCListeners) {
+            for (VC vc : vcs) {
+                listener.vcGenerated(vc);
+            }
+        }
+    }
+
     /**
      * <p>This is a helper method that checks to see if the given assume expression
      * can be used to prove our confirm expression. This is done by finding the
@@ -1790,28 +1827,28 @@ public class VCGenerator extends TreeWalkerVisitor {
             // code we are working on.
             myCurrentAssertiveCode = myIncAssertiveCodeStack.pop();
 
-            myVCBuffer.append("\n***********************");
-            myVCBuffer.append("***********************\n");
+            myVCTrace.text("\n***********************");
+            myVCTrace.text("***********************\n");
 
             // Append any information that still needs to be added to our
             // Debug VC Buffer
-            myVCBuffer.append(myIncAssertiveCodeStackInfo.pop());
+            myVCTrace.text(myIncAssertiveCodeStackInfo.pop());
 
             // Apply proof rules
             applyRules();
 
-            myVCBuffer.append("\n***********************");
-            myVCBuffer.append("***********************\n");
+            myVCTrace.text("\n***********************");
+            myVCTrace.text("***********************\n");
 
-            // Add it to our list of final assertive codes
+            // Emit the VCs of our final assertive code
             ConfirmStmt confirmStmt = myCurrentAssertiveCode.getFinalConfirm();
             if (!confirmStmt.getAssertion().isLiteralTrue()) {
-                myFinalAssertiveCodeList.add(myCurrentAssertiveCode);
+                emitVCs(myCurrentAssertiveCode);
             }
             else {
                 // Only add true if it is a goal we want to show up.
                 if (!confirmStmt.getSimplify()) {
-                    myFinalAssertiveCodeList.add(myCurrentAssertiveCode);
+                    emitVCs(myCurrentAssertiveCode);
                 }
             }
 
@@ -2912,9 +2949,8 @@ public class VCGenerator extends TreeWalkerVisitor {
         if (assertion instanceof VarExp
                 && assertion.equals(myTypeGraph.getTrueVarExp())) {
             // Verbose Mode Debug Messages
-            myVCBuffer.append("\nAssume Rule Applied and Simplified: \n");
-            myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-            myVCBuffer.append("\n_____________________ \n");
+            myVCTrace.ruleApplied("Assume Rule Applied and Simplified",
+                    myCurrentAssertiveCode);
         }
         else {
             // Apply simplification for equals expressions and
@@ -2937,9 +2973,8 @@ public class VCGenerator extends TreeWalkerVisitor {
                     simplify);
 
             // Verbose Mode Debug Messages
-            myVCBuffer.append("\nAssume Rule Applied: \n");
-            myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-            myVCBuffer.append("\n_____________________ \n");
+            myVCTrace.ruleApplied("Assume Rule Applied",
+                    myCurrentAssertiveCode);
         }
     }
 
@@ -2984,9 +3019,7 @@ public class VCGenerator extends TreeWalkerVisitor {
                 .getSimplify());
 
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\nChange Rule Applied: \n");
-        myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-        myVCBuffer.append("\n_____________________ \n");
+        myVCTrace.ruleApplied("Change Rule Applied", myCurrentAssertiveCode);
     }
 
     /**
@@ -3245,9 +3278,8 @@ public class VCGenerator extends TreeWalkerVisitor {
         }
 
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\nOperation Call Rule Applied: \n");
-        myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-        myVCBuffer.append("\n_____________________ \n");
+        myVCTrace.ruleApplied("Operation Call Rule Applied",
+                myCurrentAssertiveCode);
     }
 
     /**
@@ -3300,9 +3332,8 @@ public class VCGenerator extends TreeWalkerVisitor {
         Exp assertion = stmt.getAssertion();
         if (stmt.getSimplify()) {
             // Verbose Mode Debug Messages
-            myVCBuffer.append("\nConfirm Rule Applied and Simplified: \n");
-            myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-            myVCBuffer.append("\n_____________________ \n");
+            myVCTrace.ruleApplied("Confirm Rule Applied and Simplified",
+                    myCurrentAssertiveCode);
         }
         else {
             // Obtain the current final confirm statement
@@ -3322,9 +3353,8 @@ public class VCGenerator extends TreeWalkerVisitor {
                         .getSimplify());
 
                 // Verbose Mode Debug Messages
-                myVCBuffer.append("\nConfirm Rule Applied and Simplified: \n");
-                myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-                myVCBuffer.append("\n_____________________ \n");
+                myVCTrace.ruleApplied("Confirm Rule Applied and Simplified",
+                        myCurrentAssertiveCode);
             }
             else {
                 // Create a new and expression
@@ -3336,9 +3366,8 @@ public class VCGenerator extends TreeWalkerVisitor {
                 myCurrentAssertiveCode.setFinalConfirm(newConf, false);
 
                 // Verbose Mode Debug Messages
-                myVCBuffer.append("\nConfirm Rule Applied: \n");
-                myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-                myVCBuffer.append("\n_____________________ \n");
+                myVCTrace.ruleApplied("Confirm Rule Applied",
+                        myCurrentAssertiveCode);
             }
         }
     }
@@ -3473,13 +3502,16 @@ public class VCGenerator extends TreeWalkerVisitor {
         myIncAssertiveCodeStack.push(assertiveCode);
 
         // Verbose Mode Debug Messages
-        String newString =
-                "\n========================= Type Representation Name:\t"
-                        + dec.getName().getName()
-                        + " =========================\n";
-        newString += "\nCorrespondence Rule Applied: \n";
-        newString += assertiveCode.assertionToString();
-        newString += "\n_____________________ \n";
+        String newString = "";
+        if (myVCTrace.isEnabled()) {
+            newString =
+                    "\n========================= Type Representation Name:\t"
+                            + dec.getName().getName()
+                            + " =========================\n";
+            newString +=
+                    myVCTrace.ruleText("Correspondence Rule Applied",
+                            assertiveCode);
+        }
         myIncAssertiveCodeStackInfo.push(newString);
     }
 
@@ -3823,13 +3855,16 @@ public class VCGenerator extends TreeWalkerVisitor {
             myIncAssertiveCodeStack.push(assertiveCode);
 
             // Verbose Mode Debug Messages
-            String newString =
-                    "\n========================= Facility Dec Name:\t"
-                            + dec.getName().getName()
-                            + " =========================\n";
-            newString += "\nFacility Declaration Rule Applied: \n";
-            newString += assertiveCode.assertionToString();
-            newString += "\n_____________________ \n";
+            String newString = "";
+            if (myVCTrace.isEnabled()) {
+                newString =
+                        "\n========================= Facility Dec Name:\t"
+                                + dec.getName().getName()
+                                + " =========================\n";
+                newString +=
+                        myVCTrace.ruleText("Facility Declaration Rule Applied",
+                                assertiveCode);
+            }
             myIncAssertiveCodeStackInfo.push(newString);
         }
     }
@@ -4250,9 +4285,7 @@ public class VCGenerator extends TreeWalkerVisitor {
         }
 
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\nFunction Rule Applied: \n");
-        myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-        myVCBuffer.append("\n_____________________ \n");
+        myVCTrace.ruleApplied("Function Rule Applied", myCurrentAssertiveCode);
     }
 
     /**
@@ -4566,9 +4599,7 @@ public class VCGenerator extends TreeWalkerVisitor {
                 .getSimplify());
 
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\nIf Part Rule Applied: \n");
-        myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-        myVCBuffer.append("\n_____________________ \n");
+        myVCTrace.ruleApplied("If Part Rule Applied", myCurrentAssertiveCode);
 
         // Add the negation of the if condition as the assume clause
         if (negEnsures != null) {
@@ -4671,10 +4702,8 @@ public class VCGenerator extends TreeWalkerVisitor {
         myIncAssertiveCodeStack.push(negIfAssertiveCode);
 
         // Verbose Mode Debug Messages
-        String newString = "\nNegation of If Part Rule Applied: \n";
-        newString += negIfAssertiveCode.assertionToString();
-        newString += "\n_____________________ \n";
-        myIncAssertiveCodeStackInfo.push(newString);
+        myIncAssertiveCodeStackInfo.push(myVCTrace.ruleText(
+                "Negation of If Part Rule Applied", negIfAssertiveCode));
     }
 
     /**
@@ -4915,13 +4944,16 @@ public class VCGenerator extends TreeWalkerVisitor {
         myIncAssertiveCodeStack.push(assertiveCode);
 
         // Verbose Mode Debug Messages
-        String newString =
-                "\n========================= Type Representation Name:\t"
-                        + dec.getName().getName()
-                        + " =========================\n";
-        newString += "\nInitialization Rule Applied: \n";
-        newString += assertiveCode.assertionToString();
-        newString += "\n_____________________ \n";
+        String newString = "";
+        if (myVCTrace.isEnabled()) {
+            newString =
+                    "\n========================= Type Representation Name:\t"
+                            + dec.getName().getName()
+                            + " =========================\n";
+            newString +=
+                    myVCTrace.ruleText("Initialization Rule Applied",
+                            assertiveCode);
+        }
         myIncAssertiveCodeStackInfo.push(newString);
     }
 
@@ -4946,9 +4978,7 @@ public class VCGenerator extends TreeWalkerVisitor {
         myCurrentAssertiveCode.addCode(assumeStmt);
 
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\nPresume Rule Applied: \n");
-        myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-        myVCBuffer.append("\n_____________________ \n");
+        myVCTrace.ruleApplied("Presume Rule Applied", myCurrentAssertiveCode);
     }
 
     /**
@@ -5292,9 +5322,8 @@ public class VCGenerator extends TreeWalkerVisitor {
         myCurrentAssertiveCode.setFinalConfirm(ensures, false);
 
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\nProcedure Declaration Rule Applied: \n");
-        myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-        myVCBuffer.append("\n_____________________ \n");
+        myVCTrace.ruleApplied("Procedure Declaration Rule Applied",
+                myCurrentAssertiveCode);
     }
 
     /**
@@ -5308,9 +5337,7 @@ public class VCGenerator extends TreeWalkerVisitor {
         myCurrentAssertiveCode.setFinalConfirm(conf, confirmStmt.getSimplify());
 
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\nRemember Rule Applied: \n");
-        myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-        myVCBuffer.append("\n_____________________ \n");
+        myVCTrace.ruleApplied("Remember Rule Applied", myCurrentAssertiveCode);
     }
 
     /**
@@ -5422,9 +5449,7 @@ public class VCGenerator extends TreeWalkerVisitor {
         myCurrentAssertiveCode.setFinalConfirm(conf, confirmStmt.getSimplify());
 
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\nSwap Rule Applied: \n");
-        myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-        myVCBuffer.append("\n_____________________ \n");
+        myVCTrace.ruleApplied("Swap Rule Applied", myCurrentAssertiveCode);
     }
 
     /**
@@ -5613,9 +5638,8 @@ public class VCGenerator extends TreeWalkerVisitor {
             }
 
             // Verbose Mode Debug Messages
-            myVCBuffer.append("\nVariable Declaration Rule Applied: \n");
-            myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-            myVCBuffer.append("\n_____________________ \n");
+            myVCTrace.ruleApplied("Variable Declaration Rule Applied",
+                    myCurrentAssertiveCode);
         }
         else {
             // Ty not handled.
@@ -5874,9 +5898,7 @@ public class VCGenerator extends TreeWalkerVisitor {
         myCurrentAssertiveCode.setFinalConfirm(trueVarExp, true);
 
         // Verbose Mode Debug Messages
-        myVCBuffer.append("\nWhile Rule Applied: \n");
-        myVCBuffer.append(myCurrentAssertiveCode.assertionToString());
-        myVCBuffer.append("\n_____________________ \n");
+        myVCTrace.ruleApplied("While Rule Applied", myCurrentAssertiveCode);
     }
 
 }
\ No newline at end of file
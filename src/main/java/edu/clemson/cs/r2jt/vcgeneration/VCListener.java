@@ -0,0 +1,36 @@
+/**
+ * VCListener.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.vcgeneration;
+
+/*
+ * Libraries
+ */
+import edu.clemson.cs.r2jt.rewriteprover.VC;
+
+/**
+ * <p>Receives each VC from the <code>VCGenerator</code> as soon as it has
+ * been generated, rather than waiting for the whole module to be done.</p>
+ *
+ * <p>VCs arrive in the same order, and with the same names, as they later
+ * appear in <code>VCGenerator.proverOutput()</code>. They are delivered on
+ * the thread that walks the module.</p>
+ */
+public interface VCListener {
+
+    /**
+     * <p>Called once for every VC, in order.</p>
+     *
+     * @param vc The newly generated VC.
+     */
+    void vcGenerated(VC vc);
+}
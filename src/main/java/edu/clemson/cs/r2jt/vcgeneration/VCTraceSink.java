@@ -0,0 +1,125 @@
+/**
+ * VCTraceSink.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.vcgeneration;
+
+/**
+ * <p>Receives the steps the <code>VCGenerator</code> takes to generate VCs.
+ * </p>
+ *
+ * <p>Every step is reported as an event rather than as finished text, so
+ * that the sink decides whether an <code>AssertiveCode</code> is ever
+ * rendered. Rendering one is by far the most expensive part of tracing, and
+ * {@link #NONE} never does it.</p>
+ */
+abstract class VCTraceSink {
+
+    // ===========================================================
+    // Global Variables
+    // ===========================================================
+
+    /**
+     * <p>A sink that ignores every step and allocates nothing.</p>
+     */
+    static final VCTraceSink NONE = new VCTraceSink() {
+
+        @Override
+        boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        void text(String text) {}
+
+        @Override
+        String ruleText(String ruleName, AssertiveCode assertiveCode) {
+            return "";
+        }
+
+    };
+
+    // ===========================================================
+    // Package Private Methods
+    // ===========================================================
+
+    /**
+     * <p>Returns a sink that renders every step as text onto
+     * <code>buffer</code>.</p>
+     *
+     * @param buffer The buffer that holds the steps.
+     *
+     * @return The new sink.
+     */
+    static VCTraceSink toBuffer(final StringBuffer buffer) {
+        return new VCTraceSink() {
+
+            @Override
+            boolean isEnabled() {
+                return true;
+            }
+
+            @Override
+            void text(String text) {
+                buffer.append(text);
+            }
+
+            @Override
+            String ruleText(String ruleName, AssertiveCode assertiveCode) {
+                return "\n" + ruleName + ": \n"
+                        + assertiveCode.assertionToString()
+                        + "\n_____________________ \n";
+            }
+
+        };
+    }
+
+    /**
+     * <p>Checks if this sink keeps anything at all.</p>
+     *
+     * @return True if steps are rendered, false otherwise.
+     */
+    abstract boolean isEnabled();
+
+    /**
+     * <p>Reports that a proof rule has been applied to an assertive
+     * code.</p>
+     *
+     * @param ruleName The name of the rule, e.g. "Swap Rule Applied".
+     * @param assertiveCode The assertive code after the rule.
+     */
+    final void ruleApplied(String ruleName, AssertiveCode assertiveCode) {
+        if (isEnabled()) {
+            text(ruleText(ruleName, assertiveCode));
+        }
+    }
+
+    /**
+     * <p>Renders a proof rule application without reporting it yet. This
+     * is used for assertive codes that are put aside on the stack of
+     * incomplete assertive codes.</p>
+     *
+     * @param ruleName The name of the rule, e.g. "Swap Rule Applied".
+     * @param assertiveCode The assertive code after the rule.
+     *
+     * @return The rendered step, or the empty string if this sink does not
+     * keep anything.
+     */
+    abstract String ruleText(String ruleName, AssertiveCode assertiveCode);
+
+    /**
+     * <p>Reports some text, such as a banner, verbatim.</p>
+     *
+     * @param text The text.
+     */
+    abstract void text(String text);
+
+}
@@ -15,7 +15,6 @@ package edu.clemson.cs.r2jt.vcgeneration.vcs;
 /*
  * Libraries
  */
-import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -24,11 +23,11 @@ import edu.clemson.cs.r2jt.absyn.InfixExp;
 import edu.clemson.cs.r2jt.vcgeneration.AssertiveCode;
 
 /**
- * <p>A little helper class to take a <code>Collection</code> of
- * <code>AssertiveCode</code>s, as would be provided from the Verifier, and
- * deliver individual VCs, with type information from the 
- * <code>AssertiveCode</code> (i.e., that contained in the "free variables"
- * information) propagated down into the expressions of the VCs.</p>
+ * <p>A little helper class to take an <code>AssertiveCode</code>, as would be
+ * provided from the Verifier, and deliver individual VCs, with type
+ * information from the <code>AssertiveCode</code> (i.e., that contained in
+ * the "free variables" information) propagated down into the expressions of
+ * the VCs.</p>
  *
  * @author H. Smith
  *
@@ -52,22 +51,16 @@ public class VCCollector implements Iterable<VerificationCondition> {
     // ===========================================================
 
     /**
-     * <p>Constructs a new <code>VCCollector</code> which may be iterated over
-     * to retrieve the VCs.</p>
+     * <p>Constructs a new <code>VCCollector</code> over the VCs of a single
+     * <code>AssertiveCode</code>, so that VCs can be collected one batch at a
+     * time as the Verifier finishes them.</p>
      *
-     * @param source A <code>Collection</code> of <code>AssertiveCode</code>,
-     *               as would be returned from the Verifier, containing the VCs
-     *               we'd like to access.
+     * @param batch The set of VCs in context.
+     * @param sectionNumber The number of this batch among all the batches
+     *                      of the module.
      */
-    public VCCollector(Collection<AssertiveCode> source) {
-        int sectionNumber = 0;
-
-        //VCs come in batches that all refer to the same cluster of variables.
-        //Cycle through each batch.
-        for (AssertiveCode batch : source) {
-            addVCsInContext(batch, sectionNumber);
-            sectionNumber++;
-        }
+    public VCCollector(AssertiveCode batch, int sectionNumber) {
+        addVCsInContext(batch, sectionNumber);
     }
 
     // ===========================================================
@@ -107,8 +100,7 @@ public class VCCollector implements Iterable<VerificationCondition> {
 
     /**
      * <p>Returns an <code>Iterator</code> over the VCs that were collected from
-     * the <code>Collection</code> of <code>AssertiveCode</code> provided to
-     * the constructor.</p>
+     * the <code>AssertiveCode</code> provided to the constructor.</p>
      */
     public Iterator<VerificationCondition> iterator() {
         return myFinalVCs.iterator();
@@ -19,6 +19,8 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * <p>This is the abstract base class for all the intermediate objects
@@ -45,6 +47,13 @@ public abstract class ResolveConceptualElement
      */
     protected final Location myLoc;
 
+    /**
+     * <p>The fields that may hold children, for each class whose
+     * children have been requested.</p>
+     */
+    private static final ConcurrentMap<Class<?>, ChildField[]> CHILD_FIELDS =
+            new ConcurrentHashMap<>();
+
     // ===========================================================
     // Constructors
     // ===========================================================
@@ -104,83 +113,42 @@ public abstract class ResolveConceptualElement
      * @return A list containing all the children.
      */
     public List<ResolveConceptualElement> getChildren() {
-        //We'd like to hit the fields in the order they appear in the class,
-        //starting with the most general class and getting more specific.  So,
-        //we build a stack of the class hierarchy of this instance
-        Deque<Class<?>> hierarchy = new LinkedList<>();
-        Class<?> curClass = this.getClass();
-        do {
-            hierarchy.push(curClass);
-            curClass = curClass.getSuperclass();
-        } while (curClass != ResolveConceptualElement.class);
-
-        List<ResolveConceptualElement> children =
-                new ArrayList<>();
-        // get a list of all the declared and inherited members of that class
-        List<Field> fields = new ArrayList<>();
-        while (!hierarchy.isEmpty()) {
-
-            curClass = hierarchy.pop();
-
-            Field[] curFields = curClass.getDeclaredFields();
-            for (int i = 0; i < curFields.length; ++i) {
-                fields.add(curFields[i]);
-            }
-            curClass = curClass.getSuperclass();
-        }
-
-        // loop through all the class members
-        Iterator<Field> iterFields = fields.iterator();
-        while (iterFields.hasNext()) {
-            Field curField = iterFields.next();
-
-            if (!Modifier.isStatic(curField.getModifiers())) {
+        List<ResolveConceptualElement> children = new ArrayList<>();
 
-                curField.setAccessible(true);
-                Class<?> fieldType = curField.getType();
+        // loop through all the class members that can hold children
+        for (ChildField childField : getChildFields(this.getClass())) {
+            Field curField = childField.myField;
 
-                try {
-                    // is this member a ResolveConceptualElement?
-                    // if so, add it as a child
-                    if (ResolveConceptualElement.class
-                            .isAssignableFrom(fieldType)) {
-                        //System.out.println("Walking: " + curField.getName());
-                        children.add(ResolveConceptualElement.class
-                                .cast(curField.get(this)));
-                    }
-                    // is this member a list of ResolveConceptualElements?
-                    // if so, add the elements to the list of children
-                    else if (java.util.List.class.isAssignableFrom(fieldType)) {
-                        Class<?> listOf =
-                                (Class<?>) ((ParameterizedType) curField
-                                        .getGenericType())
-                                        .getActualTypeArguments()[0];
-                        java.util.List<?> fieldList =
-                                java.util.List.class.cast(curField.get(this));
-                        if (fieldList != null
-                                && fieldList.size() > 0
-                                && ResolveConceptualElement.class
-                                .isAssignableFrom(listOf)) {
-                            children
-                                    .add(new VirtualListNode(myLoc,
-                                            this,
-                                            curField.getName(),
-                                            (java.util.List<ResolveConceptualElement>) fieldList,
-                                            (Class<?>) ((ParameterizedType) curField
-                                                    .getGenericType())
-                                                    .getActualTypeArguments()[0]));
-                        }
-                    }
+            try {
+                // is this member a ResolveConceptualElement?
+                // if so, add it as a child
+                if (childField.myListType == null) {
+                    children.add(ResolveConceptualElement.class
+                            .cast(curField.get(this)));
                 }
-                catch (Exception ex) {
-                    if (ex instanceof RuntimeException) {
-                        throw (RuntimeException) ex;
-                    }
-                    else {
-                        throw new RuntimeException(ex);
+                // is this member a list of ResolveConceptualElements?
+                // if so, add the elements to the list of children
+                else {
+                    java.util.List<?> fieldList =
+                            java.util.List.class.cast(curField.get(this));
+                    if (fieldList != null && fieldList.size() > 0) {
+                        children
+                                .add(new VirtualListNode(myLoc,
+                                        this,
+                                        curField.getName(),
+                                        (java.util.List<ResolveConceptualElement>) fieldList,
+                                        childField.myListType));
                     }
                 }
             }
+            catch (Exception ex) {
+                if (ex instanceof RuntimeException) {
+                    throw (RuntimeException) ex;
+                }
+                else {
+                    throw new RuntimeException(ex);
+                }
+            }
         }
 
         return children;
@@ -254,4 +222,117 @@ public abstract class ResolveConceptualElement
         }
     }
 
+
+    // ===========================================================
+    // Private Methods
+    // ===========================================================
+
+    /**
+     * <p>Returns the fields of {@code c} that may hold children, in the
+     * order {@link #getChildren()} visits them. The fields are found
+     * reflectively the first time a class is seen and reused after that.</p>
+     *
+     * @param c A class that inherits from {@code ResolveConceptualElement}.
+     *
+     * @return The child-holding fields of {@code c}.
+     */
+    private static ChildField[] getChildFields(Class<?> c) {
+        ChildField[] childFields = CHILD_FIELDS.get(c);
+        if (childFields == null) {
+            childFields = findChildFields(c);
+            CHILD_FIELDS.putIfAbsent(c, childFields);
+        }
+
+        return childFields;
+    }
+
+    /**
+     * <p>Finds the fields of {@code c} that may hold children.</p>
+     *
+     * @param c A class that inherits from {@code ResolveConceptualElement}.
+     *
+     * @return The child-holding fields of {@code c}.
+     */
+    private static ChildField[] findChildFields(Class<?> c) {
+        //We'd like to hit the fields in the order they appear in the class,
+        //starting with the most general class and getting more specific.  So,
+        //we build a stack of the class hierarchy of this instance
+        Deque<Class<?>> hierarchy = new LinkedList<>();
+        Class<?> curClass = c;
+        do {
+            hierarchy.push(curClass);
+            curClass = curClass.getSuperclass();
+        } while (curClass != ResolveConceptualElement.class);
+
+        List<ChildField> childFields = new ArrayList<>();
+        while (!hierarchy.isEmpty()) {
+            curClass = hierarchy.pop();
+
+            for (Field curField : curClass.getDeclaredFields()) {
+                if (!Modifier.isStatic(curField.getModifiers())) {
+                    Class<?> fieldType = curField.getType();
+
+                    if (ResolveConceptualElement.class
+                            .isAssignableFrom(fieldType)) {
+                        curField.setAccessible(true);
+                        childFields.add(new ChildField(curField, null));
+                    }
+                    else if (java.util.List.class.isAssignableFrom(fieldType)) {
+                        Class<?> listOf =
+                                (Class<?>) ((ParameterizedType) curField
+                                        .getGenericType())
+                                        .getActualTypeArguments()[0];
+                        if (ResolveConceptualElement.class
+                                .isAssignableFrom(listOf)) {
+                            curField.setAccessible(true);
+                            childFields.add(new ChildField(curField, listOf));
+                        }
+                    }
+                }
+            }
+        }
+
+        return childFields.toArray(new ChildField[childFields.size()]);
+    }
+
+    // ===========================================================
+    // Helper Constructs
+    // ===========================================================
+
+    /**
+     * <p>A field that holds either a single child or a list of children.</p>
+     */
+    private static class ChildField {
+
+        // ===========================================================
+        // Member Fields
+        // ===========================================================
+
+        /** <p>The field itself, already made accessible.</p> */
+        final Field myField;
+
+        /**
+         * <p>The element type if the field is a list of children,
+         * {@code null} if it holds a single child.</p>
+         */
+        final Class<?> myListType;
+
+        // ===========================================================
+        // Constructors
+        // ===========================================================
+
+        /**
+         * <p>This creates an entry for a child-holding field.</p>
+         *
+         * @param field The field, already made accessible.
+         * @param listType The element type for a list of children,
+         *                 {@code null} for a single child.
+         */
+        ChildField(Field field, Class<?> listType) {
+            myField = field;
+            myListType = listType;
+        }
+
+    }
+
 }
\ No newline at end of file
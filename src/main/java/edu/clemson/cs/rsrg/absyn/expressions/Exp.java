@@ -18,10 +18,8 @@ import edu.clemson.cs.rsrg.parsing.data.Location;
 import edu.clemson.cs.rsrg.parsing.data.PosSymbol;
 import edu.clemson.cs.rsrg.statushandling.exception.MiscErrorException;
 import edu.clemson.cs.rsrg.typeandpopulate.mathtypes.MTType;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * <p>This is the abstract base class for all the expression objects
@@ -35,6 +33,12 @@ public abstract class Exp extends ResolveConceptualElement {
     // Member Fields
     // ===========================================================
 
+    /**
+     * <p>Returned by {@link #structuralHash()} when an expression has no
+     * cheap hash that agrees with {@link #equivalent(Exp)}.</p>
+     */
+    public static final int NO_STRUCTURAL_HASH = 0;
+
     /** <p>The object's mathematical type.</p> */
     protected MTType myMathType = null;
 
@@ -312,24 +316,31 @@ public abstract class Exp extends ResolveConceptualElement {
     public final Exp substitute(Map<Exp, Exp> substitutions) {
         Exp retval;
 
-        boolean match = false;
-
-        Map.Entry<Exp, Exp> curEntry = null;
         if (substitutions.size() > 0) {
-            Set<Map.Entry<Exp, Exp>> entries = substitutions.entrySet();
-            Iterator<Map.Entry<Exp, Exp>> entryIter = entries.iterator();
-            while (entryIter.hasNext() && !match) {
-                curEntry = entryIter.next();
-                match = curEntry.getKey().equivalent(this);
+            // The index is built once, by the outermost call, and reused
+            // as substituteChildren recurses back in here.
+            SubstitutionIndex index = SubstitutionIndex.current(substitutions);
+            boolean outermost = (index == null);
+            if (outermost) {
+                index = SubstitutionIndex.install(substitutions);
             }
 
-            if (match) {
-                retval = curEntry.getValue();
+            try {
+                Map.Entry<Exp, Exp> match = index.find(this);
+
+                if (match != null) {
+                    retval = match.getValue();
+                }
+                else {
+                    retval = substituteChildren(substitutions);
+                    retval.setMathType(myMathType);
+                    retval.setMathTypeValue(myMathTypeValue);
+                }
             }
-            else {
-                retval = substituteChildren(substitutions);
-                retval.setMathType(myMathType);
-                retval.setMathTypeValue(myMathTypeValue);
+            finally {
+                if (outermost) {
+                    index.uninstall();
+                }
             }
         }
         else {
@@ -354,6 +365,42 @@ public abstract class Exp extends ResolveConceptualElement {
                 + this.getClass(), new CloneNotSupportedException());
     }
 
+    /**
+     * <p>This method returns a hash of the top of this expression that
+     * agrees with {@link #equivalent(Exp)}: whenever {@code a.equivalent(b)},
+     * {@code a.structuralHash() == b.structuralHash()}. It must be computed
+     * in constant time, without visiting any sub-expressions, since
+     * {@link #substitute(Map)} asks every node for it.</p>
+     *
+     * <p>A class may only override this if its {@link #equivalent(Exp)}
+     * accepts nothing but instances of that class, and it must hash only
+     * what its {@link #equivalent(Exp)} compares. The default,
+     * {@link #NO_STRUCTURAL_HASH}, is always safe.</p>
+     *
+     * @return The structural hash.
+     */
+    protected int structuralHash() {
+        return NO_STRUCTURAL_HASH;
+    }
+
+    /**
+     * <p>This method combines a qualifier and a name into a structural
+     * hash, treating a missing symbol the way
+     * {@link #posSymbolEquivalent(PosSymbol, PosSymbol)} does.</p>
+     *
+     * @param qualifier A qualifier, possibly {@code null}.
+     * @param name A name, possibly {@code null}.
+     *
+     * @return The combined hash.
+     */
+    protected static int structuralHash(PosSymbol qualifier, PosSymbol name) {
+        int result = 17;
+        result = 31 * result + nameHash(qualifier);
+        result = 31 * result + nameHash(name);
+
+        return result;
+    }
+
     /**
      * <p>Implemented by concrete subclasses of {@link Exp} to manufacture
      * a copy of themselves where all the fields have been appropriately
@@ -396,4 +443,25 @@ public abstract class Exp extends ResolveConceptualElement {
      */
     protected abstract Exp substituteChildren(Map<Exp, Exp> substitutions);
 
-}
\ No newline at end of file
+    // ===========================================================
+    // Private Methods
+    // ===========================================================
+
+    /**
+     * <p>This method hashes the name of a symbol that might be
+     * {@code null}.</p>
+     *
+     * @param s A symbol.
+     *
+     * @return The hash of its name, or {@code 0}.
+     */
+    private static int nameHash(PosSymbol s) {
+        int result = 0;
+        if (s != null && s.getName() != null) {
+            result = s.getName().hashCode();
+        }
+
+        return result;
+    }
+
+}
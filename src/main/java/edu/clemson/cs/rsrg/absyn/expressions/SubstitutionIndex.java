@@ -0,0 +1,222 @@
+/**
+ * SubstitutionIndex.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.rsrg.absyn.expressions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>This class finds the key of a substitution map that is
+ * {@link Exp#equivalent(Exp)} to a given expression without trying every
+ * key in turn.</p>
+ *
+ * <p>Keys with a meaningful {@link Exp#structuralHash()} are bucketed by it,
+ * so only the keys in the expression's own bucket need to be compared. All
+ * other keys are compared against every expression, exactly as before.
+ * Candidates are tried in the map's iteration order, so the key that is
+ * found is always the one a linear search would have found.</p>
+ *
+ * <p>One index is built per call to {@link Exp#substitute(Map)} and is
+ * shared by the whole recursive traversal through a thread local, so that
+ * the {@code substituteChildren} implementations need not know about it.</p>
+ *
+ * @version 1.0
+ */
+final class SubstitutionIndex {
+
+    // ===========================================================
+    // Member Fields
+    // ===========================================================
+
+    /** <p>The index each thread is currently substituting with.</p> */
+    private static final ThreadLocal<SubstitutionIndex> CURRENT =
+            new ThreadLocal<>();
+
+    /** <p>The indexed substitutions.</p> */
+    private final Map<Exp, Exp> mySubstitutions;
+
+    /** <p>The index that was current before this one was installed.</p> */
+    private final SubstitutionIndex myEnclosingIndex;
+
+    /** <p>Keys with a structural hash, bucketed by it.</p> */
+    private final Map<Integer, List<Candidate>> myBuckets;
+
+    /** <p>Keys without a structural hash.</p> */
+    private final List<Candidate> myUnhashedKeys;
+
+    // ===========================================================
+    // Constructors
+    // ===========================================================
+
+    /**
+     * <p>This builds an index of {@code substitutions}.</p>
+     *
+     * @param substitutions A substitution map.
+     * @param enclosing The index that is current on this thread, if any.
+     */
+    private SubstitutionIndex(Map<Exp, Exp> substitutions,
+            SubstitutionIndex enclosing) {
+        mySubstitutions = substitutions;
+        myEnclosingIndex = enclosing;
+        myBuckets = new HashMap<>();
+        myUnhashedKeys = new ArrayList<>();
+
+        int order = 0;
+        for (Map.Entry<Exp, Exp> entry : substitutions.entrySet()) {
+            Candidate c = new Candidate(order, entry);
+            order++;
+
+            int hash = entry.getKey().structuralHash();
+            if (hash == Exp.NO_STRUCTURAL_HASH) {
+                myUnhashedKeys.add(c);
+            }
+            else {
+                List<Candidate> bucket = myBuckets.get(hash);
+                if (bucket == null) {
+                    bucket = new ArrayList<>(1);
+                    myBuckets.put(hash, bucket);
+                }
+                bucket.add(c);
+            }
+        }
+    }
+
+    // ===========================================================
+    // Package Private Methods
+    // ===========================================================
+
+    /**
+     * <p>This method returns the index this thread is currently using
+     * for {@code substitutions}.</p>
+     *
+     * @param substitutions A substitution map.
+     *
+     * @return The index, or {@code null} if there is none.
+     */
+    static SubstitutionIndex current(Map<Exp, Exp> substitutions) {
+        SubstitutionIndex result = CURRENT.get();
+        if (result != null && result.mySubstitutions != substitutions) {
+            result = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>This method returns the first substitution, in the map's
+     * iteration order, whose key is equivalent to {@code e}.</p>
+     *
+     * @param e An expression.
+     *
+     * @return The substitution, or {@code null} if there is none.
+     */
+    Map.Entry<Exp, Exp> find(Exp e) {
+        List<Candidate> bucket = myBuckets.get(e.structuralHash());
+        if (bucket == null) {
+            bucket = Collections.emptyList();
+        }
+
+        // Merge the two lists by their original order
+        Map.Entry<Exp, Exp> result = null;
+        int b = 0, u = 0;
+        while (result == null
+                && (b < bucket.size() || u < myUnhashedKeys.size())) {
+            int bucketOrder = Integer.MAX_VALUE;
+            if (b < bucket.size()) {
+                bucketOrder = bucket.get(b).myOrder;
+            }
+            int unhashedOrder = Integer.MAX_VALUE;
+            if (u < myUnhashedKeys.size()) {
+                unhashedOrder = myUnhashedKeys.get(u).myOrder;
+            }
+
+            Candidate next;
+            if (bucketOrder < unhashedOrder) {
+                next = bucket.get(b);
+                b++;
+            }
+            else {
+                next = myUnhashedKeys.get(u);
+                u++;
+            }
+
+            if (next.myEntry.getKey().equivalent(e)) {
+                result = next.myEntry;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>This method builds an index of {@code substitutions} and makes it
+     * this thread's current one until {@link #uninstall()} is called.</p>
+     *
+     * @param substitutions A substitution map.
+     *
+     * @return The new index.
+     */
+    static SubstitutionIndex install(Map<Exp, Exp> substitutions) {
+        SubstitutionIndex result =
+                new SubstitutionIndex(substitutions, CURRENT.get());
+        CURRENT.set(result);
+
+        return result;
+    }
+
+    /**
+     * <p>This method restores whatever index this thread was using before
+     * this one was installed.</p>
+     */
+    void uninstall() {
+        if (myEnclosingIndex == null) {
+            CURRENT.remove();
+        }
+        else {
+            CURRENT.set(myEnclosingIndex);
+        }
+    }
+
+    // ===========================================================
+    // Helper Constructs
+    // ===========================================================
+
+    /**
+     * <p>An helper class that remembers where a substitution came in the
+     * map's iteration order.</p>
+     */
+    private static class Candidate {
+
+        /** <p>The position of the substitution in the map.</p> */
+        final int myOrder;
+
+        /** <p>The substitution.</p> */
+        final Map.Entry<Exp, Exp> myEntry;
+
+        /**
+         * <p>This constructs a candidate.</p>
+         *
+         * @param order The position of the substitution in the map.
+         * @param entry The substitution.
+         */
+        Candidate(int order, Map.Entry<Exp, Exp> entry) {
+            myOrder = order;
+            myEntry = entry;
+        }
+
+    }
+
+}
@@ -369,6 +369,21 @@ public class FunctionExp extends AbstractFunctionExp {
                 (VarExp) myFuncNameExp.clone(), newCaratExp, copyExps());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final int structuralHash() {
+        PosSymbol name = null;
+        if (myFuncNameExp != null) {
+            name = myFuncNameExp.getName();
+        }
+
+        // Distinguish f(...) from a variable named f, which is never
+        // equivalent to it.
+        return 31 * structuralHash(myQualifier, name) + 1;
+    }
+
     /**
      * {@inheritDoc}
      */
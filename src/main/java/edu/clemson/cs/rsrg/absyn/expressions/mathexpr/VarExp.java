@@ -261,6 +261,14 @@ public class VarExp extends MathExp {
                 myQuantification);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected final int structuralHash() {
+        return structuralHash(myQualifier, myName);
+    }
+
     /**
      * {@inheritDoc}
      */
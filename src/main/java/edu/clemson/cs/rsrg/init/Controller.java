@@ -34,6 +34,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.util.*;
 import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.jgrapht.Graphs;
 import org.jgrapht.graph.DefaultDirectedGraph;
@@ -254,13 +256,36 @@ public class Controller {
         ResolveTokenFactory factory = new ResolveTokenFactory(file, input);
         lexer.setTokenFactory(factory);
 
-        // Create a RESOLVE language parser
-        TokenStream tokenStream = new CommonTokenStream(lexer);
+        // Create a RESOLVE language parser. The generated lexer and
+        // parser keep their DFA caches in static fields, so what one
+        // file teaches the prediction engine is reused by every other
+        // file and every later compilation in this JVM.
+        CommonTokenStream tokenStream = new CommonTokenStream(lexer);
         ResolveParser parser = new ResolveParser(tokenStream);
-        parser.removeErrorListeners();
-        parser.addErrorListener(myAntlrErrorListener);
         parser.setTokenFactory(factory);
-        ParserRuleContext rootModuleCtx = parser.module();
+
+        // First try the much cheaper SLL prediction mode, bailing out
+        // at the first syntax error without reporting it. SLL accepts
+        // almost every valid module, and if it accepts a module, the
+        // parse tree is the same as the one full LL would build.
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        ParserRuleContext rootModuleCtx;
+        try {
+            rootModuleCtx = parser.module();
+        }
+        catch (ParseCancellationException pce) {
+            // Either the module has a genuine syntax error or SLL was
+            // not strong enough, so parse it again with full LL
+            // and the usual error reporting.
+            tokenStream.seek(0);
+            parser.reset();
+            parser.addErrorListener(myAntlrErrorListener);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            rootModuleCtx = parser.module();
+        }
         int numParserErrors = parser.getNumberOfSyntaxErrors();
         if (numParserErrors != 0) {
             throw new MiscErrorException("Found " + numParserErrors
@@ -418,17 +418,20 @@ public class ResolveCompiler {
      * integrating your module into the compiler flag management system, this is
      * where to do it.</p>
      */
-    private synchronized void setUpFlagDependencies() {
-        if (!FlagDependencies.isSealed()) {
-            setUpFlags();
-            Prover.setUpFlags();
-            JavaTranslator.setUpFlags();
-            CTranslator.setUpFlags();
-            Archiver.setUpFlags();
-            VCGenerator.setUpFlags();
-            AlgebraicProver.setUpFlags();
-            CongruenceClassProver.setUpFlags();
-            FlagDependencies.seal();
+    private void setUpFlagDependencies() {
+        // Several compilers may be created at once in one JVM
+        synchronized (ResolveCompiler.class) {
+            if (!FlagDependencies.isSealed()) {
+                setUpFlags();
+                Prover.setUpFlags();
+                JavaTranslator.setUpFlags();
+                CTranslator.setUpFlags();
+                Archiver.setUpFlags();
+                VCGenerator.setUpFlags();
+                AlgebraicProver.setUpFlags();
+                CongruenceClassProver.setUpFlags();
+                FlagDependencies.seal();
+            }
         }
     }
 
@@ -29,10 +29,13 @@ import edu.clemson.cs.rsrg.absyn.rawtypes.Ty;
 import edu.clemson.cs.rsrg.absyn.statements.ConfirmStmt;
 import edu.clemson.cs.rsrg.absyn.statements.MemoryStmt;
 import edu.clemson.cs.rsrg.absyn.statements.Statement;
+import edu.clemson.cs.rsrg.misc.TemplateRegistry;
 import edu.clemson.cs.rsrg.parsing.data.PosSymbol;
 import edu.clemson.cs.rsrg.treewalk.TreeWalkerStackVisitor;
 import org.stringtemplate.v4.ST;
 import org.stringtemplate.v4.STGroup;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -707,6 +710,19 @@ public class GenerateGraphvizModel extends TreeWalkerStackVisitor {
         return myModel.render();
     }
 
+    /**
+     * <p>Writes the completed model with all the nodes and edges
+     * straight to <code>out</code>, without first rendering it
+     * into a string.</p>
+     *
+     * @param out Where the model goes.
+     *
+     * @throws IOException If <code>out</code> fails.
+     */
+    public final void writeCompleteModel(Writer out) throws IOException {
+        TemplateRegistry.write(myModel, out);
+    }
+
     // ===========================================================
     // Private Methods
     // ===========================================================
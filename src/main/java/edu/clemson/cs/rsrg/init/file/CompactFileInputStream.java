@@ -0,0 +1,204 @@
+/**
+ * CompactFileInputStream.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.rsrg.init.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * <p>An ANTLR4 character stream that reads a UTF-8 source file in one piece
+ * instead of copying it into a growing {@code char[]}.</p>
+ *
+ * <p>Almost every RESOLVE source file is plain ASCII, in which case every
+ * byte is exactly one character and the lexer reads straight out of the
+ * file's bytes, which take half the space of its characters. Only a file
+ * that holds a non-ASCII byte is decoded, once, when the stream is
+ * created.</p>
+ *
+ * <p>The stream keeps its own copy of the file rather than a mapping of
+ * it. Parse trees, and through them this stream, may outlive a
+ * compilation, and their text must not change, or fail to be read, if the
+ * file is edited or truncated in the meantime. Nor should they keep the
+ * file locked.</p>
+ *
+ * <p>The stream is still an {@link ANTLRInputStream}, so it can be used
+ * anywhere one is expected, but it never fills in the inherited
+ * {@code data} buffer for ASCII files.</p>
+ *
+ * @version 1.0
+ */
+public class CompactFileInputStream extends ANTLRInputStream {
+
+    // ===========================================================
+    // Member Fields
+    // ===========================================================
+
+    /** <p>The character set RESOLVE source files are written in.</p> */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * <p>The contents of an ASCII file, or {@code null} if the file
+     * had to be decoded into {@code data}.</p>
+     */
+    private final byte[] myAsciiBytes;
+
+    // ===========================================================
+    // Constructors
+    // ===========================================================
+
+    /**
+     * <p>This reads {@code file} and, only if it holds non-ASCII text,
+     * decodes it.</p>
+     *
+     * @param file A UTF-8 source file.
+     *
+     * @throws IOException If the file could not be read.
+     */
+    public CompactFileInputStream(File file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file.toPath());
+
+        name = file.getAbsolutePath();
+        if (isAscii(bytes)) {
+            myAsciiBytes = bytes;
+            n = bytes.length;
+        }
+        else {
+            CharBuffer chars = UTF_8.decode(ByteBuffer.wrap(bytes));
+            myAsciiBytes = null;
+            data = new char[chars.remaining()];
+            chars.get(data);
+            n = data.length;
+        }
+    }
+
+    // ===========================================================
+    // Public Methods
+    // ===========================================================
+
+    /**
+     * <p>This method returns the character {@code i} positions away from
+     * the current one.</p>
+     *
+     * @param i The offset from the current position.
+     *
+     * @return The character, or {@link IntStream#EOF} past either end.
+     */
+    @Override
+    public final int LA(int i) {
+        int result;
+        if (myAsciiBytes == null) {
+            result = super.LA(i);
+        }
+        else if (i == 0) {
+            result = 0; // undefined
+        }
+        else {
+            int index = (i < 0) ? p + i : p + i - 1;
+            if (index < 0 || index >= n) {
+                result = IntStream.EOF;
+            }
+            else {
+                result = myAsciiBytes[index];
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>This method returns the text in the given range of
+     * characters.</p>
+     *
+     * @param interval The first and last character, inclusive.
+     *
+     * @return The text, cut short at the end of the file.
+     */
+    @Override
+    public final String getText(Interval interval) {
+        String result;
+        if (myAsciiBytes == null) {
+            result = super.getText(interval);
+        }
+        else {
+            int start = interval.a;
+            int stop = Math.min(interval.b, n - 1);
+            if (start >= n || stop < start) {
+                result = "";
+            }
+            else {
+                result = asciiText(start, stop + 1);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>This method returns the whole file as a string.</p>
+     *
+     * @return The file's contents.
+     */
+    @Override
+    public final String toString() {
+        String result;
+        if (myAsciiBytes == null) {
+            result = super.toString();
+        }
+        else {
+            result = asciiText(0, n);
+        }
+
+        return result;
+    }
+
+    // ===========================================================
+    // Private Methods
+    // ===========================================================
+
+    /**
+     * <p>This method copies part of an ASCII file into a string.</p>
+     *
+     * @param start The first character.
+     * @param end One past the last character.
+     *
+     * @return The text.
+     */
+    private String asciiText(int start, int end) {
+        return new String(myAsciiBytes, start, end - start, UTF_8);
+    }
+
+    /**
+     * <p>This method checks whether every byte is an ASCII character.</p>
+     *
+     * @param bytes The file's contents.
+     *
+     * @return {@code true} if the file is plain ASCII, {@code false}
+     * otherwise.
+     */
+    private static boolean isAscii(byte[] bytes) {
+        boolean result = true;
+        for (int i = 0; result && i < bytes.length; i++) {
+            result = bytes[i] >= 0;
+        }
+
+        return result;
+    }
+
+}
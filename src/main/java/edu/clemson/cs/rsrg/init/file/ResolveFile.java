@@ -12,6 +12,9 @@
  */
 package edu.clemson.cs.rsrg.init.file;
 
+import edu.clemson.cs.rsrg.statushandling.exception.MiscErrorException;
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import org.antlr.v4.runtime.ANTLRInputStream;
 
@@ -34,8 +37,17 @@ public class ResolveFile {
     /** <p>Location for the created jar (Archiver).</p> */
     private final String myCreatedJarPath;
 
-    /** <p>Input stream that will contain all the RESOLVE source code.</p> */
-    private final ANTLRInputStream myInputStream;
+    /**
+     * <p>Input stream that will contain all the RESOLVE source code, or
+     * {@code null} if {@link #mySourceFile} has not been opened yet.</p>
+     */
+    private ANTLRInputStream myInputStream;
+
+    /**
+     * <p>The file on disk holding the source code, or {@code null} if the
+     * source was given as a stream.</p>
+     */
+    private final File mySourceFile;
 
     /** <p>File's name.</p> */
     private final String myModuleFileName;
@@ -64,6 +76,29 @@ public class ResolveFile {
     public ResolveFile(String name, ModuleType moduleType,
             ANTLRInputStream input, List<String> packageList, String jarPath) {
         myInputStream = input;
+        mySourceFile = null;
+        myCreatedJarPath = jarPath;
+        myModuleFileName = name;
+        myModuleFileType = moduleType;
+        myPkgList = packageList;
+    }
+
+    /**
+     * <p>This constructor creates a "file" object for a source file
+     * on disk. The file is not opened until its source code is first
+     * needed, so a whole workspace can be turned into <code>ResolveFile</code>s
+     * without reading every file up front.</p>
+     *
+     * @param name Filename.
+     * @param moduleType File extension type.
+     * @param sourceFile The file holding the source code.
+     * @param packageList The package where this source file belong.
+     * @param jarPath The path where we want the jar to be generated.
+     */
+    public ResolveFile(String name, ModuleType moduleType, File sourceFile,
+            List<String> packageList, String jarPath) {
+        myInputStream = null;
+        mySourceFile = sourceFile;
         myCreatedJarPath = jarPath;
         myModuleFileName = name;
         myModuleFileType = moduleType;
@@ -84,7 +119,7 @@ public class ResolveFile {
                     (myModuleFileName.equals(f.myModuleFileName)
                             && myModuleFileType.equals(f.myModuleFileType)
                             && myPkgList.equals(f.myPkgList)
-                            && myInputStream.equals(f.myInputStream) && myCreatedJarPath
+                            && sameSource(f) && myCreatedJarPath
                             .equals(f.myCreatedJarPath));
         }
         return result;
@@ -101,11 +136,22 @@ public class ResolveFile {
     }
 
     /**
-     * <p>Obtains the input stream that contains the source code.</p>
+     * <p>Obtains the input stream that contains the source code, reading
+     * the source file into memory the first time it is called.</p>
      *
      * @return An input stream for ANTLR4.
      */
-    public final ANTLRInputStream getInputStream() {
+    public final synchronized ANTLRInputStream getInputStream() {
+        if (myInputStream == null && mySourceFile != null) {
+            try {
+                myInputStream = new CompactFileInputStream(mySourceFile);
+            }
+            catch (IOException ioe) {
+                throw new MiscErrorException("Unable to read "
+                        + mySourceFile.getAbsolutePath(), ioe);
+            }
+        }
+
         return myInputStream;
     }
 
@@ -149,4 +195,31 @@ public class ResolveFile {
         return myModuleFileName + "." + myModuleFileType.getExtension();
     }
 
-}
\ No newline at end of file
+    // ===========================================================
+    // Private Methods
+    // ===========================================================
+
+    /**
+     * <p>Checks whether both objects read their source code from the
+     * same place, without opening either source file.</p>
+     *
+     * @param f Another "file" object.
+     *
+     * @return {@code true} if the sources are the same, {@code false}
+     * otherwise.
+     */
+    private boolean sameSource(ResolveFile f) {
+        boolean result;
+        if (mySourceFile != null) {
+            result = mySourceFile.equals(f.mySourceFile);
+        }
+        else {
+            result =
+                    f.mySourceFile == null
+                            && myInputStream.equals(f.myInputStream);
+        }
+
+        return result;
+    }
+
+}
@@ -16,11 +16,11 @@ import edu.clemson.cs.rsrg.absyn.declarations.moduledecl.ModuleDec;
 import edu.clemson.cs.rsrg.init.CompileEnvironment;
 import edu.clemson.cs.rsrg.init.ResolveCompiler;
 import edu.clemson.cs.rsrg.init.astoutput.GenerateGraphvizModel;
+import edu.clemson.cs.rsrg.misc.TemplateRegistry;
 import edu.clemson.cs.rsrg.treewalk.TreeWalker;
 import edu.clemson.cs.rsrg.typeandpopulate.symboltables.MathSymbolTableBuilder;
 import edu.clemson.cs.rsrg.typeandpopulate.utilities.ModuleIdentifier;
 import org.stringtemplate.v4.STGroup;
-import org.stringtemplate.v4.STGroupFile;
 import java.io.*;
 
 /**
@@ -58,7 +58,7 @@ public class ASTOutputPipeline extends AbstractPipeline {
     @Override
     public final void process(ModuleIdentifier currentTarget) {
         ModuleDec dec = myCompileEnvironment.getModuleAST(currentTarget);
-        STGroup group = new STGroupFile("templates/ASTOutput.stg");
+        STGroup group = TemplateRegistry.getGroup("templates/ASTOutput.stg");
 
         // Generate DOT File (GV extension)
         genModuleDecDotFile(dec, group);
@@ -85,7 +85,7 @@ public class ASTOutputPipeline extends AbstractPipeline {
 
         // Write the contents to file
         String outputFileName = moduleName + "_ModuleDec.gv";
-        writeToFile(outputFileName, twv.getCompleteModel());
+        writeToFile(outputFileName, twv);
 
         if (myCompileEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_DEBUG)) {
             StringBuffer sb = new StringBuffer();
@@ -99,19 +99,24 @@ public class ASTOutputPipeline extends AbstractPipeline {
     }
 
     /**
-     * <p>Writes the content to the specified filename.</p>
+     * <p>Writes the completed model to the specified filename.</p>
      *
      * @param outputFileName Output filename.
-     * @param outputString Contents to be written in file.
+     * @param model The model to be written in file.
      */
-    private void writeToFile(String outputFileName, String outputString) {
+    private void writeToFile(String outputFileName,
+            GenerateGraphvizModel model) {
         try {
             // Write the contents to file
             Writer writer =
                     new BufferedWriter(new FileWriter(new File(outputFileName),
                             false));
-            writer.write(outputString);
-            writer.close();
+            try {
+                model.writeCompleteModel(writer);
+            }
+            finally {
+                writer.close();
+            }
         }
         catch (IOException ioe) {
             myCompileEnvironment.getStatusHandler().error(null,
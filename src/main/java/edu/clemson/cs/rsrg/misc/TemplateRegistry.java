@@ -0,0 +1,95 @@
+/**
+ * TemplateRegistry.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.rsrg.misc;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import org.stringtemplate.v4.AutoIndentWriter;
+import org.stringtemplate.v4.ST;
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.STGroupFile;
+
+/**
+ * <p>This class holds the string template groups used by the
+ * compiler, each loaded and compiled once per process rather than
+ * once per module.</p>
+ *
+ * <p>A group is fully loaded before it is handed out, so templates
+ * from a shared group can be created and rendered from any
+ * thread.</p>
+ *
+ * @version 1.0
+ */
+public final class TemplateRegistry {
+
+    // ===========================================================
+    // Member Fields
+    // ===========================================================
+
+    /** <p>The loaded groups, keyed by their file name.</p> */
+    private static final Map<String, STGroup> GROUPS = new HashMap<>();
+
+    // ===========================================================
+    // Constructors
+    // ===========================================================
+
+    /**
+     * <p>This class only has static methods.</p>
+     */
+    private TemplateRegistry() {}
+
+    // ===========================================================
+    // Public Methods
+    // ===========================================================
+
+    /**
+     * <p>Returns the shared, fully loaded group in the given
+     * template group file, loading it the first time it is
+     * asked for.</p>
+     *
+     * @param fileName The group file's name on the class path,
+     *                 e.g. <code>"templates/ASTOutput.stg"</code>.
+     *
+     * @return The group.
+     */
+    public static STGroup getGroup(String fileName) {
+        synchronized (GROUPS) {
+            STGroup result = GROUPS.get(fileName);
+            if (result == null) {
+                result = new STGroupFile(fileName);
+                result.load();
+                GROUPS.put(fileName, result);
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * <p>Renders <code>template</code> straight onto <code>out</code>,
+     * without first building the whole text as a string.</p>
+     *
+     * @param template A template from any group.
+     * @param out Where the text goes. It is neither flushed nor closed.
+     *
+     * @return The number of characters written.
+     *
+     * @throws IOException If <code>out</code> fails.
+     */
+    public static int write(ST template, Writer out) throws IOException {
+        return template.write(new AutoIndentWriter(out));
+    }
+
+}
\ No newline at end of file
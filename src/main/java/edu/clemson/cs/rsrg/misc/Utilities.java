@@ -15,11 +15,10 @@ package edu.clemson.cs.rsrg.misc;
 import edu.clemson.cs.rsrg.init.file.ModuleType;
 import edu.clemson.cs.rsrg.init.file.ResolveFile;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.util.*;
 import java.util.regex.Pattern;
-import org.antlr.v4.runtime.ANTLRInputStream;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeProperty;
 
@@ -129,10 +128,12 @@ public class Utilities {
         String name = Utilities.getFileName(file.getName(), moduleType);
         List<String> pkgList =
                 Utilities.getPackageList(file.getAbsolutePath(), workspacePath);
-        ANTLRInputStream inputStream =
-                new ANTLRInputStream(new FileInputStream(file));
+        if (!file.isFile()) {
+            throw new NoSuchFileException(file.getAbsolutePath());
+        }
 
-        return new ResolveFile(name, moduleType, inputStream, pkgList, file
+        // The file itself is only opened once it is about to be parsed
+        return new ResolveFile(name, moduleType, file, pkgList, file
                 .getAbsolutePath());
     }
 
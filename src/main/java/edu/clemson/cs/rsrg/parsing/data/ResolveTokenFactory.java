@@ -17,6 +17,7 @@ import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.TokenFactory;
 import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Interval;
 import org.antlr.v4.runtime.misc.Pair;
 
 /**
@@ -92,6 +93,15 @@ public class ResolveTokenFactory implements TokenFactory<ResolveToken> {
         t.setCharPositionInLine(charPositionInLine);
         t.mySourceName = myFile.toString();
 
+        // Copy the text now, so that a token kept past this compilation
+        // never has to go back to the input stream for it
+        if (text != null) {
+            t.setText(text);
+        }
+        else if (source.b != null) {
+            t.setText(source.b.getText(Interval.of(start, stop)));
+        }
+
         return t;
     }
 
@@ -0,0 +1,268 @@
+/**
+ * RelationshipMemo.java
+ * ---------------------------------
+ * Copyright (c) 2016
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.rsrg.typeandpopulate.typereasoning;
+
+import edu.clemson.cs.rsrg.typeandpopulate.mathtypes.MTType;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>A record of answers to a yes-or-no question about an ordered pair of
+ * {@link MTType MTTypes}, such as "is the first a subtype of the second?".
+ * Positive answers are kept for as long as the memo is. Negative answers are
+ * kept too, but only up to the memo's capacity; when there are too many, the
+ * least recently used negative answer is forgotten.</p>
+ *
+ * <p>A positive answer stays true as relationships are added to the
+ * {@link TypeGraph}, but a negative one may not, so the graph calls
+ * {@link #forgetNegatives()} whenever it grows.</p>
+ *
+ * <p>This class is not thread safe. Its keys are compared with
+ * {@link MTType#equals(Object)}, which reasons with the type graph's
+ * resources, so a memo may only be used by whoever currently has the right
+ * to reason with the graph that owns it.</p>
+ *
+ * @version 1.0
+ */
+public class RelationshipMemo {
+
+    // ===========================================================
+    // Member Fields
+    // ===========================================================
+
+    /** <p>The maximum number of negative answers to remember.</p> */
+    private final int myCapacity;
+
+    /** <p>The remembered positive answers.</p> */
+    private final Map<TypePair, Boolean> myPositives;
+
+    /** <p>The remembered negative answers, least recently used first.</p> */
+    private final LinkedHashMap<TypePair, Boolean> myNegatives;
+
+    /** <p>The number of lookups that found an answer.</p> */
+    private long myHits;
+
+    /** <p>The number of lookups that did not find an answer.</p> */
+    private long myMisses;
+
+    // ===========================================================
+    // Constructors
+    // ===========================================================
+
+    /**
+     * <p>This creates an empty memo.</p>
+     *
+     * @param capacity The maximum number of negative answers to remember.
+     */
+    public RelationshipMemo(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+
+        myCapacity = capacity;
+        myPositives = new HashMap<>();
+        myNegatives = new LinkedHashMap<TypePair, Boolean>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<TypePair, Boolean> eldest) {
+                return size() > myCapacity;
+            }
+
+        };
+    }
+
+    // ===========================================================
+    // Public Methods
+    // ===========================================================
+
+    /**
+     * <p>This method removes every negative answer, keeping the positive
+     * ones.</p>
+     */
+    public final void forgetNegatives() {
+        myNegatives.clear();
+    }
+
+    /**
+     * <p>This method returns the remembered answer for the pair
+     * {@code (t1, t2)}.</p>
+     *
+     * @param t1 The first mathematical type.
+     * @param t2 The second mathematical type.
+     *
+     * @return The answer, or {@code null} if there is none.
+     */
+    public final Boolean get(MTType t1, MTType t2) {
+        TypePair p = new TypePair(t1, t2);
+        Boolean result = myPositives.get(p);
+
+        if (result == null) {
+            result = myNegatives.get(p);
+        }
+
+        if (result == null) {
+            myMisses++;
+        }
+        else {
+            myHits++;
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>This method returns the maximum number of negative answers this
+     * memo remembers. There is no limit on positive answers.</p>
+     *
+     * @return The capacity.
+     */
+    public final int getCapacity() {
+        return myCapacity;
+    }
+
+    /**
+     * <p>This method returns the number of lookups that found an
+     * answer.</p>
+     *
+     * @return The hit count.
+     */
+    public final long getHits() {
+        return myHits;
+    }
+
+    /**
+     * <p>This method returns the number of lookups that did not find an
+     * answer.</p>
+     *
+     * @return The miss count.
+     */
+    public final long getMisses() {
+        return myMisses;
+    }
+
+    /**
+     * <p>This method remembers the answer for the pair
+     * {@code (t1, t2)}.</p>
+     *
+     * @param t1 The first mathematical type.
+     * @param t2 The second mathematical type.
+     * @param answer The answer.
+     */
+    public final void put(MTType t1, MTType t2, boolean answer) {
+        TypePair p = new TypePair(t1, t2);
+
+        if (answer) {
+            myNegatives.remove(p);
+            myPositives.put(p, Boolean.TRUE);
+        }
+        else {
+            myNegatives.put(p, Boolean.FALSE);
+        }
+    }
+
+    /**
+     * <p>This method returns the number of answers currently
+     * remembered.</p>
+     *
+     * @return The number of entries.
+     */
+    public final int size() {
+        return myPositives.size() + myNegatives.size();
+    }
+
+    /**
+     * <p>This method returns the object in string format.</p>
+     *
+     * @return Object as a string.
+     */
+    @Override
+    public final String toString() {
+        return myHits + " hits, " + myMisses + " misses, "
+                + myPositives.size() + " positive and " + myNegatives.size()
+                + "/" + myCapacity + " negative entries";
+    }
+
+    // ===========================================================
+    // Helper Constructs
+    // ===========================================================
+
+    /**
+     * <p>An helper class that is used as the key for an ordered pair of
+     * {@link MTType MTTypes}.</p>
+     */
+    private static class TypePair {
+
+        // ===========================================================
+        // Member Fields
+        // ===========================================================
+
+        /** <p>The two mathematical types, in order.</p> */
+        private final MTType myType1, myType2;
+
+        // ===========================================================
+        // Constructors
+        // ===========================================================
+
+        /**
+         * <p>This constructs the pair {@code (t1, t2)}.</p>
+         *
+         * @param t1 A mathematical type.
+         * @param t2 Another mathematical type.
+         */
+        TypePair(MTType t1, MTType t2) {
+            myType1 = t1;
+            myType2 = t2;
+        }
+
+        // ===========================================================
+        // Public Methods
+        // ===========================================================
+
+        /**
+         * <p>This method overrides the default {@code hashCode} method implementation
+         * for the {@code TypePair} class.</p>
+         *
+         * @return The hash code associated with the object.
+         */
+        @Override
+        public final int hashCode() {
+            return myType1.hashCode() * 31 + myType2.hashCode();
+        }
+
+        /**
+         * <p>This method overrides the default {@code equals} method implementation
+         * for the {@code TypePair} class.</p>
+         *
+         * @param o Object to be compared.
+         *
+         * @return {@code true} if both types are equal, {@code false} otherwise.
+         */
+        @Override
+        public final boolean equals(Object o) {
+            boolean result = o instanceof TypePair;
+
+            if (result) {
+                TypePair oAsTP = (TypePair) o;
+                result =
+                        myType1.equals(oAsTP.myType1)
+                                && myType2.equals(oAsTP.myType2);
+            }
+
+            return result;
+        }
+
+    }
+
+}
@@ -65,13 +65,19 @@ public class TypeGraph {
     /** <p>This contains all mathematical nodes for this graph.</p> */
     private final HashMap<MTType, TypeNode> myTypeNodes;
 
-    /** <p>This contains all established relationships for mathematical subtypes.</p> */
-    private final Set<EstablishedRelationship> myEstablishedSubtypes =
-            new HashSet<>();
+    /**
+     * <p>The number of negative answers remembered by each of
+     * {@link #getSubtypeMemo()} and {@link #getElementMemo()}.</p>
+     */
+    public static final int MEMO_CAPACITY = 4096;
 
-    /** <p>This contains all established relationships for mathematical elements.</p> */
-    private final Set<EstablishedRelationship> myEstablishedElements =
-            new HashSet<>();
+    /** <p>This contains recent answers to mathematical subtype queries.</p> */
+    private final RelationshipMemo myEstablishedSubtypes =
+            new RelationshipMemo(MEMO_CAPACITY);
+
+    /** <p>This contains recent answers to mathematical element queries.</p> */
+    private final RelationshipMemo myEstablishedElements =
+            new RelationshipMemo(MEMO_CAPACITY);
 
     // ===========================================================
     // Global Mathematical Types
@@ -288,10 +294,36 @@ public class TypeGraph {
         //We'd like to force the presence of the destination node
         getTypeNode(destinationCanonicalResult.canonicalType);
 
+        //Anything we failed to show before might follow from the new edge
+        myEstablishedSubtypes.forgetNegatives();
+        myEstablishedElements.forgetNegatives();
+
         Populator.emitDebug("Added relationship to type node ["
                 + sourceCanonicalResult.canonicalType + "]: " + relationship);
     }
 
+    /**
+     * <p>Returns the memo of answers given by
+     * {@link #isKnownToBeIn(MTType, MTType)}, so that its hit and miss
+     * counts can be reported.</p>
+     *
+     * @return A {@link RelationshipMemo}.
+     */
+    public final RelationshipMemo getElementMemo() {
+        return myEstablishedElements;
+    }
+
+    /**
+     * <p>Returns the memo of answers given by
+     * {@link #isSubtype(MTType, MTType)}, so that its hit and miss counts
+     * can be reported.</p>
+     *
+     * @return A {@link RelationshipMemo}.
+     */
+    public final RelationshipMemo getSubtypeMemo() {
+        return myEstablishedSubtypes;
+    }
+
     /**
      * <p>Returns a new {@link MTType} with the appropriate substitutions.</p>
      *
@@ -389,17 +421,18 @@ public class TypeGraph {
      *         definitely in <code>expected</code>.
      */
     public final boolean isKnownToBeIn(MTType value, MTType expected) {
-        boolean result;
+        Boolean known = myEstablishedElements.get(value, expected);
+        if (known != null) {
+            return known;
+        }
 
-        EstablishedRelationship r =
-                new EstablishedRelationship(value, expected);
+        boolean result;
 
         //If the type of the given value is a subtype of the expected type, then
         //its value must necessarily be in the expected type.  Note we can't
         //reason about the type of CLS, so we exclude it
         result =
-                myEstablishedElements.contains(r) || (value != CLS)
-                        && (value != ENTITY)
+                (value != CLS) && (value != ENTITY)
                         && isSubtype(value.getType(), expected);
 
         if (!result) {
@@ -412,9 +445,7 @@ public class TypeGraph {
             }
         }
 
-        if (result) {
-            myEstablishedElements.add(r);
-        }
+        myEstablishedElements.put(value, expected, result);
 
         return result;
     }
@@ -431,16 +462,20 @@ public class TypeGraph {
      *         <code>supertype</code>.
      */
     public final boolean isSubtype(MTType subtype, MTType supertype) {
-        boolean result;
+        if (supertype == ENTITY || supertype == CLS) {
+            return true;
+        }
 
-        EstablishedRelationship r =
-                new EstablishedRelationship(subtype, supertype);
+        Boolean known = myEstablishedSubtypes.get(subtype, supertype);
+        if (known != null) {
+            return known;
+        }
+
+        boolean result;
 
         try {
             result =
-                    supertype == ENTITY || supertype == CLS
-                            || myEstablishedSubtypes.contains(r)
-                            || subtype.equals(supertype)
+                    subtype.equals(supertype)
                             || subtype.isSyntacticSubtypeOf(supertype);
         }
         catch (NoSuchElementException nsee) {
@@ -462,9 +497,7 @@ public class TypeGraph {
             }
         }
 
-        if (result) {
-            myEstablishedSubtypes.add(r);
-        }
+        myEstablishedSubtypes.put(subtype, supertype, result);
 
         return result;
     }
@@ -1433,72 +1466,4 @@ public class TypeGraph {
 
     }
 
-    /**
-     * <p>An helper class that indicates an established type relationship
-     * between two {@link MTType MTTypes}.</p>
-     */
-    private static class EstablishedRelationship {
-
-        // ===========================================================
-        // Member Fields
-        // ===========================================================
-
-        /** <p>The mathematical types that has been established a type relationship.</p> */
-        private final MTType myType1, myType2;
-
-        // ===========================================================
-        // Constructors
-        // ===========================================================
-
-        /**
-         * <p>This constructs an object that indicates that we have established a
-         * type relationship between {@code t1} and {@code t2}.</p>
-         *
-         * @param t1 A mathematical type.
-         * @param t2 Another mathematical type.
-         */
-        EstablishedRelationship(MTType t1, MTType t2) {
-            myType1 = t1;
-            myType2 = t2;
-        }
-
-        // ===========================================================
-        // Public Methods
-        // ===========================================================
-
-        /**
-         * <p>This method overrides the default {@code hashCode} method implementation
-         * for the {@code EstablishedRelationship} class.</p>
-         *
-         * @return The hash code associated with the object.
-         */
-        @Override
-        public final int hashCode() {
-            return myType1.hashCode() * 31 + myType2.hashCode();
-        }
-
-        /**
-         * <p>This method overrides the default {@code equals} method implementation
-         * to ensure that we have a correctly established type relationship.</p>
-         *
-         * @param o Object to be compared.
-         *
-         * @return {@code true} if all the fields are equal, {@code false} otherwise.
-         */
-        @Override
-        public final boolean equals(Object o) {
-            boolean result = o instanceof EstablishedRelationship;
-
-            if (result) {
-                EstablishedRelationship oAsER = (EstablishedRelationship) o;
-                result =
-                        myType1.equals(oAsER.myType1)
-                                && myType2.equals(oAsER.myType2);
-            }
-
-            return result;
-        }
-
-    }
-
 }
\ No newline at end of file